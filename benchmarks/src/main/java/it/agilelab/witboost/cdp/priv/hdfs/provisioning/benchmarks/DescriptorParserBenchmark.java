@@ -0,0 +1,52 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.benchmarks;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Descriptor;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.parser.Parser;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/***
+ * Measures the parsing of the whole descriptor as the number of components of the data product grows,
+ * with both the tree parser and the streaming parser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DescriptorParserBenchmark {
+
+    @Param({"2", "20", "200"})
+    private int componentCount;
+
+    private String descriptor;
+
+    @Setup
+    public void setUp() throws IOException {
+        descriptor = Descriptors.withComponents(componentCount, Descriptors.OUTPUTPORT_ID);
+    }
+
+    @Benchmark
+    public Either<FailedOperation, Descriptor> parseDescriptor() {
+        return Parser.parseDescriptor(descriptor);
+    }
+
+    @Benchmark
+    public Either<FailedOperation, Descriptor> parseDescriptorStreaming() {
+        return Parser.parseDescriptorStreaming(descriptor);
+    }
+}
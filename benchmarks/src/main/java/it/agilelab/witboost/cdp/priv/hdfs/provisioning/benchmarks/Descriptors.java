@@ -0,0 +1,50 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/***
+ * Descriptors used by the benchmarks, built from the sample outputport descriptor
+ */
+final class Descriptors {
+
+    static final String STORAGE_ID = "urn:dmb:cmp:healthcare:vaccinations:0:storage";
+    static final String OUTPUTPORT_ID = "urn:dmb:cmp:healthcare:vaccinations:0:hdfs-output-port";
+
+    private static final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+
+    private Descriptors() {}
+
+    /***
+     * Builds a descriptor with the given number of components, adding copies of the sample output port
+     * to the storage area and output port already in the sample descriptor
+     * @param componentCount total number of components of the data product, at least 2
+     * @param componentIdToProvision id of the component to provision
+     * @return the descriptor in YAML format
+     */
+    static String withComponents(int componentCount, String componentIdToProvision) throws IOException {
+        var descriptor = (ObjectNode) yamlMapper.readTree(readResource("/descriptor_outputport.yml"));
+        var components = (ArrayNode) descriptor.path("dataProduct").path("components");
+        var outputPort = components.get(1);
+        for (int i = components.size(); i < componentCount; i++) {
+            var copy = outputPort.deepCopy();
+            ((ObjectNode) copy).put("id", OUTPUTPORT_ID + "-" + i);
+            ((ObjectNode) copy).put("name", "CDP Private HDFS Output Port " + i);
+            components.add(copy);
+        }
+        descriptor.put("componentIdToProvision", componentIdToProvision);
+        return yamlMapper.writeValueAsString(descriptor);
+    }
+
+    static String readResource(String name) throws IOException {
+        try (InputStream is = Descriptors.class.getResourceAsStream(name)) {
+            if (is == null) throw new IOException("Resource not found: " + name);
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.benchmarks;
+
+import static io.vavr.control.Either.right;
+
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPGroup;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPUser;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.LdapService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/***
+ * LdapService answering from memory, so that the benchmarks measure the provisioner and not the directory server.
+ * Every mail and group is found, the user id being the local part of the mail
+ */
+class InMemoryLdapService implements LdapService {
+
+    @Override
+    public Either<FailedOperation, Option<CDPUser>> findUserByMail(String mail) {
+        return right(Option.some(new CDPUser(mail.substring(0, mail.indexOf('@')), mail)));
+    }
+
+    @Override
+    public Either<FailedOperation, Option<CDPGroup>> findGroupByName(String name) {
+        return right(Option.some(new CDPGroup(name)));
+    }
+
+    @Override
+    public Map<String, Either<FailedOperation, Option<CDPUser>>> findUsersByMail(Collection<String> mails) {
+        Map<String, Either<FailedOperation, Option<CDPUser>>> res = new HashMap<>();
+        mails.forEach(mail -> res.put(mail, findUserByMail(mail)));
+        return res;
+    }
+
+    @Override
+    public Map<String, Either<FailedOperation, Option<CDPGroup>>> findGroupsByName(Collection<String> names) {
+        Map<String, Either<FailedOperation, Option<CDPGroup>>> res = new HashMap<>();
+        names.forEach(name -> res.put(name, findGroupByName(name)));
+        return res;
+    }
+}
@@ -0,0 +1,101 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.benchmarks;
+
+import static io.vavr.control.Either.right;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.RangerService;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerRole;
+import org.apache.ranger.plugin.model.RangerSecurityZone;
+
+/***
+ * RangerService keeping the security zones, policies and roles in memory, so that the benchmarks measure
+ * the provisioner and not Ranger Admin
+ */
+class InMemoryRangerService implements RangerService {
+
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<String, RangerSecurityZone> zones = new ConcurrentHashMap<>();
+    private final Map<String, RangerPolicy> policies = new ConcurrentHashMap<>();
+    private final Map<String, RangerRole> roles = new ConcurrentHashMap<>();
+
+    @Override
+    public Either<FailedOperation, Optional<RangerSecurityZone>> findSecurityZoneByName(String zoneName) {
+        return right(Optional.ofNullable(zones.get(zoneName)));
+    }
+
+    @Override
+    public Either<FailedOperation, RangerSecurityZone> createSecurityZone(RangerSecurityZone zone) {
+        zone.setId(ids.incrementAndGet());
+        zones.put(zone.getName(), zone);
+        return right(zone);
+    }
+
+    @Override
+    public Either<FailedOperation, RangerSecurityZone> updateSecurityZone(RangerSecurityZone zone) {
+        zones.put(zone.getName(), zone);
+        return right(zone);
+    }
+
+    @Override
+    public Either<FailedOperation, Optional<RangerPolicy>> findPolicyByName(
+            String serviceName, String policyName, Optional<String> zoneName) {
+        return right(Optional.ofNullable(policies.get(policyName)));
+    }
+
+    @Override
+    public Either<FailedOperation, List<RangerPolicy>> findPoliciesInZone(String serviceName, String zoneName) {
+        return right(policies.values().stream()
+                .filter(p -> zoneName.equals(p.getZoneName()))
+                .toList());
+    }
+
+    @Override
+    public Either<FailedOperation, RangerPolicy> createPolicy(RangerPolicy policy) {
+        policy.setId(ids.incrementAndGet());
+        policies.put(policy.getName(), policy);
+        return right(policy);
+    }
+
+    @Override
+    public Either<FailedOperation, RangerPolicy> updatePolicy(RangerPolicy policy) {
+        policies.put(policy.getName(), policy);
+        return right(policy);
+    }
+
+    @Override
+    public Either<FailedOperation, Void> deletePolicy(RangerPolicy policy) {
+        policies.remove(policy.getName());
+        return right(null);
+    }
+
+    @Override
+    public Either<FailedOperation, Optional<RangerRole>> findRoleByName(String roleName) {
+        return right(Optional.ofNullable(roles.get(roleName)));
+    }
+
+    @Override
+    public Either<FailedOperation, RangerRole> createRole(RangerRole role) {
+        role.setId(ids.incrementAndGet());
+        roles.put(role.getName(), role);
+        return right(role);
+    }
+
+    @Override
+    public Either<FailedOperation, RangerRole> updateRole(RangerRole role) {
+        roles.put(role.getName(), role);
+        return right(role);
+    }
+
+    @Override
+    public Either<FailedOperation, Void> deleteRole(RangerRole role) {
+        roles.remove(role.getName());
+        return right(null);
+    }
+}
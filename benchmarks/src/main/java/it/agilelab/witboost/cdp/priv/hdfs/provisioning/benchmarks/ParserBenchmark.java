@@ -0,0 +1,70 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import io.vavr.control.Either;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Component;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Specific;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.StorageSpecific;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.parser.Parser;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/***
+ * Compares the deserialization of a component of the descriptor through {@link Parser#parseComponent}, which converts
+ * the already parsed tree, with the former approach of serializing the tree back to text and parsing it again
+ * with the YAML mapper
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory()).registerModule(new Jdk8Module());
+
+    @Param({"storage", "outputport"})
+    private String componentKind;
+
+    private JsonNode component;
+    private Class<? extends Specific> specificClass;
+
+    @Setup
+    public void setUp() throws IOException {
+        String descriptor = Descriptors.readResource("/descriptor_outputport.yml");
+        var dataProduct = Parser.parseDescriptor(descriptor).get().getDataProduct();
+        boolean storage = "storage".equals(componentKind);
+        component = dataProduct
+                .getComponentToProvision(storage ? Descriptors.STORAGE_ID : Descriptors.OUTPUTPORT_ID)
+                .get();
+        specificClass = storage ? StorageSpecific.class : Specific.class;
+    }
+
+    @Benchmark
+    public Component<?> reserializeAndParse() throws IOException {
+        JavaType javaType = yamlMapper.getTypeFactory().constructParametricType(Component.class, specificClass);
+        return yamlMapper.readValue(component.toString(), javaType);
+    }
+
+    @Benchmark
+    public Either<FailedOperation, ? extends Component<?>> parseComponent() {
+        return Parser.parseComponent(component, specificClass);
+    }
+}
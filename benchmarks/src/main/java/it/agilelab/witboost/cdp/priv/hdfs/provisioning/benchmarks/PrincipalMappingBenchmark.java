@@ -0,0 +1,91 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.benchmarks;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.ParserConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.RangerConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPIdentity;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.ProvisionRequest;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Specific;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.DescriptorKind;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningStatus;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.PrincipalMappingService;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.PrincipalMappingServiceLdap;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision.OutputPortHandler;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.validation.OutputPortValidation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.validation.StorageAreaValidation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.validation.ValidationServiceImpl;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/***
+ * Measures the mapping of the Witboost subjects to CDP identities and the update of the Access Control List
+ * of an output port as the number of refs grows. LDAP and Ranger are replaced by in-memory stubs,
+ * half of the refs are users and half are groups
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrincipalMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int refCount;
+
+    private PrincipalMappingService principalMappingService;
+    private OutputPortHandler outputPortHandler;
+    private Set<String> subjects;
+    private List<String> refs;
+    private ProvisionRequest<? extends Specific> provisionRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        principalMappingService = new PrincipalMappingServiceLdap(new InMemoryLdapService());
+        outputPortHandler = new OutputPortHandler(
+                new InMemoryRangerService(),
+                new RangerConfig("http://ranger-host", 30000, "admin", "admin", "cm_hdfs", "admin", null),
+                principalMappingService);
+        refs = Stream.concat(
+                        IntStream.range(0, refCount / 2).mapToObj(i -> "user:name" + i + "_email.com"),
+                        IntStream.range(refCount / 2, refCount).mapToObj(i -> "group:group" + i))
+                .toList();
+        subjects = Set.copyOf(refs);
+        var validationService = new ValidationServiceImpl(
+                new StorageAreaValidation(), new OutputPortValidation(), new ParserConfig(false));
+        provisionRequest = validationService
+                .validate(new ProvisioningRequest(
+                        DescriptorKind.COMPONENT_DESCRIPTOR,
+                        Descriptors.withComponents(2, Descriptors.OUTPUTPORT_ID),
+                        false))
+                .getOrElseThrow(() -> new IllegalStateException("The benchmark descriptor is not valid"));
+    }
+
+    @Benchmark
+    public Map<String, Either<FailedOperation, CDPIdentity>> map() {
+        return principalMappingService.map(subjects);
+    }
+
+    @Benchmark
+    public Either<FailedOperation, ProvisioningStatus> updateAcl() {
+        return outputPortHandler.updateAcl(refs, provisionRequest);
+    }
+}
@@ -0,0 +1,65 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.benchmarks;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.ComponentInfo;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerNameSanitizer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/***
+ * Compares the regex cleaning of the Ranger entity names with {@link RangerNameSanitizer}, and the
+ * {@code String.format} derivation of the name prefixes with the one of {@link ComponentInfo}.
+ * Names coming from the descriptors are usually already clean, so both a clean and a dirty name are measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RangerNamingBenchmark {
+
+    @Param({"healthcare_vaccinations_0_storage_access_policy", "health-care_vaccinations.dp_0_storage_access_policy"})
+    private String name;
+
+    private ComponentInfo componentInfo;
+
+    @Setup
+    public void setup() {
+        componentInfo = new ComponentInfo("healthcare", "vaccinations", "0", "storage");
+    }
+
+    @Benchmark
+    public String cleanRegex() {
+        return name.replaceAll("[^A-Za-z0-9_]", "_");
+    }
+
+    @Benchmark
+    public String cleanSanitizer() {
+        return RangerNameSanitizer.sanitize(name);
+    }
+
+    @Benchmark
+    public String componentPrefixFormat() {
+        return String.format(
+                "%s_%s_%s_%s",
+                componentInfo.domain(),
+                componentInfo.dataProductId(),
+                componentInfo.dataProductMajorVersion(),
+                componentInfo.componentId());
+    }
+
+    @Benchmark
+    public String componentPrefixConcat() {
+        return componentInfo.componentPrefix();
+    }
+}
@@ -0,0 +1,104 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.benchmarks;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerPolicyUtils;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerRoleUtils;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerSecurityZoneUtils;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerRole;
+import org.apache.ranger.plugin.model.RangerSecurityZone;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/***
+ * Measures the construction of the Ranger entities sent on every provisioning request, as the number of
+ * users and groups of a role and the number of paths of a security zone grow
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RangerUtilsBenchmark {
+
+    private static final String HDFS_SERVICE_NAME = "cm_hdfs";
+    private static final String DEPLOY_USER = "admin";
+    private static final String ZONE_NAME = "healthcare_vaccinations_0";
+    private static final String PREFIX = "healthcare_vaccinations_0_storage";
+    private static final String PATH = "/myprefix/healthcare/data-products/vaccinations/0/storage/";
+
+    @Param({"10", "100", "1000"})
+    private int refCount;
+
+    private List<String> users;
+    private List<String> groups;
+    private RangerPolicy existingPolicy;
+    private RangerRole existingRole;
+    private RangerSecurityZone existingZone;
+
+    @Setup
+    public void setUp() {
+        users = IntStream.range(0, refCount).mapToObj(i -> "user" + i).toList();
+        groups = IntStream.range(0, refCount).mapToObj(i -> "group" + i).toList();
+        existingPolicy = RangerPolicyUtils.rangerPolicy(
+                PREFIX, ZONE_NAME, PATH + "*", PREFIX + "_owner", PREFIX + "_read", HDFS_SERVICE_NAME);
+        existingPolicy.setId(1L);
+    }
+
+    /***
+     * The merge functions update the existing entity in place, so it is rebuilt before each invocation
+     */
+    @Setup(Level.Invocation)
+    public void setUpExistingEntities() {
+        existingRole = RangerRoleUtils.rangerRole(PREFIX + "_read", users, groups, DEPLOY_USER);
+        existingZone = RangerSecurityZoneUtils.securityZone(ZONE_NAME, HDFS_SERVICE_NAME, DEPLOY_USER, PATH);
+        List<String> paths = new ArrayList<>(
+                IntStream.range(0, refCount).mapToObj(i -> PATH + i).toList());
+        existingZone.setServices(Map.of(
+                HDFS_SERVICE_NAME,
+                new RangerSecurityZone.RangerSecurityZoneService(List.of(new HashMap<>(Map.of("path", paths))))));
+    }
+
+    @Benchmark
+    public RangerPolicy rangerPolicy() {
+        return RangerPolicyUtils.rangerPolicy(
+                PREFIX, ZONE_NAME, PATH + "*", PREFIX + "_owner", PREFIX + "_read", HDFS_SERVICE_NAME);
+    }
+
+    @Benchmark
+    public RangerPolicy rangerPolicyUpdate() {
+        return RangerPolicyUtils.rangerPolicy(
+                existingPolicy, PREFIX, ZONE_NAME, PATH + "*", PREFIX + "_owner", PREFIX + "_read", HDFS_SERVICE_NAME);
+    }
+
+    @Benchmark
+    public RangerRole rangerRole() {
+        return RangerRoleUtils.rangerRole(PREFIX + "_read", users, groups, DEPLOY_USER);
+    }
+
+    @Benchmark
+    public RangerRole rangerRoleUpdate() {
+        return RangerRoleUtils.rangerRole(existingRole, users, groups);
+    }
+
+    @Benchmark
+    public RangerSecurityZone securityZoneMerge() {
+        return RangerSecurityZoneUtils.securityZone(existingZone, HDFS_SERVICE_NAME, PATH + refCount);
+    }
+}
@@ -0,0 +1,68 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.benchmarks;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.ParserConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.ProvisionRequest;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Specific;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.DescriptorKind;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.validation.OutputPortValidation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.validation.StorageAreaValidation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.validation.ValidationService;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.validation.ValidationServiceImpl;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/***
+ * Measures the validation of a provisioning request, from the parsing of the descriptor to the checks on the
+ * component to provision. The services are built without Spring, so the bean validation of the components
+ * (applied by the Spring proxy) is not part of the measure
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"2", "20", "200"})
+    private int componentCount;
+
+    @Param({"storage", "outputport"})
+    private String componentKind;
+
+    @Param({"false", "true"})
+    private boolean streaming;
+
+    private ValidationService validationService;
+    private ProvisioningRequest provisioningRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        validationService = new ValidationServiceImpl(
+                new StorageAreaValidation(), new OutputPortValidation(), new ParserConfig(streaming));
+        String componentId = "storage".equals(componentKind) ? Descriptors.STORAGE_ID : Descriptors.OUTPUTPORT_ID;
+        provisioningRequest = new ProvisioningRequest(
+                DescriptorKind.COMPONENT_DESCRIPTOR, Descriptors.withComponents(componentCount, componentId), false);
+        if (validationService.validate(provisioningRequest).isLeft())
+            throw new IllegalStateException("The benchmark descriptor is not valid");
+    }
+
+    @Benchmark
+    public Either<FailedOperation, ProvisionRequest<? extends Specific>> validate() {
+        return validationService.validate(provisioningRequest);
+    }
+}
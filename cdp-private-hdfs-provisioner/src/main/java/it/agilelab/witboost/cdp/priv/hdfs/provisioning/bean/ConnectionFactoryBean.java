@@ -2,8 +2,11 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.bean;
 
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.LdapConfig;
 import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.ldaptive.*;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -11,7 +14,7 @@ public class ConnectionFactoryBean {
 
     @Bean(initMethod = "initialize", destroyMethod = "close")
     public ConnectionFactory connectionFactory(LdapConfig ldapConfig) {
-        return PooledConnectionFactory.builder()
+        var builder = PooledConnectionFactory.builder()
                 .config(ConnectionConfig.builder()
                         .url(ldapConfig.url())
                         .useStartTLS(ldapConfig.useTls())
@@ -21,13 +24,32 @@ public class ConnectionFactoryBean {
                                 .credential(ldapConfig.bindPassword())
                                 .build())
                         .build())
-                .min(1)
-                .max(5)
-                .build();
+                .min(ldapConfig.poolMinSize() != null ? ldapConfig.poolMinSize() : 1)
+                .max(ldapConfig.maxPoolSize());
+        if (ldapConfig.poolValidationPeriod() != null && ldapConfig.poolValidationPeriod() > 0) {
+            builder.validatePeriodically(true)
+                    .validator(SearchConnectionValidator.builder()
+                            .period(Duration.ofMillis(ldapConfig.poolValidationPeriod()))
+                            .timeout(Duration.ofMillis(ldapConfig.timeout()))
+                            .build());
+        }
+        if (ldapConfig.poolBlockWaitTime() != null) {
+            builder.blockWaitTime(Duration.ofMillis(ldapConfig.poolBlockWaitTime()));
+        }
+        return builder.build();
     }
 
     @Bean
     public SearchOperation searchOperation(ConnectionFactory cf) {
         return new SearchOperation(cf);
     }
+
+    /***
+     * Executor of the concurrent LDAP searches. It has as many threads as the pooled connections,
+     * so that the searches never queue up waiting for a free connection
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService ldapLookupExecutor(LdapConfig ldapConfig) {
+        return Executors.newFixedThreadPool(ldapConfig.maxPoolSize(), new CustomizableThreadFactory("ldap-lookup-"));
+    }
 }
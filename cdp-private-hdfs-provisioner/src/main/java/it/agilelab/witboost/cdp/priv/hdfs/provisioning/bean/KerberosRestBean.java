@@ -1,19 +1,142 @@
 package it.agilelab.witboost.cdp.priv.hdfs.provisioning.bean;
 
-import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.KerberosConfig;
-import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsConnectionPoolConfig;
+import java.net.URI;
+import java.security.PrivilegedAction;
+import javax.security.auth.Subject;
+import javax.security.auth.login.LoginException;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.auth.AuthSchemeFactory;
+import org.apache.hc.client5.http.auth.AuthScope;
+import org.apache.hc.client5.http.auth.KerberosConfig;
+import org.apache.hc.client5.http.auth.KerberosCredentials;
+import org.apache.hc.client5.http.auth.StandardAuthScheme;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
+import org.apache.hc.client5.http.impl.auth.SPNegoSchemeFactory;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Scope;
-import org.springframework.security.kerberos.client.KerberosRestTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+/***
+ * Builds the RestTemplate used to call WebHDFS. Connections are pooled and shared by all the requests,
+ * which are authenticated with SPNEGO using the cached subject of {@link KerberosSubjectProvider}.
+ * The hadoop.auth cookie returned by the NameNode is kept by the client, so the SPNEGO handshake
+ * is not repeated for each request
+ */
 @Component
 public class KerberosRestBean {
 
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager webHdfsConnectionManager(
+            HdfsConfig hdfsConfig, HdfsConnectionPoolConfig poolConfig) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(poolConfig.maxTotal())
+                .setMaxConnPerRoute(poolConfig.maxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(hdfsConfig.timeout()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(poolConfig.socketTimeout()))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient webHdfsHttpClient(
+            PoolingHttpClientConnectionManager webHdfsConnectionManager,
+            HdfsConfig hdfsConfig,
+            HdfsConnectionPoolConfig poolConfig) {
+        var credentialsProvider = new BasicCredentialsProvider();
+        // the credentials are taken from the subject of the calling context
+        credentialsProvider.setCredentials(new AuthScope(null, -1), new KerberosCredentials(null));
+        return HttpClients.custom()
+                .setConnectionManager(webHdfsConnectionManager)
+                .setDefaultAuthSchemeRegistry(RegistryBuilder.<AuthSchemeFactory>create()
+                        .register(
+                                StandardAuthScheme.SPNEGO,
+                                new SPNegoSchemeFactory(
+                                        KerberosConfig.custom()
+                                                .setStripPort(KerberosConfig.Option.ENABLE)
+                                                .setUseCanonicalHostname(KerberosConfig.Option.DISABLE)
+                                                .build(),
+                                        SystemDefaultDnsResolver.INSTANCE))
+                        .build())
+                .setDefaultCredentialsProvider(credentialsProvider)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(hdfsConfig.timeout()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(poolConfig.socketTimeout()))
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(poolConfig.keepAlive()))
+                        .build())
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(poolConfig.idleTimeout()))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate kerberosRestTemplate(
+            CloseableHttpClient webHdfsHttpClient,
+            KerberosSubjectProvider kerberosSubjectProvider,
+            HdfsConfig hdfsConfig) {
+        var requestFactory = new HttpComponentsClientHttpRequestFactory(webHdfsHttpClient);
+        requestFactory.setConnectTimeout(hdfsConfig.timeout());
+        requestFactory.setConnectionRequestTimeout(hdfsConfig.timeout());
+        return new SubjectRestTemplate(requestFactory, kerberosSubjectProvider);
+    }
+
     @Bean
-    @Scope(value = ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-    public RestTemplate kerberosRestTemplate(KerberosConfig kConfig) {
-        return new KerberosRestTemplate(kConfig.keytabLocation(), kConfig.principal());
+    public MeterBinder webHdfsConnectionPoolMetrics(PoolingHttpClientConnectionManager webHdfsConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(webHdfsConnectionManager, "webhdfs");
+    }
+
+    /***
+     * RestTemplate executing each request as the Kerberos subject, so that the SPNEGO scheme can
+     * initiate the GSS context with the cached credentials
+     */
+    static class SubjectRestTemplate extends RestTemplate {
+
+        private final KerberosSubjectProvider kerberosSubjectProvider;
+
+        SubjectRestTemplate(
+                HttpComponentsClientHttpRequestFactory requestFactory,
+                KerberosSubjectProvider kerberosSubjectProvider) {
+            super(requestFactory);
+            this.kerberosSubjectProvider = kerberosSubjectProvider;
+        }
+
+        @Override
+        protected <T> T doExecute(
+                URI url,
+                @Nullable String uriTemplate,
+                @Nullable HttpMethod method,
+                @Nullable RequestCallback requestCallback,
+                @Nullable ResponseExtractor<T> responseExtractor)
+                throws RestClientException {
+            Subject subject;
+            try {
+                subject = kerberosSubjectProvider.getSubject();
+            } catch (LoginException e) {
+                throw new RestClientException("Kerberos login failed", e);
+            }
+            return Subject.doAs(subject, (PrivilegedAction<T>)
+                    () -> super.doExecute(url, uriTemplate, method, requestCallback, responseExtractor));
+        }
     }
 }
@@ -0,0 +1,109 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.bean;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.KerberosConfig;
+import java.time.Clock;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.security.auth.Subject;
+import javax.security.auth.kerberos.KerberosTicket;
+import javax.security.auth.login.AppConfigurationEntry;
+import javax.security.auth.login.Configuration;
+import javax.security.auth.login.LoginContext;
+import javax.security.auth.login.LoginException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/***
+ * Provides the Kerberos subject used to authenticate the WebHDFS requests.
+ * The keytab login is performed once and the subject is cached until its TGT is about to expire,
+ * i.e. until {@link KerberosConfig#ticketRenewMargin()} milliseconds before the end time of the ticket
+ */
+@Component
+public class KerberosSubjectProvider {
+
+    private static final String KRB5_LOGIN_MODULE = "com.sun.security.auth.module.Krb5LoginModule";
+
+    private final Logger logger = LoggerFactory.getLogger(KerberosSubjectProvider.class);
+
+    private final KerberosConfig kerberosConfig;
+    private final Clock clock;
+    private final KerberosLogin kerberosLogin;
+    private volatile CachedSubject cachedSubject;
+
+    @Autowired
+    public KerberosSubjectProvider(KerberosConfig kerberosConfig) {
+        this(kerberosConfig, Clock.systemUTC(), KerberosSubjectProvider::keytabLogin);
+    }
+
+    KerberosSubjectProvider(KerberosConfig kerberosConfig, Clock clock, KerberosLogin kerberosLogin) {
+        this.kerberosConfig = kerberosConfig;
+        this.clock = clock;
+        this.kerberosLogin = kerberosLogin;
+    }
+
+    /***
+     * Returns the cached subject, logging in again with the keytab if the TGT is missing or about to expire
+     * @return the authenticated subject
+     * @throws LoginException if the keytab login fails
+     */
+    public Subject getSubject() throws LoginException {
+        var cached = cachedSubject;
+        if (cached != null && clock.millis() < cached.renewAt()) return cached.subject();
+        synchronized (this) {
+            cached = cachedSubject;
+            if (cached != null && clock.millis() < cached.renewAt()) return cached.subject();
+            logger.info("Performing Kerberos login for principal {}", kerberosConfig.principal());
+            Subject subject = kerberosLogin.login(kerberosConfig);
+            cachedSubject = new CachedSubject(subject, renewAt(subject));
+            return subject;
+        }
+    }
+
+    private long renewAt(Subject subject) {
+        Optional<Date> tgtEndTime = subject.getPrivateCredentials(KerberosTicket.class).stream()
+                .filter(ticket -> ticket.getServer() != null
+                        && ticket.getServer().getName().startsWith("krbtgt/"))
+                .map(KerberosTicket::getEndTime)
+                .filter(Objects::nonNull)
+                .min(Date::compareTo);
+        if (tgtEndTime.isEmpty()) {
+            logger.warn("No TGT found in the Kerberos subject, the login will be performed again at the next request");
+            return clock.millis();
+        }
+        long margin = kerberosConfig.ticketRenewMargin() != null ? kerberosConfig.ticketRenewMargin() : 0L;
+        return tgtEndTime.get().getTime() - margin;
+    }
+
+    private static Subject keytabLogin(KerberosConfig kerberosConfig) throws LoginException {
+        var options = Map.of(
+                "useKeyTab", "true",
+                "keyTab", kerberosConfig.keytabLocation(),
+                "principal", kerberosConfig.principal(),
+                "storeKey", "true",
+                "doNotPrompt", "true",
+                "isInitiator", "true",
+                "refreshKrb5Config", "true");
+        var entry = new AppConfigurationEntry(
+                KRB5_LOGIN_MODULE, AppConfigurationEntry.LoginModuleControlFlag.REQUIRED, options);
+        var configuration = new Configuration() {
+            @Override
+            public AppConfigurationEntry[] getAppConfigurationEntry(String name) {
+                return new AppConfigurationEntry[] {entry};
+            }
+        };
+        LoginContext loginContext = new LoginContext("", new Subject(), null, configuration);
+        loginContext.login();
+        return loginContext.getSubject();
+    }
+
+    @FunctionalInterface
+    interface KerberosLogin {
+        Subject login(KerberosConfig kerberosConfig) throws LoginException;
+    }
+
+    private record CachedSubject(Subject subject, long renewAt) {}
+}
@@ -0,0 +1,51 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.bean;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.CachingLdapService;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/***
+ * Actuator endpoint exposing the statistics of the LDAP lookup cache. A DELETE on the endpoint flushes the cache,
+ * to be used after changes on the directory that must be visible before the cached entries expire.
+ * It's not exposed over HTTP unless it's added to management.endpoints.web.exposure.include
+ */
+@Component
+@Endpoint(id = "ldapcache")
+@ConditionalOnProperty(prefix = "mapping.ldap.cache", name = "enabled", havingValue = "true")
+public class LdapCacheEndpoint {
+
+    private final Logger logger = LoggerFactory.getLogger(LdapCacheEndpoint.class);
+
+    private final CachingLdapService cachingLdapService;
+
+    public LdapCacheEndpoint(CachingLdapService cachingLdapService) {
+        this.cachingLdapService = cachingLdapService;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Long>> stats() {
+        return Map.of(
+                "users", toMap(cachingLdapService.userStats()),
+                "groups", toMap(cachingLdapService.groupStats()));
+    }
+
+    @DeleteOperation
+    public void flush() {
+        logger.info("Flushing the LDAP lookup cache");
+        cachingLdapService.invalidateAll();
+    }
+
+    private Map<String, Long> toMap(CacheStats stats) {
+        return Map.of(
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "evictions", stats.evictionCount());
+    }
+}
@@ -0,0 +1,50 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.bean;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.AsyncConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.RangerConfig;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TaskExecutorBean {
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor provisionerTaskExecutor(AsyncConfig asyncConfig) {
+        return new ThreadPoolExecutor(
+                asyncConfig.poolSize(),
+                asyncConfig.poolSize(),
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(asyncConfig.queueCapacity()),
+                new CustomizableThreadFactory("provisioner-task-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /***
+     * Executor of the operations that a provisioning request runs concurrently, like the Ranger upsert and the
+     * creation of the HDFS folder. Each request waits for the operations it starts, so the number of threads is
+     * bounded by the requests being served
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService provisioningBranchExecutor() {
+        return Executors.newCachedThreadPool(new CustomizableThreadFactory("provisioning-branch-"));
+    }
+
+    /***
+     * Executor of the Ranger calls of the provisioning requests, like the concurrent lookups of the entities of a
+     * security zone. It's separate from the branch executor, whose threads wait for these calls, and bounded, so that
+     * the requests being served don't multiply the threads calling Ranger
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService rangerCallExecutor(RangerConfig rangerConfig) {
+        int concurrency =
+                rangerConfig.concurrency() != null && rangerConfig.concurrency() > 0 ? rangerConfig.concurrency() : 8;
+        return Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("ranger-call-"));
+    }
+}
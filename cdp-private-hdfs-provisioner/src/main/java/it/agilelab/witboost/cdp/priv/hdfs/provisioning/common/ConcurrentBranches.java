@@ -0,0 +1,137 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.common;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.control.Either;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/***
+ * Runs two independent operations concurrently and joins their results. When an operation fails, the other one is
+ * cancelled, interrupting it if it's running, and its result is discarded unless it had already completed. An operation
+ * that doesn't react to interrupts, like a blocking HTTP call, runs to its end anyway and is only waited for. The
+ * problems of all the failed operations are collected into a single {@link FailedOperation}.
+ * The call returns only when both the operations have terminated, so that none of them outlives the caller
+ */
+public final class ConcurrentBranches {
+
+    private ConcurrentBranches() {}
+
+    /***
+     * @param executor executor running the operations. If it rejects an operation, the operation runs in the caller thread
+     * @param first the first operation
+     * @param second the second operation
+     * @return the results of both the operations, or the problems of the failed ones
+     */
+    public static <A, B> Either<FailedOperation, Tuple2<A, B>> both(
+            Executor executor,
+            Supplier<Either<FailedOperation, A>> first,
+            Supplier<Either<FailedOperation, B>> second) {
+        BlockingQueue<Branch<?>> terminated = new LinkedBlockingQueue<>();
+        var branchA = new Branch<>(first, terminated);
+        var branchB = new Branch<>(second, terminated);
+        start(executor, branchA);
+        start(executor, branchB);
+
+        List<Problem> problems = new ArrayList<>();
+        boolean interrupted = false;
+        for (int pending = 2; pending > 0; ) {
+            Branch<?> branch;
+            try {
+                branch = terminated.take();
+            } catch (InterruptedException e) {
+                // the caller gave up: cancel both the operations, but still wait for them to terminate
+                interrupted = true;
+                branchA.cancel();
+                branchB.cancel();
+                continue;
+            }
+            pending--;
+            if (branch.isCancelled() || branch.result().isRight()) continue;
+            problems.addAll(branch.result().getLeft().problems());
+            (branch == branchA ? branchB : branchA).cancel();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            if (problems.isEmpty()) problems.add(new Problem("The operation was interrupted before completing"));
+        }
+
+        if (!problems.isEmpty()) return left(new FailedOperation(problems));
+        return right(Tuple.of(branchA.result().get(), branchB.result().get()));
+    }
+
+    private static void start(Executor executor, Branch<?> branch) {
+        try {
+            executor.execute(branch);
+        } catch (RejectedExecutionException e) {
+            branch.run();
+        }
+    }
+
+    private static final class Branch<T> implements Runnable {
+        private final Supplier<Either<FailedOperation, T>> operation;
+        private final BlockingQueue<Branch<?>> terminated;
+        private Thread runner;
+        private boolean cancelled;
+        private boolean finished;
+        private boolean interruptSent;
+        private volatile Either<FailedOperation, T> result;
+
+        private Branch(Supplier<Either<FailedOperation, T>> operation, BlockingQueue<Branch<?>> terminated) {
+            this.operation = operation;
+            this.terminated = terminated;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (cancelled) {
+                    finished = true;
+                    terminated.add(this);
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                result = operation.get();
+            } catch (RuntimeException e) {
+                String errorMessage =
+                        String.format("An unexpected error occurred while running the operation: %s", e.getMessage());
+                result = left(new FailedOperation(List.of(new Problem(errorMessage, e))));
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    finished = true;
+                    // an interrupt sent by cancel must not leak to the next task of the executor thread
+                    if (interruptSent) Thread.interrupted();
+                }
+                terminated.add(this);
+            }
+        }
+
+        private synchronized void cancel() {
+            if (finished) return;
+            cancelled = true;
+            if (runner != null) {
+                interruptSent = true;
+                runner.interrupt();
+            }
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        private Either<FailedOperation, T> result() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.common;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import io.vavr.control.Either;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/***
+ * Runs a set of operations as soon as the operations they depend on have completed, so that independent operations
+ * run concurrently. Operations can only depend on operations added before them, which rules out cycles.
+ * When an operation fails, the operations not started yet are skipped, while the running ones are left to complete;
+ * the problems of all the failed operations are collected into a single {@link FailedOperation}.
+ * The time taken by each executed operation is recorded. A graph is meant to be run once
+ */
+public class DependencyGraph {
+
+    private final Executor executor;
+    private final List<Node<?>> nodes = new ArrayList<>();
+
+    /***
+     * @param executor executor running the operations. If it rejects an operation, the operation runs in the thread
+     *                 completing its last dependency
+     */
+    public DependencyGraph(Executor executor) {
+        this.executor = executor;
+    }
+
+    /***
+     * Adds an operation to the graph
+     * @param name name of the operation, used to report its timing
+     * @param operation the operation
+     * @param dependencies the operations that must complete successfully before this one starts
+     * @return the node of the operation, holding its result once the graph has run
+     */
+    public <T> Node<T> add(String name, Supplier<Either<FailedOperation, T>> operation, Node<?>... dependencies) {
+        for (Node<?> dependency : dependencies)
+            if (!nodes.contains(dependency))
+                throw new IllegalArgumentException(
+                        String.format("The dependency '%s' of '%s' is not part of the graph", dependency.name, name));
+        var node = new Node<>(name, operation, Arrays.asList(dependencies));
+        nodes.add(node);
+        return node;
+    }
+
+    /***
+     * Runs the operations and waits for all of them to complete or to be skipped. If the calling thread is
+     * interrupted while waiting, the operations not started yet are skipped, the running ones are left to complete
+     * and the interruption is reported as a problem
+     * @return nothing if all the operations succeeded, the problems of the failed ones otherwise
+     */
+    public Either<FailedOperation, Void> run() {
+        var failed = new AtomicBoolean(false);
+        Map<Node<?>, CompletableFuture<Void>> futures = new HashMap<>();
+        for (Node<?> node : nodes) {
+            var dependencies = node.dependencies.stream().map(futures::get).toArray(CompletableFuture[]::new);
+            futures.put(node, CompletableFuture.allOf(dependencies).thenRunAsync(() -> node.execute(failed), runner()));
+        }
+        try {
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.set(true);
+            return left(new FailedOperation(
+                    List.of(new Problem("The operations were interrupted while waiting for their completion"))));
+        } catch (ExecutionException e) {
+            String errorMessage = String.format(
+                    "An unexpected error occurred while running the operations: %s",
+                    e.getCause().getMessage());
+            return left(new FailedOperation(List.of(new Problem(errorMessage, e.getCause()))));
+        }
+
+        List<Problem> problems = new ArrayList<>();
+        nodes.stream()
+                .filter(n -> n.result != null && n.result.isLeft())
+                .forEach(n -> problems.addAll(n.result.getLeft().problems()));
+        if (!problems.isEmpty()) return left(new FailedOperation(problems));
+        return right(null);
+    }
+
+    /***
+     * @return the time in milliseconds taken by each executed operation, in the order the operations were added
+     */
+    public Map<String, Long> timings() {
+        Map<String, Long> timings = new LinkedHashMap<>();
+        nodes.stream().filter(n -> n.result != null).forEach(n -> timings.put(n.name, n.elapsedMillis));
+        return Collections.unmodifiableMap(timings);
+    }
+
+    private Executor runner() {
+        return command -> {
+            try {
+                executor.execute(command);
+            } catch (RejectedExecutionException e) {
+                command.run();
+            }
+        };
+    }
+
+    /***
+     * An operation of the graph
+     */
+    public static final class Node<T> {
+        private final String name;
+        private final Supplier<Either<FailedOperation, T>> operation;
+        private final List<Node<?>> dependencies;
+        private volatile Either<FailedOperation, T> result;
+        private volatile long elapsedMillis;
+
+        private Node(String name, Supplier<Either<FailedOperation, T>> operation, List<Node<?>> dependencies) {
+            this.name = name;
+            this.operation = operation;
+            this.dependencies = dependencies;
+        }
+
+        private void execute(AtomicBoolean failed) {
+            if (failed.get()) return;
+            long start = System.nanoTime();
+            try {
+                result = operation.get();
+            } catch (RuntimeException e) {
+                String errorMessage = String.format(
+                        "An unexpected error occurred while running the operation '%s': %s", name, e.getMessage());
+                result = left(new FailedOperation(List.of(new Problem(errorMessage, e))));
+            }
+            elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (result.isLeft()) failed.set(true);
+        }
+
+        /***
+         * @return the result of the operation. Only available to the operations depending on this one, or once the
+         *         graph has run successfully
+         */
+        public T get() {
+            if (result == null || result.isLeft())
+                throw new IllegalStateException(String.format("The operation '%s' has not succeeded", name));
+            return result.get();
+        }
+    }
+}
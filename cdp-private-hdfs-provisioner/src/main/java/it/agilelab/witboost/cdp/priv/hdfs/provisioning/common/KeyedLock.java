@@ -0,0 +1,63 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.common;
+
+import static io.vavr.control.Either.left;
+
+import io.vavr.control.Either;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/***
+ * Mutual exclusion scoped to a key: actions run with the same key are serialized,
+ * while actions with different keys run concurrently.
+ * Locks are created on demand and released as soon as no thread holds or waits for them.
+ * The wait for the lock is interruptible, so that a cancelled operation doesn't queue behind the other ones
+ */
+public class KeyedLock {
+
+    private final ConcurrentHashMap<String, LockEntry> locks = new ConcurrentHashMap<>();
+
+    /***
+     * Runs the action while holding the lock of the supplied key
+     * @param key key of the lock
+     * @param action action to run
+     * @return the result of the action, or a failure if the thread is interrupted while waiting for the lock
+     */
+    public <T> Either<FailedOperation, T> withLock(String key, Supplier<Either<FailedOperation, T>> action) {
+        LockEntry entry = locks.compute(key, (k, e) -> {
+            LockEntry lockEntry = e != null ? e : new LockEntry();
+            lockEntry.holders++;
+            return lockEntry;
+        });
+        try {
+            entry.lock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(key);
+            String errorMessage =
+                    String.format("The operation was interrupted while waiting for the lock of '%s'", key);
+            return left(new FailedOperation(List.of(new Problem(errorMessage, e))));
+        }
+        try {
+            return action.get();
+        } finally {
+            entry.lock.unlock();
+            release(key);
+        }
+    }
+
+    private void release(String key) {
+        locks.compute(key, (k, e) -> --e.holders == 0 ? null : e);
+    }
+
+    int size() {
+        return locks.size();
+    }
+
+    private static class LockEntry {
+        private final ReentrantLock lock = new ReentrantLock();
+        // guarded by the map bin of the key, as it's only modified inside compute
+        private int holders;
+    }
+}
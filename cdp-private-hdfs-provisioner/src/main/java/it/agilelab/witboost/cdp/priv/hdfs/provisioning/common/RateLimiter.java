@@ -0,0 +1,51 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/***
+ * Spaces out operations so that no more than a given number of them start per second, whatever the number of
+ * threads asking for permits. Permits are handed out in order of request, each one a fixed interval after the previous
+ */
+public class RateLimiter {
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    private final long intervalNanos;
+    private final LongSupplier nanoTime;
+    private final Sleeper sleeper;
+    private long nextFreeSlot;
+
+    /***
+     * @param permitsPerSecond maximum number of permits per second. A non-positive value removes the limit
+     */
+    public RateLimiter(double permitsPerSecond) {
+        this(permitsPerSecond, System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    RateLimiter(double permitsPerSecond, LongSupplier nanoTime, Sleeper sleeper) {
+        this.intervalNanos = permitsPerSecond > 0 ? Math.round(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0L;
+        this.nanoTime = nanoTime;
+        this.sleeper = sleeper;
+        this.nextFreeSlot = nanoTime.getAsLong();
+    }
+
+    /***
+     * Waits until a permit is available
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) return;
+        long wait;
+        synchronized (this) {
+            long now = nanoTime.getAsLong();
+            long slot = Math.max(nextFreeSlot, now);
+            nextFreeSlot = slot + intervalNanos;
+            wait = slot - now;
+        }
+        if (wait > 0) sleeper.sleep(wait);
+    }
+}
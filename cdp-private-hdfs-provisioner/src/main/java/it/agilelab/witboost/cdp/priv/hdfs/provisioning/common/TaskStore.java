@@ -0,0 +1,100 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/***
+ * In-memory store of the status of asynchronous tasks, identified by a random token.
+ * Statuses are evicted when they are older than the configured TTL or when the store exceeds its maximum size
+ * @param <T> type of the status
+ */
+public class TaskStore<T> {
+
+    private final Logger logger = LoggerFactory.getLogger(TaskStore.class);
+
+    private final Cache<String, T> statuses;
+
+    public TaskStore(Duration ttl, long maxSize) {
+        this.statuses =
+                Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxSize).build();
+    }
+
+    /***
+     * Submits the task to the executor, storing the initial status until the task completes
+     * @param executor executor of the task
+     * @param initialStatus status of the task while it's running
+     * @param task the task, returning its final status
+     * @param onError maps an unexpected error of the task to its final status
+     * @return the token identifying the task
+     * @throws RejectedExecutionException if the executor can't accept the task
+     */
+    public String submit(Executor executor, T initialStatus, Supplier<T> task, Function<Throwable, T> onError) {
+        return submitWithProgress(executor, initialStatus, progress -> task.get(), onError);
+    }
+
+    /***
+     * Submits the task to the executor like {@link #submit}, letting the task replace its status while it's running
+     * @param executor executor of the task
+     * @param initialStatus status of the task until it reports its progress
+     * @param task the task, receiving the consumer of its intermediate statuses and returning its final status.
+     *             Intermediate statuses must be reported before the task returns
+     * @param onError maps an unexpected error of the task to its final status
+     * @return the token identifying the task
+     * @throws RejectedExecutionException if the executor can't accept the task
+     */
+    public String submitWithProgress(
+            Executor executor, T initialStatus, Function<Consumer<T>, T> task, Function<Throwable, T> onError) {
+        String token = UUID.randomUUID().toString();
+        statuses.put(token, initialStatus);
+        // an expired status is not brought back by a later progress
+        Consumer<T> progress = status -> statuses.asMap().replace(token, status);
+        try {
+            executor.execute(() -> {
+                T finalStatus;
+                try {
+                    finalStatus = task.apply(progress);
+                } catch (Throwable e) {
+                    // the status must not stay running forever, whatever the error
+                    logger.error("Task {} failed", token, e);
+                    finalStatus = onError.apply(e);
+                }
+                statuses.put(token, finalStatus);
+            });
+        } catch (RejectedExecutionException e) {
+            statuses.invalidate(token);
+            throw new RejectedExecutionException(
+                    "Too many requests are being processed. Please try again later and if the issue persists contact the platform team",
+                    e);
+        }
+        return token;
+    }
+
+    /***
+     * Stores the status of a task that is already completed
+     * @param status the final status of the task
+     * @return the token identifying the task
+     */
+    public String completed(T status) {
+        String token = UUID.randomUUID().toString();
+        statuses.put(token, status);
+        return token;
+    }
+
+    /***
+     * @param token the token identifying the task
+     * @return the current status of the task, empty if the token is unknown or expired
+     */
+    public Optional<T> get(String token) {
+        return Optional.ofNullable(statuses.getIfPresent(token));
+    }
+}
@@ -0,0 +1,23 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/***
+ * Asynchronous tasks configuration
+ * @param provisionEnabled If true, provision and unprovision requests are executed in background and a token to poll their status is returned
+ * @param poolSize Number of threads executing the asynchronous tasks
+ * @param queueCapacity Maximum number of tasks waiting for a free thread. Further requests are rejected
+ * @param taskTtl Time in milliseconds the status of a task is kept after its last update
+ * @param maxTasks Maximum number of task statuses kept in memory
+ * @param validationCacheTtl Time in milliseconds the result of the validation of a descriptor is cached
+ * @param validationCacheMaxSize Maximum number of cached validation results
+ */
+@ConfigurationProperties(prefix = "async")
+public record AsyncConfig(
+        Boolean provisionEnabled,
+        Integer poolSize,
+        Integer queueCapacity,
+        Integer taskTtl,
+        Integer maxTasks,
+        Integer validationCacheTtl,
+        Integer validationCacheMaxSize) {}
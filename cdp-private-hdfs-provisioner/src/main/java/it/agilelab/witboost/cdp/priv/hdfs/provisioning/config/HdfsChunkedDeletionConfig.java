@@ -0,0 +1,13 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/***
+ * Configuration of the CHUNKED removal strategy, which deletes a folder entry by entry, and of the purge of the trash
+ * of the TRASH strategy, which deletes the removed folders the same way
+ * @param rate Maximum number of WebHDFS operations per second issued by all the deletions. A missing or non-positive value removes the limit
+ * @param concurrency Number of deletions running at the same time, shared by all the removed folders. Defaults to 4
+ * @param batchSize Number of entries deleted before waiting for their completion and reporting the progress. Defaults to 100
+ */
+@ConfigurationProperties(prefix = "hdfs.removal.chunked")
+public record HdfsChunkedDeletionConfig(Double rate, Integer concurrency, Integer batchSize) {}
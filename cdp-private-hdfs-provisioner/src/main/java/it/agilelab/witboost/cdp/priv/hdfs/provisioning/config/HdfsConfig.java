@@ -1,12 +1,49 @@
 package it.agilelab.witboost.cdp.priv.hdfs.provisioning.config;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /***
  * Hdfs configuration
- * @param baseUrlNN1 Base URL for the WEBHDFS rest API (main NameNode)
- * @param baseUrlNN2 Base URL for the WEBHDFS rest API (secondary NameNode)
+ * @param baseUrlNN1 Base URL for the WEBHDFS rest API (main NameNode). Ignored if nameNodes is set
+ * @param baseUrlNN2 Base URL for the WEBHDFS rest API (secondary NameNode). Ignored if nameNodes is set
+ * @param nameNodes Base URLs for the WEBHDFS rest API of all the NameNodes of the cluster
+ * @param nameNodeProbeMode How the NameNodes are queried to find the active one. Defaults to SEQUENTIAL
  * @param timeout Timeout in milliseconds
+ * @param activeNameNodeTtl Time in milliseconds the resolved active NameNode is cached before probing JMX again
+ * @param activeNameNodeRefreshInterval Interval in milliseconds of the background refresh of the active NameNode. A missing or non-positive value disables the background refresh
  */
 @ConfigurationProperties(prefix = "hdfs")
-public record HdfsConfig(String baseUrlNN1, String baseUrlNN2, Integer timeout) {}
+public record HdfsConfig(
+        String baseUrlNN1,
+        String baseUrlNN2,
+        List<String> nameNodes,
+        NameNodeProbeMode nameNodeProbeMode,
+        Integer timeout,
+        Integer activeNameNodeTtl,
+        Integer activeNameNodeRefreshInterval) {
+
+    public enum NameNodeProbeMode {
+        /*** NameNodes are queried one after the other, in the configured order */
+        SEQUENTIAL,
+        /*** NameNodes are queried concurrently, the first one answering as active wins */
+        PARALLEL
+    }
+
+    /***
+     * @return the base URLs of the NameNodes, taken from nameNodes if set or from baseUrlNN1 and baseUrlNN2 otherwise
+     */
+    public List<String> nameNodeBaseUrls() {
+        if (nameNodes != null && !nameNodes.isEmpty()) return nameNodes;
+        return Stream.of(baseUrlNN1, baseUrlNN2).filter(Objects::nonNull).toList();
+    }
+
+    /***
+     * @return the configured probe mode, SEQUENTIAL if missing
+     */
+    public NameNodeProbeMode probeMode() {
+        return nameNodeProbeMode != null ? nameNodeProbeMode : NameNodeProbeMode.SEQUENTIAL;
+    }
+}
@@ -0,0 +1,15 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/***
+ * Connection pool configuration of the HTTP client used to call WebHDFS and the NameNode JMX endpoints
+ * @param maxTotal Maximum number of pooled connections
+ * @param maxPerRoute Maximum number of pooled connections towards the same NameNode
+ * @param keepAlive Time in milliseconds a connection is kept alive when the server doesn't send a Keep-Alive header
+ * @param idleTimeout Time in milliseconds after which idle connections are evicted from the pool
+ * @param socketTimeout Socket read timeout in milliseconds
+ */
+@ConfigurationProperties(prefix = "hdfs.connection-pool")
+public record HdfsConnectionPoolConfig(
+        Integer maxTotal, Integer maxPerRoute, Integer keepAlive, Integer idleTimeout, Integer socketTimeout) {}
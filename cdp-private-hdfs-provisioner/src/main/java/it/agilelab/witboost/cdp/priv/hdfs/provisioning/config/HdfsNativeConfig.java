@@ -0,0 +1,16 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.config;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/***
+ * Configuration of the native HDFS client, talking Hadoop RPC to the NameNodes instead of WebHDFS
+ * @param enabled Whether the native client is used instead of WebHDFS. Defaults to false
+ * @param uri URI of the file system, e.g. hdfs://nameservice1 for an HA nameservice. Defaults to the fs.defaultFS of the configuration
+ * @param configResources Hadoop configuration files to load, e.g. /etc/hadoop/conf/core-site.xml and /etc/hadoop/conf/hdfs-site.xml
+ * @param properties Hadoop configuration properties overriding the ones of the configuration files
+ */
+@ConfigurationProperties(prefix = "hdfs.native")
+public record HdfsNativeConfig(
+        Boolean enabled, String uri, List<String> configResources, Map<String, String> properties) {}
@@ -0,0 +1,34 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/***
+ * Configuration of the removal of the folders of the storage areas unprovisioned with removeData
+ * @param strategy How the folders are removed. Defaults to DELETE
+ * @param trashRoot Folder where the removed folders are moved with the TRASH strategy. It must be in the same encryption zone as the storage areas.
+ *                  A dedicated root is used instead of the .Trash of the HDFS trash, which would be the one of the technical
+ *                  user and would follow the cluster-wide fs.trash.interval, so that the retention is set by the provisioner
+ * @param retention Time in milliseconds a removed folder is kept in the trash before being purged. Defaults to 0
+ * @param purgeInterval Interval in milliseconds of the background purge of the trash. A missing or non-positive value disables the purge
+ * @param purgeBatchSize Maximum number of removed folders purged at each run. Defaults to 10. The purge deletes them with the workers and the rate of {@link HdfsChunkedDeletionConfig}
+ */
+@ConfigurationProperties(prefix = "hdfs.removal")
+public record HdfsRemovalConfig(
+        RemovalStrategy strategy, String trashRoot, Integer retention, Integer purgeInterval, Integer purgeBatchSize) {
+
+    public enum RemovalStrategy {
+        /*** Folders are deleted recursively, taking a time proportional to the number of files they contain */
+        DELETE,
+        /*** Folders are renamed into the trash with a single operation and deleted later by the background purge */
+        TRASH,
+        /*** Folders are deleted entry by entry, with a bounded rate and concurrency */
+        CHUNKED
+    }
+
+    /***
+     * @return the configured strategy, DELETE if missing
+     */
+    public RemovalStrategy removalStrategy() {
+        return strategy != null ? strategy : RemovalStrategy.DELETE;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * Kerberos configuration
  * @param keytabLocation Location of the keytab to be used for authentication
  * @param principal Principal
+ * @param ticketRenewMargin Time in milliseconds before the expiration of the TGT when a new login is performed
  */
 @ConfigurationProperties(prefix = "kerberos")
-public record KerberosConfig(String keytabLocation, String principal) {}
+public record KerberosConfig(String keytabLocation, String principal, Integer ticketRenewMargin) {}
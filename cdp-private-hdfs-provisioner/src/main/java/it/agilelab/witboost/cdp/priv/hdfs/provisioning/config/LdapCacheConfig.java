@@ -0,0 +1,13 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/***
+ * Ldap lookup cache configuration
+ * @param enabled Whether users and groups resolved on LDAP are cached. Defaults to false
+ * @param ttl Time in milliseconds a user or group found on LDAP is kept in the cache
+ * @param negativeTtl Time in milliseconds a user or group not found on LDAP is kept in the cache
+ * @param maxSize Maximum number of entries kept in the cache for users and for groups
+ */
+@ConfigurationProperties(prefix = "mapping.ldap.cache")
+public record LdapCacheConfig(Boolean enabled, Integer ttl, Integer negativeTtl, Integer maxSize) {}
@@ -2,6 +2,22 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+/***
+ * Ldap configuration
+ * @param userSearchFilter Filter of the user search, with the {mail} placeholder
+ * @param groupSearchFilter Filter of the group search, with the {group} placeholder
+ * @param batchSize Maximum number of users or groups looked up with a single OR-filter search. Defaults to 50.
+ *                  The entries found are matched back to the requested values through the attributes the filter
+ *                  compares with the placeholder, e.g. sAMAccountName for (sAMAccountName={group}). Filters using the
+ *                  placeholder in other assertions, e.g. substrings, are searched one value at a time
+ * @param concurrentLookups Whether the searches of the users and of the groups of a batch lookup are run concurrently on
+ *                          the connection pool. The values are spread over the pooled connections, so a search can hold
+ *                          fewer than batchSize values
+ * @param poolMinSize Minimum number of pooled connections. Defaults to 1
+ * @param poolMaxSize Maximum number of pooled connections, also bounding the concurrent searches. Defaults to 5
+ * @param poolValidationPeriod Interval in milliseconds of the periodic validation of the idle connections. A missing or non-positive value disables it
+ * @param poolBlockWaitTime Time in milliseconds a search waits for a free connection before failing. Waits indefinitely if missing
+ */
 @ConfigurationProperties(prefix = "mapping.ldap")
 public record LdapConfig(
         String url,
@@ -13,4 +29,18 @@ public record LdapConfig(
         String userSearchFilter,
         String groupSearchFilter,
         String userAttributeName,
-        String groupAttributeName) {}
+        String groupAttributeName,
+        Integer batchSize,
+        Boolean concurrentLookups,
+        Integer poolMinSize,
+        Integer poolMaxSize,
+        Integer poolValidationPeriod,
+        Integer poolBlockWaitTime) {
+
+    /***
+     * @return the configured maximum pool size, 5 if missing
+     */
+    public int maxPoolSize() {
+        return poolMaxSize != null ? poolMaxSize : 5;
+    }
+}
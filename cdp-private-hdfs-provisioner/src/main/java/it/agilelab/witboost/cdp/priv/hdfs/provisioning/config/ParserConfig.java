@@ -0,0 +1,10 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/***
+ * Descriptor parser configuration
+ * @param streaming Whether descriptors are parsed from their token stream, materializing only the component to provision and its dependencies
+ */
+@ConfigurationProperties(prefix = "parser")
+public record ParserConfig(Boolean streaming) {}
@@ -2,6 +2,16 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+/***
+ * Ranger configuration
+ * @param baseUrl Ranger URL
+ * @param timeout Timeout in milliseconds of the calls to Ranger
+ * @param username Ranger user
+ * @param password Ranger password
+ * @param hdfsServiceName Name of the HDFS service on Ranger
+ * @param ownerTechnicalUser Ranger user that is admin of the security zones and member of the owner roles
+ * @param concurrency Number of Ranger calls of the provisioning requests running at the same time, shared by all the requests. Defaults to 8
+ */
 @ConfigurationProperties(prefix = "ranger")
 public record RangerConfig(
         String baseUrl,
@@ -9,4 +19,5 @@ public record RangerConfig(
         String username,
         String password,
         String hdfsServiceName,
-        String ownerTechnicalUser) {}
+        String ownerTechnicalUser,
+        Integer concurrency) {}
@@ -0,0 +1,29 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.config;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/***
+ * Retry policy of the calls to Ranger
+ * @param maxAttempts Maximum number of attempts of a call, including the first one. Defaults to 1, i.e. no retries
+ * @param initialBackoff Time in milliseconds waited before the first retry. Defaults to 200
+ * @param maxBackoff Maximum time in milliseconds waited before a retry. Defaults to 5000
+ * @param multiplier Factor applied to the backoff at each retry. Defaults to 2
+ * @param jitter Fraction of the backoff that is randomized, between 0 and 1. Defaults to 0.5
+ * @param budget Maximum time in milliseconds spent on a call, including its retries: a retry that would end its backoff after the budget is not performed. Unlimited if missing
+ * @param budgets Budgets overriding {@code budget} for specific operations, keyed by the name of the {@code RangerClient} method (e.g. {@code updateSecurityZone})
+ * @param retryableStatusCodes HTTP status codes of the errors to retry. Not applied to the creations of security zones, policies and roles, that could have been applied anyway
+ * @param retryableMessages Case-insensitive fragments of the error messages to retry, e.g. the ones of the database lock errors
+ */
+@ConfigurationProperties(prefix = "ranger.retry")
+public record RangerRetryConfig(
+        Integer maxAttempts,
+        Integer initialBackoff,
+        Integer maxBackoff,
+        Double multiplier,
+        Double jitter,
+        Integer budget,
+        Map<String, Integer> budgets,
+        List<Integer> retryableStatusCodes,
+        List<String> retryableMessages) {}
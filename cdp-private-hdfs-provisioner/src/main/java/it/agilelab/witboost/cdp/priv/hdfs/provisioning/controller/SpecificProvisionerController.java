@@ -1,28 +1,55 @@
 package it.agilelab.witboost.cdp.priv.hdfs.provisioning.controller;
 
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.SpecificProvisionerValidationException;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.AsyncConfig;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.controller.V1ApiDelegate;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.controller.V2ApiDelegate;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.BatchProvisioningRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningStatus;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.UpdateAclRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ValidationResult;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ValidationStatus;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision.ProvisionService;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision.ProvisionTaskService;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision.ValidationTaskService;
+import java.util.Collections;
+import java.util.Optional;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
 
 /**
  * API Controller for the Java Specific Provisioner which implements the autogenerated {@link
- * V1ApiDelegate} interface. The interface defaults the endpoints to throw 501 Not Implemented
+ * V1ApiDelegate} and {@link V2ApiDelegate} interfaces. The interfaces default the endpoints to throw 501 Not Implemented
  * unless overridden in this class.
  *
  * <p>Exceptions thrown will be handled by {@link SpecificProvisionerExceptionHandler}
  */
 @Service
-public class SpecificProvisionerController implements V1ApiDelegate {
+public class SpecificProvisionerController implements V1ApiDelegate, V2ApiDelegate {
 
     private final ProvisionService provisionService;
+    private final ProvisionTaskService provisionTaskService;
+    private final ValidationTaskService validationTaskService;
+    private final AsyncConfig asyncConfig;
 
-    public SpecificProvisionerController(ProvisionService provisionService) {
+    public SpecificProvisionerController(
+            ProvisionService provisionService,
+            ProvisionTaskService provisionTaskService,
+            ValidationTaskService validationTaskService,
+            AsyncConfig asyncConfig) {
         this.provisionService = provisionService;
+        this.provisionTaskService = provisionTaskService;
+        this.validationTaskService = validationTaskService;
+        this.asyncConfig = asyncConfig;
+    }
+
+    @Override
+    public Optional<NativeWebRequest> getRequest() {
+        return Optional.empty();
     }
 
     @Override
@@ -30,13 +57,42 @@ public class SpecificProvisionerController implements V1ApiDelegate {
         return ResponseEntity.ok(provisionService.validate(provisioningRequest));
     }
 
+    @Override
+    public ResponseEntity<String> asyncValidate(ProvisioningRequest provisioningRequest) throws Exception {
+        return ResponseEntity.accepted().body(validationTaskService.validate(provisioningRequest));
+    }
+
+    @Override
+    public ResponseEntity<ValidationStatus> getValidationStatus(String token) throws Exception {
+        return validationTaskService
+                .getStatus(token)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new SpecificProvisionerValidationException(unknownToken(token)));
+    }
+
     @Override
     public ResponseEntity<ProvisioningStatus> provision(ProvisioningRequest provisioningRequest) throws Exception {
+        if (isAsyncProvisioningEnabled()) return accepted(provisionTaskService.provision(provisioningRequest));
         return ResponseEntity.ok(provisionService.provision(provisioningRequest));
     }
 
+    @Override
+    public ResponseEntity<ProvisioningStatus> provisionBatch(BatchProvisioningRequest batchProvisioningRequest)
+            throws Exception {
+        return ResponseEntity.ok(provisionService.provisionBatch(batchProvisioningRequest));
+    }
+
+    @Override
+    public ResponseEntity<ProvisioningStatus> getStatus(String token) throws Exception {
+        return provisionTaskService
+                .getStatus(token)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new SpecificProvisionerValidationException(unknownToken(token)));
+    }
+
     @Override
     public ResponseEntity<ProvisioningStatus> unprovision(ProvisioningRequest provisioningRequest) throws Exception {
+        if (isAsyncProvisioningEnabled()) return accepted(provisionTaskService.unprovision(provisioningRequest));
         return ResponseEntity.ok(provisionService.unprovision(provisioningRequest));
     }
 
@@ -44,4 +100,20 @@ public class SpecificProvisionerController implements V1ApiDelegate {
     public ResponseEntity<ProvisioningStatus> updateacl(UpdateAclRequest updateAclRequest) throws Exception {
         return ResponseEntity.ok(provisionService.updateAcl(updateAclRequest));
     }
+
+    private boolean isAsyncProvisioningEnabled() {
+        return Boolean.TRUE.equals(asyncConfig.provisionEnabled());
+    }
+
+    /*
+       The operation is still running, the token to poll its status is returned as result
+    */
+    private ResponseEntity<ProvisioningStatus> accepted(String token) {
+        return ResponseEntity.accepted().body(new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, token));
+    }
+
+    private FailedOperation unknownToken(String token) {
+        return new FailedOperation(Collections.singletonList(
+                new Problem(String.format("The token '%s' doesn't match any request or it's expired", token))));
+    }
 }
@@ -1,3 +1,20 @@
 package it.agilelab.witboost.cdp.priv.hdfs.provisioning.model;
 
-public record ComponentInfo(String domain, String dataProductId, String dataProductMajorVersion, String componentId) {}
+public record ComponentInfo(String domain, String dataProductId, String dataProductMajorVersion, String componentId) {
+
+    /***
+     * @return the prefix of the names of the Ranger entities shared by all the components of the data product,
+     * i.e. {@code domain_dataProductId_dataProductMajorVersion}
+     */
+    public String dataProductPrefix() {
+        return domain + '_' + dataProductId + '_' + dataProductMajorVersion;
+    }
+
+    /***
+     * @return the prefix of the names of the Ranger entities of the component,
+     * i.e. {@code domain_dataProductId_dataProductMajorVersion_componentId}
+     */
+    public String componentPrefix() {
+        return dataProductPrefix() + '_' + componentId;
+    }
+}
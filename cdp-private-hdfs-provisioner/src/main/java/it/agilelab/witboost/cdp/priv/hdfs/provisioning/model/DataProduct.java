@@ -1,10 +1,14 @@
 package it.agilelab.witboost.cdp.priv.hdfs.provisioning.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.JsonNode;
 import io.vavr.control.Option;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -34,17 +38,42 @@ public class DataProduct {
     private JsonNode specific;
     private List<JsonNode> components;
 
+    /***
+     * Components indexed by id, built on first access
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile Map<String, JsonNode> componentsById;
+
+    public void setComponents(List<JsonNode> components) {
+        this.components = components;
+        this.componentsById = null;
+    }
+
     public Option<JsonNode> getComponentToProvision(String componentId) {
-        return Option.ofOptional(Optional.ofNullable(componentId).flatMap(comp -> components.stream()
-                .filter(c -> comp.equals(c.get("id").textValue()))
-                .findFirst()));
+        if (componentId == null) return Option.none();
+        return Option.of(componentsById().get(componentId));
     }
 
     public Option<String> getComponentKindToProvision(String componentId) {
-        return Option.ofOptional(Optional.ofNullable(componentId).flatMap(comp -> components.stream()
-                .filter(c -> comp.equals(c.get("id").textValue()))
-                .findFirst()
-                .flatMap(c -> Optional.ofNullable(c.get("kind")))
-                .map(JsonNode::textValue)));
+        return getComponentToProvision(componentId)
+                .flatMap(c -> Option.of(c.get("kind")))
+                .map(JsonNode::textValue);
+    }
+
+    private Map<String, JsonNode> componentsById() {
+        var index = componentsById;
+        if (index == null) {
+            index = new HashMap<>();
+            if (components != null) {
+                for (JsonNode c : components) {
+                    var id = c.get("id");
+                    if (id != null && id.textValue() != null) index.putIfAbsent(id.textValue(), c);
+                }
+            }
+            componentsById = index;
+        }
+        return index;
     }
 }
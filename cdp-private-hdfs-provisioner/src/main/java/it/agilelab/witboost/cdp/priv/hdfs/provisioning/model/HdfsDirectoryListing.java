@@ -0,0 +1,48 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+/***
+ * Response of the WebHDFS LISTSTATUS_BATCH operation, holding a page of the entries of a folder
+ */
+@Getter
+@Setter
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HdfsDirectoryListing {
+
+    @JsonProperty("DirectoryListing")
+    private DirectoryListing directoryListing;
+
+    @Getter
+    @Setter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class DirectoryListing {
+        private HdfsFileStatuses partialListing;
+        private Long remainingEntries;
+    }
+
+    /***
+     * @return the entries of the page
+     */
+    public List<HdfsFileStatuses.FileStatus> entries() {
+        if (directoryListing == null
+                || directoryListing.getPartialListing() == null
+                || directoryListing.getPartialListing().getFileStatuses() == null
+                || directoryListing.getPartialListing().getFileStatuses().getFileStatus() == null) return List.of();
+        return directoryListing.getPartialListing().getFileStatuses().getFileStatus();
+    }
+
+    /***
+     * @return whether other pages follow this one
+     */
+    public boolean hasMore() {
+        return directoryListing != null
+                && directoryListing.getRemainingEntries() != null
+                && directoryListing.getRemainingEntries() > 0
+                && !entries().isEmpty();
+    }
+}
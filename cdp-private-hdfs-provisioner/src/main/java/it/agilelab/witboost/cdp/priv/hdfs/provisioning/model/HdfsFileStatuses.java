@@ -0,0 +1,43 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+/***
+ * Response of the WebHDFS LISTSTATUS operation
+ */
+@Getter
+@Setter
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HdfsFileStatuses {
+
+    @JsonProperty("FileStatuses")
+    private FileStatuses fileStatuses;
+
+    @Getter
+    @Setter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class FileStatuses {
+        @JsonProperty("FileStatus")
+        private List<FileStatus> fileStatus;
+    }
+
+    @Getter
+    @Setter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class FileStatus {
+        private String pathSuffix;
+        private String type;
+        private Long childrenNum;
+
+        /***
+         * @return whether the entry is a directory with some content
+         */
+        public boolean isNonEmptyDirectory() {
+            return "DIRECTORY".equals(type) && childrenNum != null && childrenNum > 0;
+        }
+    }
+}
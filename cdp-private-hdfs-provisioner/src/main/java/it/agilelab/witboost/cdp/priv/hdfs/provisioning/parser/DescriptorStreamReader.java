@@ -0,0 +1,174 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/***
+ * Reads a descriptor from its token stream, materializing only the component to provision and the components
+ * it depends on. The descriptor is read twice: the first pass only collects the id and the dependencies of each
+ * component, skipping everything else, so that the second pass can skip the components that are not needed
+ * without building their trees. Two passes are needed as {@code componentIdToProvision} usually comes after
+ * the data product
+ */
+final class DescriptorStreamReader {
+
+    private static final String DATA_PRODUCT = "dataProduct";
+    private static final String COMPONENTS = "components";
+    private static final String COMPONENT_ID_TO_PROVISION = "componentIdToProvision";
+
+    private final ObjectMapper mapper;
+
+    DescriptorStreamReader(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /***
+     * @param descriptor the descriptor
+     * @return the tree of the descriptor, with only the needed components in the data product
+     */
+    ObjectNode read(String descriptor) throws IOException {
+        return read(descriptor, null);
+    }
+
+    /***
+     * @param descriptor the descriptor
+     * @param componentIds the components to provision, or null to provision {@code componentIdToProvision}
+     * @return the tree of the descriptor, with only the needed components in the data product
+     */
+    ObjectNode read(String descriptor, Set<String> componentIds) throws IOException {
+        Set<Integer> neededComponents = neededComponents(descriptor, componentIds);
+        try (JsonParser parser = mapper.createParser(descriptor)) {
+            expectObject(parser.nextToken());
+            ObjectNode root = mapper.createObjectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (DATA_PRODUCT.equals(field) && value == JsonToken.START_OBJECT) {
+                    root.set(field, readDataProduct(parser, neededComponents));
+                } else {
+                    root.set(field, readValue(parser));
+                }
+            }
+            return root;
+        }
+    }
+
+    private ObjectNode readDataProduct(JsonParser parser, Set<Integer> neededComponents) throws IOException {
+        ObjectNode dataProduct = mapper.createObjectNode();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (COMPONENTS.equals(field) && value == JsonToken.START_ARRAY) {
+                ArrayNode components = mapper.createArrayNode();
+                int index = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (neededComponents.contains(index)) components.add(readValue(parser));
+                    else parser.skipChildren();
+                    index++;
+                }
+                dataProduct.set(field, components);
+            } else {
+                dataProduct.set(field, readValue(parser));
+            }
+        }
+        return dataProduct;
+    }
+
+    /***
+     * First pass: finds the positions of the components to provision and of their dependencies
+     */
+    private Set<Integer> neededComponents(String descriptor, Set<String> componentIds) throws IOException {
+        String componentIdToProvision = null;
+        List<ComponentSummary> components = new ArrayList<>();
+        try (JsonParser parser = mapper.createParser(descriptor)) {
+            expectObject(parser.nextToken());
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (COMPONENT_ID_TO_PROVISION.equals(field) && value.isScalarValue()) {
+                    componentIdToProvision = parser.getValueAsString();
+                } else if (DATA_PRODUCT.equals(field) && value == JsonToken.START_OBJECT) {
+                    scanDataProduct(parser, components);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        Set<String> idsToProvision = componentIds != null
+                ? componentIds
+                : componentIdToProvision != null ? Set.of(componentIdToProvision) : Set.of();
+        Set<String> neededIds = new HashSet<>();
+        for (ComponentSummary component : components) {
+            if (idsToProvision.contains(component.id())) {
+                neededIds.add(component.id());
+                neededIds.addAll(component.dependsOn());
+            }
+        }
+        Set<Integer> neededComponents = new HashSet<>();
+        for (int i = 0; i < components.size(); i++) {
+            if (neededIds.contains(components.get(i).id())) neededComponents.add(i);
+        }
+        return neededComponents;
+    }
+
+    private void scanDataProduct(JsonParser parser, List<ComponentSummary> components) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (COMPONENTS.equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    components.add(scanComponent(parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private ComponentSummary scanComponent(JsonParser parser) throws IOException {
+        String id = null;
+        List<String> dependsOn = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return new ComponentSummary(null, dependsOn);
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field) && value.isScalarValue()) {
+                id = parser.getValueAsString();
+            } else if ("dependsOn".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken().isScalarValue()) dependsOn.add(parser.getValueAsString());
+                    else parser.skipChildren();
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new ComponentSummary(id, dependsOn);
+    }
+
+    private JsonNode readValue(JsonParser parser) throws IOException {
+        JsonNode node = mapper.readTree(parser);
+        return node != null ? node : NullNode.getInstance();
+    }
+
+    private void expectObject(JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Expected the descriptor to be an object, found: " + token);
+        }
+    }
+
+    private record ComponentSummary(String id, List<String> dependsOn) {}
+}
@@ -3,8 +3,11 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.parser;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.vavr.control.Either;
 import io.vavr.control.Try;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
@@ -12,6 +15,9 @@ import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Component;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Descriptor;
 import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,8 +27,25 @@ public class Parser {
 
     private static final ObjectMapper om = new ObjectMapper(new YAMLFactory());
 
+    /***
+     * Mapper used to convert already parsed trees, without serializing them back to text
+     */
+    private static final ObjectMapper treeMapper = new ObjectMapper();
+
+    private static final Map<Class<?>, ObjectReader> componentReaders = new ConcurrentHashMap<>();
+
+    /***
+     * Components already deserialized, by specific class. The nodes are compared by identity and belong to the
+     * descriptor of a request, so the entries are dropped once the request is completed and its descriptor collected
+     */
+    private static final Cache<JsonNode, Map<Class<?>, Either<FailedOperation, ? extends Component<?>>>>
+            parsedComponents = Caffeine.newBuilder().weakKeys().build();
+
+    private static final DescriptorStreamReader streamReader = new DescriptorStreamReader(om);
+
     static {
         om.registerModule(new Jdk8Module());
+        treeMapper.registerModule(new Jdk8Module());
     }
 
     public static Either<FailedOperation, Descriptor> parseDescriptor(String yamlDescriptor) {
@@ -35,11 +58,37 @@ public class Parser {
                 });
     }
 
+    /***
+     * Parses the descriptor keeping in the data product only the component to provision and the components
+     * it depends on. The other components are skipped on the token stream and never materialized,
+     * so large data products are parsed with far less memory than {@link #parseDescriptor(String)}
+     * @param yamlDescriptor the descriptor
+     * @return the descriptor or the deserialization error
+     */
+    public static Either<FailedOperation, Descriptor> parseDescriptorStreaming(String yamlDescriptor) {
+        return parseDescriptorStreaming(yamlDescriptor, null);
+    }
+
+    /***
+     * Like {@link #parseDescriptorStreaming(String)}, but keeps the supplied components and the components they
+     * depend on instead of the component to provision
+     * @param yamlDescriptor the descriptor
+     * @param componentIds the components to keep, or null to keep the component to provision
+     * @return the descriptor or the deserialization error
+     */
+    public static Either<FailedOperation, Descriptor> parseDescriptorStreaming(
+            String yamlDescriptor, Set<String> componentIds) {
+        return Try.of(() -> treeMapper.treeToValue(streamReader.read(yamlDescriptor, componentIds), Descriptor.class))
+                .toEither()
+                .mapLeft(t -> {
+                    String errorMessage = "Failed to deserialize the Yaml Descriptor. Details: " + t.getMessage();
+                    logger.error(errorMessage, t);
+                    return new FailedOperation(Collections.singletonList(new Problem(errorMessage, t)));
+                });
+    }
+
     public static <U> Either<FailedOperation, Component<U>> parseComponent(JsonNode node, Class<U> specificClass) {
-        return Try.of(() -> {
-                    JavaType javaType = om.getTypeFactory().constructParametricType(Component.class, specificClass);
-                    return om.<Component<U>>readValue(node.toString(), javaType);
-                })
+        return Try.of(() -> componentReader(specificClass).<Component<U>>readValue(node))
                 .toEither()
                 .mapLeft(t -> {
                     String errorMessage = "Failed to deserialize the component. Details: " + t.getMessage();
@@ -47,4 +96,26 @@ public class Parser {
                     return new FailedOperation(Collections.singletonList(new Problem(errorMessage, t)));
                 });
     }
+
+    /***
+     * Like {@link #parseComponent(JsonNode, Class)}, but memoized on the node, so that the validation and the
+     * handlers of the same request deserialize a component once
+     * @param node the component
+     * @param specificClass the class of the specific section of the component
+     * @return the component or the deserialization error
+     */
+    @SuppressWarnings("unchecked")
+    public static <U> Either<FailedOperation, Component<U>> parseComponentMemoized(
+            JsonNode node, Class<U> specificClass) {
+        return (Either<FailedOperation, Component<U>>) parsedComponents
+                .get(node, n -> new ConcurrentHashMap<>())
+                .computeIfAbsent(specificClass, c -> parseComponent(node, specificClass));
+    }
+
+    private static ObjectReader componentReader(Class<?> specificClass) {
+        return componentReaders.computeIfAbsent(specificClass, c -> {
+            JavaType javaType = treeMapper.getTypeFactory().constructParametricType(Component.class, c);
+            return treeMapper.readerFor(javaType);
+        });
+    }
 }
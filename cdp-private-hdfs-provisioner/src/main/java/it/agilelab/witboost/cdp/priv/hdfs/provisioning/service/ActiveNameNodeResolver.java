@@ -0,0 +1,240 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.JmxResponse;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/***
+ * Resolves the base URL of the active NameNode by querying the JMX endpoint of the configured NameNodes,
+ * one after the other or all at once depending on {@link HdfsConfig#probeMode()}.
+ * The resolved NameNode is cached for {@link HdfsConfig#activeNameNodeTtl()} milliseconds and,
+ * if {@link HdfsConfig#activeNameNodeRefreshInterval()} is set, kept up to date by a background refresher
+ * so that WebHDFS operations don't pay the JMX round-trips.
+ */
+@Component
+@ConditionalOnProperty(prefix = "hdfs.native", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class ActiveNameNodeResolver {
+
+    private static final String JMX_URL = "/jmx?qry=Hadoop:service=NameNode,name=NameNodeStatus";
+
+    private final Logger logger = LoggerFactory.getLogger(ActiveNameNodeResolver.class);
+
+    private final RestTemplate restTemplate;
+    private final HdfsConfig hdfsConfig;
+    private final Clock clock;
+    private final AtomicReference<CachedNameNode> cachedNameNode = new AtomicReference<>();
+    private final Object probeLock = new Object();
+    private final Optional<ScheduledExecutorService> refresher;
+    private final ExecutorService probeExecutor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "active-namenode-probe");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Autowired
+    public ActiveNameNodeResolver(RestTemplate restTemplate, HdfsConfig hdfsConfig) {
+        this(restTemplate, hdfsConfig, Clock.systemUTC());
+    }
+
+    ActiveNameNodeResolver(RestTemplate restTemplate, HdfsConfig hdfsConfig, Clock clock) {
+        this.restTemplate = restTemplate;
+        this.hdfsConfig = hdfsConfig;
+        this.clock = clock;
+        this.refresher = startRefresher();
+    }
+
+    /***
+     * Returns the active NameNode, probing the NameNodes only if the cached value is missing or expired
+     * @return the base URL of the active NameNode or the error encountered
+     */
+    public Either<FailedOperation, String> getActiveNameNode() {
+        var cached = cachedNameNode.get();
+        if (cached != null && !cached.isExpired(clock.millis())) return right(cached.baseUrl());
+        synchronized (probeLock) {
+            // another thread could have refreshed the cache while we were waiting
+            cached = cachedNameNode.get();
+            if (cached != null && !cached.isExpired(clock.millis())) return right(cached.baseUrl());
+            return refresh();
+        }
+    }
+
+    /***
+     * Invalidates the cached active NameNode and resolves it again. To be called when a WebHDFS operation
+     * on {@code failedBaseUrl} fails because the NameNode is in standby or not reachable
+     * @param failedBaseUrl base URL of the NameNode that failed the operation
+     * @return the base URL of the currently active NameNode or the error encountered
+     */
+    public Either<FailedOperation, String> failover(String failedBaseUrl) {
+        synchronized (probeLock) {
+            var cached = cachedNameNode.get();
+            if (cached != null && !cached.baseUrl().equals(failedBaseUrl) && !cached.isExpired(clock.millis())) {
+                // a concurrent failover already moved the cache to another NameNode
+                return right(cached.baseUrl());
+            }
+            logger.info("Invalidating cached active NameNode {}", failedBaseUrl);
+            cachedNameNode.set(null);
+            return refresh();
+        }
+    }
+
+    /***
+     * Invalidates the cached active NameNode, so that the next request probes the NameNodes again
+     */
+    public void invalidate() {
+        cachedNameNode.set(null);
+    }
+
+    private Either<FailedOperation, String> refresh() {
+        var eitherActive = probe();
+        cachedNameNode.set(
+                eitherActive.isRight() ? new CachedNameNode(eitherActive.get(), clock.millis() + ttl()) : null);
+        return eitherActive;
+    }
+
+    private Either<FailedOperation, String> probe() {
+        List<String> baseUrls = hdfsConfig.nameNodeBaseUrls();
+        return switch (hdfsConfig.probeMode()) {
+            case SEQUENTIAL -> probeSequentially(baseUrls);
+            case PARALLEL -> probeInParallel(baseUrls);
+        };
+    }
+
+    private Either<FailedOperation, String> probeSequentially(List<String> baseUrls) {
+        RestClientException lastError = null;
+        for (String baseUrl : baseUrls) {
+            try {
+                logger.info("Checking if NameNode {} is active", baseUrl);
+                if (isActive(baseUrl)) return right(baseUrl);
+            } catch (RestClientException rce) {
+                logger.error("Error while checking if NameNode {} is active", baseUrl, rce);
+                lastError = rce;
+            }
+        }
+        return noActiveNameNode(lastError);
+    }
+
+    /***
+     * Queries all the NameNodes at once and returns as soon as one of them reports to be active,
+     * cancelling the requests still in flight. A hung NameNode doesn't delay the discovery of the active one
+     */
+    private Either<FailedOperation, String> probeInParallel(List<String> baseUrls) {
+        CompletionService<Optional<String>> completionService = new ExecutorCompletionService<>(probeExecutor);
+        List<Future<Optional<String>>> futures = baseUrls.stream()
+                .map(baseUrl -> completionService.submit(() -> {
+                    logger.info("Checking if NameNode {} is active", baseUrl);
+                    return isActive(baseUrl) ? Optional.of(baseUrl) : Optional.<String>empty();
+                }))
+                .toList();
+        RestClientException lastError = null;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    Optional<String> activeBaseUrl = completionService.take().get();
+                    if (activeBaseUrl.isPresent()) return right(activeBaseUrl.get());
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof RestClientException rce))
+                        throw new IllegalStateException(e.getCause());
+                    logger.error("Error while checking if a NameNode is active", rce);
+                    lastError = rce;
+                }
+            }
+            return noActiveNameNode(lastError);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return noActiveNameNode(new RestClientException("Interrupted while probing the NameNodes", e));
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private Either<FailedOperation, String> noActiveNameNode(RestClientException lastError) {
+        if (lastError != null) {
+            return left(new FailedOperation(Collections.singletonList(new Problem(
+                    "Failed to retrieve the current active NameNode. Please try again and if the issue persists contact the platform team. Details: "
+                            + lastError.getMessage(),
+                    lastError))));
+        }
+        String errorMessage =
+                "Unable to find an active NameNode. Please try again and if the issue persists contact the platform team.";
+        logger.error(errorMessage);
+        return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+    }
+
+    private boolean isActive(String baseUrl) {
+        String fullUrl = UriComponentsBuilder.fromUriString(baseUrl)
+                .path(JMX_URL)
+                .build()
+                .toString();
+        JmxResponse res = restTemplate.getForObject(fullUrl, JmxResponse.class);
+        return res != null
+                && res.getBeans() != null
+                && res.getBeans().stream().anyMatch(b -> "active".equalsIgnoreCase(b.getState()));
+    }
+
+    private long ttl() {
+        return hdfsConfig.activeNameNodeTtl() != null ? hdfsConfig.activeNameNodeTtl() : 0L;
+    }
+
+    private Optional<ScheduledExecutorService> startRefresher() {
+        Integer interval = hdfsConfig.activeNameNodeRefreshInterval();
+        if (interval == null || interval <= 0) return Optional.empty();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "active-namenode-refresher");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(
+                () -> {
+                    try {
+                        synchronized (probeLock) {
+                            refresh();
+                        }
+                    } catch (RuntimeException e) {
+                        logger.error("Unexpected error while refreshing the active NameNode", e);
+                    }
+                },
+                interval,
+                interval,
+                TimeUnit.MILLISECONDS);
+        return Optional.of(executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.ifPresent(ScheduledExecutorService::shutdownNow);
+        probeExecutor.shutdownNow();
+    }
+
+    private record CachedNameNode(String baseUrl, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.control.Either;
+import io.vavr.control.Option;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.LdapCacheConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPGroup;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPUser;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/***
+ * Caching decorator of {@link LdapServiceImpl}. Both the users and groups found on LDAP and the ones that were not found
+ * are cached, with separate TTLs, so that the principals of known data products are resolved without LDAP searches.
+ * Lookup errors are never cached. Lookups are cached ignoring the case, as LDAP matches mails and names that way.
+ * Hits and misses are published as {@code cache.*} metrics with the {@code ldap.users} and {@code ldap.groups} cache names
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "mapping.ldap.cache", name = "enabled", havingValue = "true")
+public class CachingLdapService implements LdapService {
+
+    private final LdapService ldapService;
+    private final Cache<String, Option<CDPUser>> users;
+    private final Cache<String, Option<CDPGroup>> groups;
+
+    public CachingLdapService(
+            @Qualifier("ldapServiceImpl") LdapService ldapService,
+            LdapCacheConfig ldapCacheConfig,
+            MeterRegistry meterRegistry) {
+        this.ldapService = ldapService;
+        this.users = CaffeineCacheMetrics.monitor(meterRegistry, buildCache(ldapCacheConfig), "ldap.users");
+        this.groups = CaffeineCacheMetrics.monitor(meterRegistry, buildCache(ldapCacheConfig), "ldap.groups");
+    }
+
+    @Override
+    public Either<FailedOperation, Option<CDPUser>> findUserByMail(String mail) {
+        var cached = users.getIfPresent(normalize(mail));
+        if (cached != null) return Either.right(cached);
+        return ldapService.findUserByMail(mail).peek(user -> users.put(normalize(mail), user));
+    }
+
+    @Override
+    public Either<FailedOperation, Option<CDPGroup>> findGroupByName(String name) {
+        var cached = groups.getIfPresent(normalize(name));
+        if (cached != null) return Either.right(cached);
+        return ldapService.findGroupByName(name).peek(group -> groups.put(normalize(name), group));
+    }
+
+    @Override
+    public Map<String, Either<FailedOperation, Option<CDPUser>>> findUsersByMail(Collection<String> mails) {
+        return findUsersAndGroups(mails, List.of())._1();
+    }
+
+    @Override
+    public Map<String, Either<FailedOperation, Option<CDPGroup>>> findGroupsByName(Collection<String> names) {
+        return findUsersAndGroups(List.of(), names)._2();
+    }
+
+    /***
+     * Serves the cached users and groups and looks up the missing ones with a single batch call
+     */
+    @Override
+    public Tuple2<
+                    Map<String, Either<FailedOperation, Option<CDPUser>>>,
+                    Map<String, Either<FailedOperation, Option<CDPGroup>>>>
+            findUsersAndGroups(Collection<String> mails, Collection<String> names) {
+        Map<String, Either<FailedOperation, Option<CDPUser>>> userResults = new HashMap<>();
+        Map<String, Either<FailedOperation, Option<CDPGroup>>> groupResults = new HashMap<>();
+        List<String> userMisses = cached(mails, users, userResults);
+        List<String> groupMisses = cached(names, groups, groupResults);
+        if (userMisses.isEmpty() && groupMisses.isEmpty()) return Tuple.of(userResults, groupResults);
+        var lookedUp = ldapService.findUsersAndGroups(userMisses, groupMisses);
+        store(lookedUp._1(), users, userResults);
+        store(lookedUp._2(), groups, groupResults);
+        return Tuple.of(userResults, groupResults);
+    }
+
+    /***
+     * Evicts all the cached users and groups
+     */
+    public void invalidateAll() {
+        users.invalidateAll();
+        groups.invalidateAll();
+    }
+
+    /***
+     * @return the statistics of the users cache
+     */
+    public CacheStats userStats() {
+        return users.stats();
+    }
+
+    /***
+     * @return the statistics of the groups cache
+     */
+    public CacheStats groupStats() {
+        return groups.stats();
+    }
+
+    /***
+     * Adds the cached values to the results
+     * @return the values that are not cached
+     */
+    private static <T> List<String> cached(
+            Collection<String> values,
+            Cache<String, Option<T>> cache,
+            Map<String, Either<FailedOperation, Option<T>>> results) {
+        List<String> misses = new ArrayList<>();
+        values.forEach(value -> {
+            var cached = cache.getIfPresent(normalize(value));
+            if (cached != null) results.put(value, Either.right(cached));
+            else misses.add(value);
+        });
+        return misses;
+    }
+
+    /***
+     * Adds the looked up values to the results, caching the ones that didn't fail
+     */
+    private static <T> void store(
+            Map<String, Either<FailedOperation, Option<T>>> lookedUp,
+            Cache<String, Option<T>> cache,
+            Map<String, Either<FailedOperation, Option<T>>> results) {
+        lookedUp.forEach((value, res) -> {
+            res.peek(found -> cache.put(normalize(value), found));
+            results.put(value, res);
+        });
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static <T> Cache<String, Option<T>> buildCache(LdapCacheConfig ldapCacheConfig) {
+        Duration ttl = Duration.ofMillis(ldapCacheConfig.ttl());
+        Duration negativeTtl = Duration.ofMillis(ldapCacheConfig.negativeTtl());
+        return Caffeine.newBuilder()
+                .expireAfter(new PositiveNegativeExpiry<T>(ttl, negativeTtl))
+                .maximumSize(ldapCacheConfig.maxSize())
+                .recordStats()
+                .build();
+    }
+
+    /***
+     * Expires the entries a fixed time after they are written, with a different time for found and not found principals
+     */
+    private record PositiveNegativeExpiry<T>(Duration ttl, Duration negativeTtl) implements Expiry<String, Option<T>> {
+
+        @Override
+        public long expireAfterCreate(String key, Option<T> value, long currentTime) {
+            return (value.isDefined() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Option<T> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Option<T> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.RateLimiter;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsChunkedDeletionConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig.RemovalStrategy;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.HdfsFileStatuses.FileStatus;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/***
+ * Removes the folders of the storage areas according to the configured removal strategy.
+ * With the CHUNKED strategy the folder is walked page by page with LISTSTATUS_BATCH and its files and empty folders are
+ * deleted in batches, each folder after its content, instead of with a single recursive DELETE holding the NameNode
+ * lock for the whole tree. All the deletions share a pool of {@link HdfsChunkedDeletionConfig#concurrency()} workers
+ * and a ceiling of {@link HdfsChunkedDeletionConfig#rate()} operations per second, so that tearing down large data
+ * products doesn't degrade the NameNode latency for the other tenants.
+ * The purge of the trash of the TRASH strategy deletes the expired folders with the same walk, workers and rate
+ */
+@Component
+public class HdfsDeletionEngine {
+
+    private final Logger logger = LoggerFactory.getLogger(HdfsDeletionEngine.class);
+
+    private final HdfsService hdfsService;
+    private final HdfsRemovalConfig removalConfig;
+    private final HdfsTrash trash;
+    private final int batchSize;
+    private final RateLimiter rateLimiter;
+    private final Executor workers;
+
+    @Autowired
+    public HdfsDeletionEngine(
+            HdfsService hdfsService, HdfsRemovalConfig removalConfig, HdfsChunkedDeletionConfig chunkedConfig) {
+        this(
+                hdfsService,
+                removalConfig,
+                chunkedConfig,
+                startWorkers(removalConfig, chunkedConfig),
+                new RateLimiter(chunkedConfig.rate() != null ? chunkedConfig.rate() : 0));
+    }
+
+    HdfsDeletionEngine(
+            HdfsService hdfsService,
+            HdfsRemovalConfig removalConfig,
+            HdfsChunkedDeletionConfig chunkedConfig,
+            Executor workers,
+            RateLimiter rateLimiter) {
+        this.hdfsService = hdfsService;
+        this.removalConfig = removalConfig;
+        this.trash = new HdfsTrash(removalConfig);
+        this.batchSize =
+                chunkedConfig.batchSize() != null && chunkedConfig.batchSize() > 0 ? chunkedConfig.batchSize() : 100;
+        this.rateLimiter = rateLimiter;
+        this.workers = workers;
+    }
+
+    /***
+     * Removes a folder. If the folder doesn't exist, a success result is returned
+     * @param path path of the folder to remove
+     * @param progress receives a description of the progress of the removal. Only called by the CHUNKED strategy,
+     *                 from the calling thread
+     * @return the path of the removed folder or the error encountered
+     */
+    public Either<FailedOperation, String> removeFolder(String path, Consumer<String> progress) {
+        if (removalConfig.removalStrategy() != RemovalStrategy.CHUNKED) return hdfsService.deleteFolder(path);
+        var deletion = new Deletion(path, progress);
+        var res = deletion.deleteTree(path);
+        if (res.isLeft()) return left(res.getLeft());
+        logger.info("Folder {} deleted, {} entries removed", path, deletion.deleted);
+        return right(path);
+    }
+
+    /***
+     * Deletes the folders moved to the trash before the configured retention, the oldest first, up to the configured
+     * batch size. Each folder is deleted entry by entry as with the CHUNKED strategy, whatever the configured strategy.
+     * A failed purge is retried at the next run
+     * @return the number of purged folders or the error encountered
+     */
+    public Either<FailedOperation, Integer> purgeTrash() {
+        if (!trash.hasRoot()) return right(0);
+        var eitherTombstones = listTrash();
+        if (eitherTombstones.isLeft()) return left(eitherTombstones.getLeft());
+
+        int purged = 0;
+        for (String name : trash.expired(eitherTombstones.get(), System.currentTimeMillis())) {
+            String tombstone = trash.root() + "/" + name;
+            var deletion = new Deletion(tombstone, logger::debug);
+            var res = deletion.deleteTree(tombstone);
+            if (res.isLeft()) return left(res.getLeft());
+            logger.info("Purged {} from the trash, {} entries removed", tombstone, deletion.deleted);
+            purged++;
+        }
+        return right(purged);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers instanceof ExecutorService e) e.shutdownNow();
+    }
+
+    /***
+     * Lists the names of the entries of the trash root page by page
+     */
+    private Either<FailedOperation, List<String>> listTrash() {
+        List<String> names = new ArrayList<>();
+        Optional<String> startAfter = Optional.empty();
+        while (true) {
+            var permit = acquire(String.format("The purge of '%s' was interrupted", trash.root()));
+            if (permit.isLeft()) return left(permit.getLeft());
+            var eitherListing = hdfsService.listFolderBatch(trash.root(), startAfter);
+            if (eitherListing.isLeft()) return left(eitherListing.getLeft());
+            var listing = eitherListing.get();
+            listing.entries().forEach(entry -> names.add(entry.getPathSuffix()));
+            if (!listing.hasMore()) return right(names);
+            startAfter = Optional.of(names.get(names.size() - 1));
+        }
+    }
+
+    private Either<FailedOperation, Void> acquire(String interruptedMessage) {
+        try {
+            rateLimiter.acquire();
+            return right(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return left(new FailedOperation(Collections.singletonList(new Problem(interruptedMessage))));
+        }
+    }
+
+    private static Executor startWorkers(HdfsRemovalConfig removalConfig, HdfsChunkedDeletionConfig chunkedConfig) {
+        // the workers are only needed by the CHUNKED strategy and by the purge of the TRASH strategy
+        if (removalConfig.removalStrategy() == RemovalStrategy.DELETE) return Runnable::run;
+        int concurrency = chunkedConfig.concurrency() != null && chunkedConfig.concurrency() > 0
+                ? chunkedConfig.concurrency()
+                : 4;
+        return Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "hdfs-deletion-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /***
+     * The deletion of a single folder. Only the paths queued for deletion are handed to the workers, the walk of the
+     * tree runs in the calling thread
+     */
+    private class Deletion {
+        private final String root;
+        private final Consumer<String> progress;
+        private final List<String> pending = new ArrayList<>();
+        private long deleted = 0;
+
+        private Deletion(String root, Consumer<String> progress) {
+            this.root = root;
+            this.progress = progress;
+        }
+
+        private Either<FailedOperation, Void> deleteTree(String folder) {
+            Optional<String> startAfter = Optional.empty();
+            while (true) {
+                var permit = acquire(folder);
+                if (permit.isLeft()) return permit;
+                var eitherListing = hdfsService.listFolderBatch(folder, startAfter);
+                if (eitherListing.isLeft()) return left(eitherListing.getLeft());
+                var listing = eitherListing.get();
+                for (FileStatus entry : listing.entries()) {
+                    String child = folder + "/" + entry.getPathSuffix();
+                    var res = entry.isNonEmptyDirectory() ? deleteTree(child) : enqueue(child);
+                    if (res.isLeft()) return res;
+                }
+                if (!listing.hasMore()) break;
+                var entries = listing.entries();
+                startAfter = Optional.of(entries.get(entries.size() - 1).getPathSuffix());
+            }
+            // the content of the folder must be gone before the folder itself is deleted
+            var flushed = flush();
+            if (flushed.isLeft()) return flushed;
+            var res = delete(folder);
+            if (res.isLeft()) return res;
+            deleted++;
+            return right(null);
+        }
+
+        private Either<FailedOperation, Void> enqueue(String path) {
+            pending.add(path);
+            if (pending.size() >= batchSize) return flush();
+            return right(null);
+        }
+
+        private Either<FailedOperation, Void> flush() {
+            if (pending.isEmpty()) return right(null);
+            var futures = pending.stream()
+                    .map(path -> CompletableFuture.supplyAsync(() -> delete(path), workers))
+                    .toList();
+            pending.clear();
+            List<Problem> problems = new ArrayList<>();
+            for (var future : futures) {
+                Either<FailedOperation, Void> res;
+                try {
+                    res = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    // the deletions not started yet are dropped, the running ones are left to complete
+                    futures.forEach(f -> f.cancel(false));
+                    return left(new FailedOperation(Collections.singletonList(new Problem(String.format(
+                            "The removal of '%s' was interrupted while waiting for the deletions in progress",
+                            root)))));
+                } catch (ExecutionException e) {
+                    String errorMessage = String.format(
+                            "An unexpected error occurred while removing '%s': %s",
+                            root, e.getCause().getMessage());
+                    logger.error(errorMessage, e.getCause());
+                    res = left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e.getCause()))));
+                }
+                if (res.isLeft()) problems.addAll(res.getLeft().problems());
+                else deleted++;
+            }
+            if (!problems.isEmpty()) return left(new FailedOperation(problems));
+            progress.accept(String.format("Removing the folder '%s': %d entries deleted", root, deleted));
+            return right(null);
+        }
+
+        private Either<FailedOperation, Void> delete(String path) {
+            var permit = acquire(path);
+            if (permit.isLeft()) return permit;
+            try {
+                return hdfsService.deleteRecursively(path).map(p -> null);
+            } catch (RuntimeException e) {
+                String errorMessage =
+                        String.format("An unexpected error occurred while deleting '%s': %s", path, e.getMessage());
+                logger.error(errorMessage, e);
+                return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+            }
+        }
+
+        private Either<FailedOperation, Void> acquire(String path) {
+            return HdfsDeletionEngine.this.acquire(
+                    String.format("The removal of '%s' was interrupted before '%s'", root, path));
+        }
+    }
+}
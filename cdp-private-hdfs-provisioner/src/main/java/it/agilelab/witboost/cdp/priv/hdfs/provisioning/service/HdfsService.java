@@ -2,6 +2,8 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
 
 import io.vavr.control.Either;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.HdfsDirectoryListing;
+import java.util.Optional;
 
 /***
  * Hdfs services
@@ -16,9 +18,28 @@ public interface HdfsService {
     Either<FailedOperation, String> createFolder(String path);
 
     /***
-     * Delete a folder on HDFS. If the folder doesn't exist, a success result is returned
+     * Delete a folder on HDFS, or move it to the trash depending on the configured removal strategy.
+     * The CHUNKED strategy and the purge of the trash are implemented by {@link HdfsDeletionEngine} on top of
+     * {@link #deleteRecursively} and {@link #listFolderBatch}.
+     * If the folder doesn't exist, a success result is returned
      * @param path path of the folder to delete
      * @return the path of the deleted folder or the error encountered
      */
     Either<FailedOperation, String> deleteFolder(String path);
+
+    /***
+     * Delete a file or a folder with its content on HDFS, whatever the configured removal strategy.
+     * If the path doesn't exist, a success result is returned
+     * @param path path to delete
+     * @return the deleted path or the error encountered
+     */
+    Either<FailedOperation, String> deleteRecursively(String path);
+
+    /***
+     * List a page of the entries of a folder on HDFS. If the folder doesn't exist, an empty page is returned
+     * @param path path of the folder to list
+     * @param startAfter name of the last entry of the previous page, empty to get the first page
+     * @return the page of entries or the error encountered
+     */
+    Either<FailedOperation, HdfsDirectoryListing> listFolderBatch(String path, Optional<String> startAfter);
 }
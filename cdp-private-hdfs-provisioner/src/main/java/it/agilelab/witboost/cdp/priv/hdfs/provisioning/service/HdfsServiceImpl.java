@@ -6,84 +6,202 @@ import static io.vavr.control.Either.right;
 import io.vavr.control.Either;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
-import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.HdfsDirectoryListing;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.HdfsResult;
-import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.JmxResponse;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @Service
+@ConditionalOnProperty(prefix = "hdfs.native", name = "enabled", havingValue = "false", matchIfMissing = true)
 public class HdfsServiceImpl implements HdfsService {
 
     private final Logger logger = LoggerFactory.getLogger(HdfsServiceImpl.class);
 
     private final RestTemplate restTemplate;
 
-    private final HdfsConfig hdfsConfig;
+    private final ActiveNameNodeResolver activeNameNodeResolver;
 
-    public HdfsServiceImpl(RestTemplate restTemplate, HdfsConfig hdfsConfig) {
+    private final HdfsTrash trash;
+
+    public HdfsServiceImpl(
+            RestTemplate restTemplate, ActiveNameNodeResolver activeNameNodeResolver, HdfsRemovalConfig removalConfig) {
         this.restTemplate = restTemplate;
-        this.hdfsConfig = hdfsConfig;
-        if (this.restTemplate.getRequestFactory() instanceof HttpComponentsClientHttpRequestFactory f) {
-            f.setConnectTimeout(hdfsConfig.timeout());
-            f.setConnectionRequestTimeout(hdfsConfig.timeout());
-        }
+        this.activeNameNodeResolver = activeNameNodeResolver;
+        this.trash = new HdfsTrash(removalConfig);
     }
 
     @Override
     public Either<FailedOperation, String> createFolder(String path) {
         try {
-            var activeNNBaseUrl = getActiveNNBaseUrl();
-            if (activeNNBaseUrl.isLeft()) return left(activeNNBaseUrl.getLeft());
-            ResponseEntity<HdfsResult> response = restTemplate.exchange(
-                    buildCreateUrl(activeNNBaseUrl.get(), path), HttpMethod.PUT, HttpEntity.EMPTY, HdfsResult.class);
-            HdfsResult hdfsResult = response.getBody();
+            var response =
+                    exchangeOnActiveNN(baseUrl -> buildCreateUrl(baseUrl, path), HttpMethod.PUT, HdfsResult.class);
+            if (response.isLeft()) return left(response.getLeft());
+            HdfsResult hdfsResult = response.get().getBody();
             if (hdfsResult != null && hdfsResult.isOutcome()) {
                 return right(path);
             }
             return left(new FailedOperation(
                     Collections.singletonList(new Problem(getFailedMessage("create", path, Optional.empty())))));
-        } catch (RestClientResponseException rcre) {
-            logger.error("Error in createFolder", rcre);
+        } catch (RestClientException rce) {
+            logger.error("Error in createFolder", rce);
             return left(new FailedOperation(
-                    Collections.singletonList(new Problem(getFailedMessage("create", path, Optional.of(rcre)), rcre))));
+                    Collections.singletonList(new Problem(getFailedMessage("create", path, Optional.of(rce)), rce))));
         }
     }
 
     @Override
     public Either<FailedOperation, String> deleteFolder(String path) {
+        if (trash.isEnabled()) return moveToTrash(path);
+        return deleteRecursively(path);
+    }
+
+    @Override
+    public Either<FailedOperation, HdfsDirectoryListing> listFolderBatch(String path, Optional<String> startAfter) {
+        try {
+            var response = exchangeOnActiveNN(
+                    baseUrl -> buildListBatchUrl(baseUrl, path, startAfter),
+                    HttpMethod.GET,
+                    HdfsDirectoryListing.class);
+            if (response.isLeft()) return left(response.getLeft());
+            HdfsDirectoryListing listing = response.get().getBody();
+            return right(listing != null ? listing : new HdfsDirectoryListing());
+        } catch (HttpClientErrorException.NotFound e) {
+            return right(new HdfsDirectoryListing());
+        } catch (RestClientException rce) {
+            logger.error("Error in listFolderBatch", rce);
+            return left(new FailedOperation(
+                    Collections.singletonList(new Problem(getFailedMessage("list", path, Optional.of(rce)), rce))));
+        }
+    }
+
+    /***
+     * Moves the folder to the trash with a single RENAME, whose cost doesn't depend on the size of the folder.
+     * RENAME answers false both if the folder doesn't exist and if the trash doesn't exist yet,
+     * so in that case the trash is created and the RENAME is tried once more. If it still answers false, the folder
+     * is only considered removed if it doesn't exist
+     */
+    private Either<FailedOperation, String> moveToTrash(String path) {
+        String tombstone = trash.tombstoneFor(path, System.currentTimeMillis());
+        try {
+            var renamed = rename(path, tombstone);
+            if (renamed.isRight() && !renamed.get()) {
+                var trashRoot = createFolder(trash.root());
+                if (trashRoot.isLeft()) return left(trashRoot.getLeft());
+                renamed = rename(path, tombstone);
+            }
+            if (renamed.isLeft()) return left(renamed.getLeft());
+            if (renamed.get()) {
+                logger.info("Folder {} moved to the trash as {}", path, tombstone);
+                return right(path);
+            }
+            var exists = exists(path);
+            if (exists.isLeft()) return left(exists.getLeft());
+            if (exists.get()) {
+                logger.error("Folder {} exists but couldn't be moved to the trash as {}", path, tombstone);
+                return left(new FailedOperation(
+                        Collections.singletonList(new Problem(getFailedMessage("remove", path, Optional.empty())))));
+            }
+            logger.info("Folder {} doesn't exist, nothing to move to the trash", path);
+            return right(path);
+        } catch (RestClientException rce) {
+            logger.error("Error in moveToTrash", rce);
+            return left(new FailedOperation(
+                    Collections.singletonList(new Problem(getFailedMessage("remove", path, Optional.of(rce)), rce))));
+        }
+    }
+
+    private Either<FailedOperation, Boolean> exists(String path) {
         try {
-            var activeNNBaseUrl = getActiveNNBaseUrl();
-            if (activeNNBaseUrl.isLeft()) return left(activeNNBaseUrl.getLeft());
-            ResponseEntity<HdfsResult> response = restTemplate.exchange(
-                    buildDeleteUrl(activeNNBaseUrl.get(), path), HttpMethod.DELETE, HttpEntity.EMPTY, HdfsResult.class);
-            HdfsResult hdfsResult = response.getBody();
+            var response = exchangeOnActiveNN(baseUrl -> buildStatusUrl(baseUrl, path), HttpMethod.GET, String.class);
+            if (response.isLeft()) return left(response.getLeft());
+            return right(true);
+        } catch (HttpClientErrorException.NotFound e) {
+            return right(false);
+        }
+    }
+
+    private Either<FailedOperation, Boolean> rename(String path, String destination) {
+        var response = exchangeOnActiveNN(
+                baseUrl -> buildRenameUrl(baseUrl, path, destination), HttpMethod.PUT, HdfsResult.class);
+        if (response.isLeft()) return left(response.getLeft());
+        HdfsResult hdfsResult = response.get().getBody();
+        if (hdfsResult == null)
+            return left(new FailedOperation(
+                    Collections.singletonList(new Problem(getFailedMessage("remove", path, Optional.empty())))));
+        return right(hdfsResult.isOutcome());
+    }
+
+    @Override
+    public Either<FailedOperation, String> deleteRecursively(String path) {
+        try {
+            var response =
+                    exchangeOnActiveNN(baseUrl -> buildDeleteUrl(baseUrl, path), HttpMethod.DELETE, HdfsResult.class);
+            if (response.isLeft()) return left(response.getLeft());
+            HdfsResult hdfsResult = response.get().getBody();
             // if the folder doesn't exist (maybe is already deleted), outcome is false, so it's ok for us
             if (hdfsResult != null) {
                 return right(path);
             }
             return left(new FailedOperation(
                     Collections.singletonList(new Problem(getFailedMessage("delete", path, Optional.empty())))));
-        } catch (RestClientResponseException rcre) {
-            logger.error("Error in deleteFolder", rcre);
+        } catch (RestClientException rce) {
+            logger.error("Error in deleteFolder", rce);
             return left(new FailedOperation(
-                    Collections.singletonList(new Problem(getFailedMessage("delete", path, Optional.of(rcre)), rcre))));
+                    Collections.singletonList(new Problem(getFailedMessage("delete", path, Optional.of(rce)), rce))));
         }
     }
 
+    /***
+     * Executes the WebHDFS request on the active NameNode. If the NameNode answers as standby or is not reachable,
+     * the active NameNode is resolved again and the request is retried once on the new active NameNode
+     */
+    private <T> Either<FailedOperation, ResponseEntity<T>> exchangeOnActiveNN(
+            Function<String, String> urlBuilder, HttpMethod method, Class<T> responseType) {
+        var activeNNBaseUrl = activeNameNodeResolver.getActiveNameNode();
+        if (activeNNBaseUrl.isLeft()) return left(activeNNBaseUrl.getLeft());
+        try {
+            return right(restTemplate.exchange(
+                    urlBuilder.apply(activeNNBaseUrl.get()), method, HttpEntity.EMPTY, responseType));
+        } catch (RestClientException rce) {
+            if (!isNameNodeUnavailable(rce)) throw rce;
+            logger.warn("NameNode {} is not available, resolving the active NameNode again", activeNNBaseUrl.get());
+            var newActiveNNBaseUrl = activeNameNodeResolver.failover(activeNNBaseUrl.get());
+            if (newActiveNNBaseUrl.isLeft() || newActiveNNBaseUrl.get().equals(activeNNBaseUrl.get())) throw rce;
+            return right(restTemplate.exchange(
+                    urlBuilder.apply(newActiveNNBaseUrl.get()), method, HttpEntity.EMPTY, responseType));
+        }
+    }
+
+    /***
+     * A standby NameNode answers 403 with a StandbyException (or a RetriableException while it is transitioning).
+     * Other 403 errors, e.g. an AccessControlException, come from the active NameNode and must not trigger a failover
+     */
+    private boolean isNameNodeUnavailable(RestClientException rce) {
+        if (rce instanceof ResourceAccessException) return true;
+        if (rce instanceof RestClientResponseException rcre) {
+            String body = rcre.getResponseBodyAsString();
+            return body.contains("StandbyException") || body.contains("RetriableException");
+        }
+        return false;
+    }
+
     private String buildCreateUrl(String baseUrl, String path) {
         String url = "/webhdfs/v1{path}";
         Map<String, String> urlParams = new HashMap<>();
@@ -104,6 +222,40 @@ public class HdfsServiceImpl implements HdfsService {
         return builder.buildAndExpand(urlParams).toString();
     }
 
+    private String buildRenameUrl(String baseUrl, String path, String destination) {
+        String url = "/webhdfs/v1{path}";
+        Map<String, String> urlParams = new HashMap<>();
+        urlParams.put("path", path);
+        urlParams.put("destination", destination);
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUrl)
+                .path(url)
+                .queryParam("op", "RENAME")
+                .queryParam("destination", "{destination}");
+        return builder.buildAndExpand(urlParams).toString();
+    }
+
+    private String buildStatusUrl(String baseUrl, String path) {
+        String url = "/webhdfs/v1{path}";
+        Map<String, String> urlParams = new HashMap<>();
+        urlParams.put("path", path);
+        UriComponentsBuilder builder =
+                UriComponentsBuilder.fromUriString(baseUrl).path(url).queryParam("op", "GETFILESTATUS");
+        return builder.buildAndExpand(urlParams).toString();
+    }
+
+    private String buildListBatchUrl(String baseUrl, String path, Optional<String> startAfter) {
+        String url = "/webhdfs/v1{path}";
+        Map<String, String> urlParams = new HashMap<>();
+        urlParams.put("path", path);
+        UriComponentsBuilder builder =
+                UriComponentsBuilder.fromUriString(baseUrl).path(url).queryParam("op", "LISTSTATUS_BATCH");
+        startAfter.ifPresent(s -> {
+            urlParams.put("startAfter", s);
+            builder.queryParam("startAfter", "{startAfter}");
+        });
+        return builder.buildAndExpand(urlParams).toString();
+    }
+
     private String getFailedMessage(String operation, String path, Optional<Throwable> ex) {
         if (ex.isPresent()) {
             return String.format(
@@ -114,44 +266,4 @@ public class HdfsServiceImpl implements HdfsService {
                 "Failed to %s the folder '%s'. Please try again and if the issue persists contact the platform team",
                 operation, path);
     }
-
-    private Either<FailedOperation, String> getActiveNNBaseUrl() {
-        try {
-            String jmxUrl = "/jmx?qry=Hadoop:service=NameNode,name=NameNodeStatus";
-
-            logger.info("Checking if NN1 is active");
-            String fullUrlNN1 = UriComponentsBuilder.fromUriString(hdfsConfig.baseUrlNN1())
-                    .path(jmxUrl)
-                    .build()
-                    .toString();
-            JmxResponse resNN1 = restTemplate.getForObject(fullUrlNN1, JmxResponse.class);
-            if (resNN1 != null
-                    && resNN1.getBeans() != null
-                    && resNN1.getBeans().stream().anyMatch(b -> "active".equalsIgnoreCase(b.getState())))
-                return right(hdfsConfig.baseUrlNN1());
-
-            logger.info("Checking if NN2 is active");
-            String fullUrlNN2 = UriComponentsBuilder.fromUriString(hdfsConfig.baseUrlNN2())
-                    .path(jmxUrl)
-                    .build()
-                    .toString();
-            JmxResponse resNN2 = restTemplate.getForObject(fullUrlNN2, JmxResponse.class);
-            if (resNN2 != null
-                    && resNN2.getBeans() != null
-                    && resNN2.getBeans().stream().anyMatch(b -> "active".equalsIgnoreCase(b.getState())))
-                return right(hdfsConfig.baseUrlNN2());
-
-            String errorMessage =
-                    "Unable to find an active NameNode. Please try again and if the issue persists contact the platform team.";
-            logger.error(errorMessage);
-            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
-
-        } catch (RestClientException rce) {
-            logger.error("Error in getActiveNN", rce);
-            return left(new FailedOperation(Collections.singletonList(new Problem(
-                    "Failed to retrieve the current active NameNode. Please try again and if the issue persists contact the platform team. Details: "
-                            + rce.getMessage(),
-                    rce))));
-        }
-    }
 }
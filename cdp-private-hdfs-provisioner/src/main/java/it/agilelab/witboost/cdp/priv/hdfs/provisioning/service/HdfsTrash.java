@@ -0,0 +1,91 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig.RemovalStrategy;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/***
+ * Naming and selection of the tombstones of the folders moved to the trash, shared by the {@link HdfsService}
+ * implementations, which move the folders to the trash, and by {@link HdfsDeletionEngine}, which purges it. A tombstone
+ * is named after the time of the removal, so that the purge can tell its age from the name alone, and the removed path,
+ * followed by a random suffix: flattening the path is ambiguous, e.g. /a/b_c and /a_b/c, and two paths removed in the
+ * same millisecond must not end up in the same tombstone
+ */
+final class HdfsTrash {
+
+    private static final String TOMBSTONE_SEPARATOR = "-";
+
+    private final HdfsRemovalConfig removalConfig;
+
+    /***
+     * @param removalConfig the removal configuration
+     * @throws IllegalArgumentException if the TRASH strategy is configured without the trash root
+     */
+    HdfsTrash(HdfsRemovalConfig removalConfig) {
+        this.removalConfig = removalConfig;
+        if (isEnabled() && !hasRoot())
+            throw new IllegalArgumentException("hdfs.removal.trashRoot is required by the TRASH removal strategy");
+    }
+
+    /***
+     * @return whether the folders are moved to the trash instead of being deleted
+     */
+    boolean isEnabled() {
+        return removalConfig.removalStrategy() == RemovalStrategy.TRASH;
+    }
+
+    /***
+     * @return whether a trash root is configured, so that there may be something to purge
+     */
+    boolean hasRoot() {
+        return removalConfig.trashRoot() != null && !removalConfig.trashRoot().isBlank();
+    }
+
+    /***
+     * @return the trash root, without trailing slashes
+     */
+    String root() {
+        return removalConfig.trashRoot().replaceFirst("/+$", "");
+    }
+
+    /***
+     * @param path path of the removed folder
+     * @param now time of the removal in milliseconds
+     * @return the path of the tombstone of the folder
+     */
+    String tombstoneFor(String path, long now) {
+        return root() + "/" + now + TOMBSTONE_SEPARATOR
+                + path.replaceFirst("^/+", "").replace('/', '_') + TOMBSTONE_SEPARATOR
+                + UUID.randomUUID();
+    }
+
+    /***
+     * @param names names of the entries of the trash root
+     * @param now current time in milliseconds
+     * @return the names of the tombstones older than the retention, the oldest first, up to the purge batch size.
+     *         Entries not named as tombstones are ignored
+     */
+    List<String> expired(List<String> names, long now) {
+        long retention = removalConfig.retention() != null ? removalConfig.retention() : 0L;
+        int batchSize = removalConfig.purgeBatchSize() != null ? removalConfig.purgeBatchSize() : 10;
+        long threshold = now - retention;
+        return names.stream()
+                .filter(name -> tombstoneTime(name).filter(t -> t <= threshold).isPresent())
+                .sorted(Comparator.comparing(name -> tombstoneTime(name).orElseThrow()))
+                .limit(batchSize)
+                .toList();
+    }
+
+    private static Optional<Long> tombstoneTime(String name) {
+        int separator = name.indexOf(TOMBSTONE_SEPARATOR);
+        if (separator <= 0) return Optional.empty();
+        try {
+            return Optional.of(Long.parseLong(name.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
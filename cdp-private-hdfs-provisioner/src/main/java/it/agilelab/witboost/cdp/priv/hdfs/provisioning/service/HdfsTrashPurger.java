@@ -0,0 +1,82 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig.RemovalStrategy;
+import jakarta.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/***
+ * Periodically purges the folders moved to the trash by the TRASH removal strategy, every
+ * {@link HdfsRemovalConfig#purgeInterval()} milliseconds, with {@link HdfsDeletionEngine#purgeTrash()}.
+ * Nothing is scheduled with the DELETE strategy
+ */
+@Component
+public class HdfsTrashPurger {
+
+    private final Logger logger = LoggerFactory.getLogger(HdfsTrashPurger.class);
+
+    private final HdfsDeletionEngine deletionEngine;
+    private final HdfsRemovalConfig removalConfig;
+    private final Optional<ScheduledExecutorService> purger;
+
+    public HdfsTrashPurger(HdfsDeletionEngine deletionEngine, HdfsRemovalConfig removalConfig) {
+        this.deletionEngine = deletionEngine;
+        this.removalConfig = removalConfig;
+        this.purger = startPurger();
+    }
+
+    /***
+     * Runs a purge of the trash, logging its outcome
+     */
+    public void purge() {
+        deletionEngine
+                .purgeTrash()
+                .peek(purged -> {
+                    if (purged > 0) logger.info("Purged {} folders from the trash", purged);
+                })
+                .peekLeft(failedOperation -> failedOperation
+                        .problems()
+                        .forEach(p -> logger.error("Purge of the trash failed: {}", p.description())));
+    }
+
+    private Optional<ScheduledExecutorService> startPurger() {
+        Integer interval = removalConfig.purgeInterval();
+        if (removalConfig.removalStrategy() != RemovalStrategy.TRASH || interval == null || interval <= 0)
+            return Optional.empty();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hdfs-trash-purger");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(
+                () -> {
+                    try {
+                        purge();
+                    } catch (RuntimeException e) {
+                        logger.error("Unexpected error while purging the trash", e);
+                    }
+                },
+                interval,
+                interval,
+                TimeUnit.MILLISECONDS);
+        return Optional.of(executor);
+    }
+
+    /***
+     * @return whether the background purge is scheduled
+     */
+    public boolean isScheduled() {
+        return purger.isPresent();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purger.ifPresent(ScheduledExecutorService::shutdownNow);
+    }
+}
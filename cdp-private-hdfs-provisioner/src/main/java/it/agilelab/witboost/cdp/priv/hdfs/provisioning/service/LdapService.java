@@ -1,13 +1,45 @@
 package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
 
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
 import io.vavr.control.Either;
 import io.vavr.control.Option;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPGroup;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPUser;
+import java.util.Collection;
+import java.util.Map;
 
 public interface LdapService {
     Either<FailedOperation, Option<CDPUser>> findUserByMail(String mail);
 
     Either<FailedOperation, Option<CDPGroup>> findGroupByName(String name);
+
+    /***
+     * Looks up several users with as few LDAP searches as possible
+     * @param mails the mails of the users to look up
+     * @return the result of the lookup for each of the requested mails
+     */
+    Map<String, Either<FailedOperation, Option<CDPUser>>> findUsersByMail(Collection<String> mails);
+
+    /***
+     * Looks up several groups with as few LDAP searches as possible
+     * @param names the names of the groups to look up
+     * @return the result of the lookup for each of the requested names
+     */
+    Map<String, Either<FailedOperation, Option<CDPGroup>>> findGroupsByName(Collection<String> names);
+
+    /***
+     * Looks up several users and groups with as few LDAP searches as possible. Implementations can search the users
+     * and the groups at the same time
+     * @param mails the mails of the users to look up
+     * @param names the names of the groups to look up
+     * @return the result of the lookup for each of the requested mails and for each of the requested names
+     */
+    default Tuple2<
+                    Map<String, Either<FailedOperation, Option<CDPUser>>>,
+                    Map<String, Either<FailedOperation, Option<CDPGroup>>>>
+            findUsersAndGroups(Collection<String> mails, Collection<String> names) {
+        return Tuple.of(findUsersByMail(mails), findGroupsByName(names));
+    }
 }
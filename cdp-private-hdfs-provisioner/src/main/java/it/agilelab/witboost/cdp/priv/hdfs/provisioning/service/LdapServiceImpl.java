@@ -3,6 +3,8 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
 import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
 
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
 import io.vavr.control.Either;
 import io.vavr.control.Option;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
@@ -10,21 +12,46 @@ import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.LdapConfig;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPGroup;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPUser;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import org.ldaptive.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 @Service
 public class LdapServiceImpl implements LdapService {
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final String EQUALITY_ASSERTION = "\\(\\s*([^()=~<>:\\s]+)\\s*=\\{%s\\}\\s*\\)";
+
     private final Logger logger = LoggerFactory.getLogger(LdapServiceImpl.class);
     private final SearchOperation searchOperation;
     private final LdapConfig ldapConfig;
+    private final Executor lookupExecutor;
 
-    public LdapServiceImpl(SearchOperation searchOperation, LdapConfig ldapConfig) {
+    public LdapServiceImpl(
+            SearchOperation searchOperation,
+            LdapConfig ldapConfig,
+            @Qualifier("ldapLookupExecutor") Executor lookupExecutor) {
         this.searchOperation = searchOperation;
         this.ldapConfig = ldapConfig;
+        this.lookupExecutor = lookupExecutor;
     }
 
     @Override
@@ -77,4 +104,220 @@ public class LdapServiceImpl implements LdapService {
             return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
         }
     }
+
+    @Override
+    public Map<String, Either<FailedOperation, Option<CDPUser>>> findUsersByMail(Collection<String> mails) {
+        return findUsersAndGroups(mails, List.of())._1();
+    }
+
+    @Override
+    public Map<String, Either<FailedOperation, Option<CDPGroup>>> findGroupsByName(Collection<String> names) {
+        return findUsersAndGroups(List.of(), names)._2();
+    }
+
+    /***
+     * Splits the users and the groups in chunks and runs a single OR-filter search per chunk.
+     * If {@link LdapConfig#concurrentLookups()} is set, the chunks of both the users and the groups are searched
+     * concurrently on the lookup executor, which is bounded by the size of the connection pool, and the values are
+     * spread over the connections: the chunks are smaller than {@link LdapConfig#batchSize()} when there are fewer
+     * values than the connections can search with full chunks.
+     * The entries found are matched back to the values through the attributes the filter compares with the parameter,
+     * so if the filter uses the parameter in any other way, each value is searched on its own
+     */
+    @Override
+    public Tuple2<
+                    Map<String, Either<FailedOperation, Option<CDPUser>>>,
+                    Map<String, Either<FailedOperation, Option<CDPGroup>>>>
+            findUsersAndGroups(Collection<String> mails, Collection<String> names) {
+        var userSearch = new BatchSearch<>(
+                mails,
+                ldapConfig::userSearchFilter,
+                "mail",
+                "users",
+                (mail, entry) -> new CDPUser(
+                        entry.getAttribute(ldapConfig.userAttributeName()).getStringValue(), mail),
+                this::findUserByMail);
+        var groupSearch = new BatchSearch<>(
+                names,
+                ldapConfig::groupSearchFilter,
+                "group",
+                "groups",
+                (group, entry) -> new CDPGroup(
+                        entry.getAttribute(ldapConfig.groupAttributeName()).getStringValue()),
+                this::findGroupByName);
+        int chunkSize = chunkSize(userSearch.values.size() + groupSearch.values.size());
+        List<Runnable> searches = new ArrayList<>(userSearch.searches(chunkSize));
+        searches.addAll(groupSearch.searches(chunkSize));
+        run(searches);
+        return Tuple.of(userSearch.results(), groupSearch.results());
+    }
+
+    private void run(List<Runnable> searches) {
+        if (searches.size() <= 1 || !Boolean.TRUE.equals(ldapConfig.concurrentLookups())) {
+            searches.forEach(Runnable::run);
+            return;
+        }
+        var futures = searches.stream()
+                .map(search -> CompletableFuture.runAsync(search, lookupExecutor))
+                .toList();
+        try {
+            for (var future : futures) future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // the searches not started yet are dropped, their values are reported as interrupted
+            futures.forEach(f -> f.cancel(false));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /***
+     * The lookup of the users or of the groups of a batch call
+     */
+    private class BatchSearch<T> {
+        private final List<String> values;
+        private final Supplier<String> filter;
+        private final String filterParameter;
+        private final String kind;
+        private final BiFunction<String, LdapEntry, T> entryMapper;
+        private final Function<String, Either<FailedOperation, Option<T>>> singleSearch;
+        private final Map<String, Either<FailedOperation, Option<T>>> results = new ConcurrentHashMap<>();
+
+        private BatchSearch(
+                Collection<String> values,
+                Supplier<String> filter,
+                String filterParameter,
+                String kind,
+                BiFunction<String, LdapEntry, T> entryMapper,
+                Function<String, Either<FailedOperation, Option<T>>> singleSearch) {
+            this.values = values.stream().distinct().toList();
+            this.filter = filter;
+            this.filterParameter = filterParameter;
+            this.kind = kind;
+            this.entryMapper = entryMapper;
+            this.singleSearch = singleSearch;
+        }
+
+        private List<Runnable> searches(int chunkSize) {
+            if (values.isEmpty()) return List.of();
+            String searchFilter = filter.get();
+            List<String> keyAttributes = filterAttributes(searchFilter, filterParameter);
+            if (keyAttributes.isEmpty()) {
+                logger.debug("The filter '{}' can't be batched, searching the {} one at a time", searchFilter, kind);
+                return values.stream()
+                        .<Runnable>map(value -> () -> results.put(value, singleSearch.apply(value)))
+                        .toList();
+            }
+            return chunks(values, chunkSize).stream()
+                    .<Runnable>map(chunk -> () -> results.putAll(
+                            searchChunk(chunk, searchFilter, filterParameter, keyAttributes, kind, entryMapper)))
+                    .toList();
+        }
+
+        private Map<String, Either<FailedOperation, Option<T>>> results() {
+            Map<String, Either<FailedOperation, Option<T>>> allResults = new HashMap<>(results);
+            values.forEach(value -> allResults.computeIfAbsent(
+                    value,
+                    v -> left(new FailedOperation(Collections.singletonList(new Problem(String.format(
+                            "The search for the %s '%s' on LDAP was interrupted. Please try again", kind, v)))))));
+            return allResults;
+        }
+    }
+
+    /***
+     * Runs the OR-filter search of a chunk. The returned entries are matched back to the requested values
+     * through {@code keyAttributes}, ignoring case; a failed search fails all the values of the chunk
+     */
+    private <T> Map<String, Either<FailedOperation, Option<T>>> searchChunk(
+            List<String> chunk,
+            String filter,
+            String filterParameter,
+            List<String> keyAttributes,
+            String kind,
+            BiFunction<String, LdapEntry, T> entryMapper) {
+        Map<String, Either<FailedOperation, Option<T>>> results = new HashMap<>();
+        SearchRequest searchRequest = SearchRequest.builder()
+                .dn(ldapConfig.searchBaseDN())
+                .filter(orFilter(filter, filterParameter, chunk))
+                .build();
+        try {
+            SearchResponse searchResponse = searchOperation.execute(searchRequest);
+            Map<String, T> found = new HashMap<>();
+            for (LdapEntry entry : searchResponse.getEntries()) {
+                for (String keyAttribute : keyAttributes) {
+                    LdapAttribute keyValues = entry.getAttribute(keyAttribute);
+                    if (keyValues == null) continue;
+                    keyValues
+                            .getStringValues()
+                            .forEach(key -> found.putIfAbsent(normalize(key), entryMapper.apply(key, entry)));
+                }
+            }
+            chunk.forEach(value -> results.put(value, right(Option.of(found.get(normalize(value))))));
+        } catch (LdapException e) {
+            String errorMessage = String.format(
+                    "An error occurred while searching for the %s '%s' on LDAP. Please try again and if the error persists contact the platform team. Details: %s",
+                    kind, String.join(", ", chunk), e.getMessage());
+            logger.error(errorMessage, e);
+            Either<FailedOperation, Option<T>> error =
+                    left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+            chunk.forEach(value -> results.put(value, error));
+        }
+        return results;
+    }
+
+    private String orFilter(String filter, String filterParameter, List<String> values) {
+        List<String> filters = values.stream()
+                .map(value -> FilterTemplate.builder()
+                        .filter(filter)
+                        .parameter(filterParameter, value)
+                        .build()
+                        .format())
+                .toList();
+        if (filters.size() == 1) return filters.get(0);
+        return filters.stream().collect(Collectors.joining("", "(|", ")"));
+    }
+
+    /***
+     * @return the attributes the filter compares with the parameter by equality, e.g. sAMAccountName for
+     *         (&(objectClass=group)(sAMAccountName={group})), or none if the parameter is also used in other
+     *         assertions (e.g. substrings), whose entries can't be matched back to the values
+     */
+    static List<String> filterAttributes(String filter, String filterParameter) {
+        String placeholder = "{" + filterParameter + "}";
+        Matcher matcher = Pattern.compile(String.format(EQUALITY_ASSERTION, Pattern.quote(filterParameter)))
+                .matcher(filter);
+        List<String> attributes = new ArrayList<>();
+        while (matcher.find()) attributes.add(matcher.group(1));
+        int occurrences = filter.split(Pattern.quote(placeholder), -1).length - 1;
+        if (occurrences != attributes.size()) return List.of();
+        return attributes.stream().distinct().toList();
+    }
+
+    /***
+     * @return the size of the chunks of a batch call looking up the given number of values. With concurrent lookups,
+     *         the values are spread over the connections of the pool, up to {@link LdapConfig#batchSize()} per chunk
+     */
+    private int chunkSize(int values) {
+        int batchSize = ldapConfig.batchSize() != null && ldapConfig.batchSize() > 0
+                ? ldapConfig.batchSize()
+                : DEFAULT_BATCH_SIZE;
+        if (!Boolean.TRUE.equals(ldapConfig.concurrentLookups())) return batchSize;
+        int connections = Math.max(1, ldapConfig.maxPoolSize());
+        int perConnection = (values + connections - 1) / connections;
+        return Math.max(1, Math.min(batchSize, perConnection));
+    }
+
+    private List<List<String>> chunks(List<String> values, int chunkSize) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += chunkSize) {
+            chunks.add(values.subList(i, Math.min(i + chunkSize, values.size())));
+        }
+        return chunks;
+    }
+
+    private String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,206 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+
+import io.vavr.control.Either;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsNativeConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.KerberosConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.HdfsDirectoryListing;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.HdfsFileStatuses;
+import jakarta.annotation.PreDestroy;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivilegedExceptionAction;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
+import org.apache.hadoop.hdfs.protocol.DirectoryListing;
+import org.apache.hadoop.hdfs.protocol.HdfsFileStatus;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/***
+ * Hdfs services backed by the native Hadoop client, enabled by {@link HdfsNativeConfig#enabled()}.
+ * The client talks Hadoop RPC over persistent connections and relies on the HA proxy provider of the nameservice
+ * to find the active NameNode and fail over, so no JMX probing is needed.
+ * With Kerberos authentication the client logs in with the configured keytab and renews its TGT before each call
+ */
+@Service
+@ConditionalOnProperty(prefix = "hdfs.native", name = "enabled", havingValue = "true")
+public class NativeHdfsServiceImpl implements HdfsService {
+
+    private static final String KERBEROS = "kerberos";
+
+    private final Logger logger = LoggerFactory.getLogger(NativeHdfsServiceImpl.class);
+
+    private final HdfsTrash trash;
+    private final UserGroupInformation ugi;
+    private final DistributedFileSystem fileSystem;
+
+    public NativeHdfsServiceImpl(
+            HdfsNativeConfig nativeConfig, KerberosConfig kerberosConfig, HdfsRemovalConfig removalConfig)
+            throws IOException, InterruptedException {
+        this.trash = new HdfsTrash(removalConfig);
+        Configuration conf = buildConfiguration(nativeConfig);
+        this.ugi = login(conf, kerberosConfig);
+        URI uri = nativeConfig.uri() != null ? URI.create(nativeConfig.uri()) : FileSystem.getDefaultUri(conf);
+        FileSystem fs = ugi.doAs((PrivilegedExceptionAction<FileSystem>) () -> FileSystem.newInstance(uri, conf));
+        if (!(fs instanceof DistributedFileSystem dfs)) {
+            fs.close();
+            throw new IllegalArgumentException(
+                    String.format("hdfs.native.uri must point to an HDFS file system, found '%s'", uri));
+        }
+        this.fileSystem = dfs;
+        logger.info("Native HDFS client connected to {} as {}", uri, ugi.getUserName());
+    }
+
+    @Override
+    public Either<FailedOperation, String> createFolder(String path) {
+        return execute("create", path, () -> fileSystem.mkdirs(new Path(path))).flatMap(created -> {
+            if (created) return right(path);
+            return left(new FailedOperation(
+                    Collections.singletonList(new Problem(getFailedMessage("create", path, Optional.empty())))));
+        });
+    }
+
+    @Override
+    public Either<FailedOperation, String> deleteFolder(String path) {
+        if (trash.isEnabled()) return moveToTrash(path);
+        return deleteRecursively(path);
+    }
+
+    @Override
+    public Either<FailedOperation, HdfsDirectoryListing> listFolderBatch(String path, Optional<String> startAfter) {
+        byte[] start = startAfter.map(s -> s.getBytes(StandardCharsets.UTF_8)).orElse(HdfsFileStatus.EMPTY_NAME);
+        return execute("list", path, () -> {
+            try {
+                return toListing(fileSystem.getClient().listPaths(path, start));
+            } catch (FileNotFoundException e) {
+                return new HdfsDirectoryListing();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            fileSystem.close();
+        } catch (IOException e) {
+            logger.warn("Error while closing the native HDFS client", e);
+        }
+    }
+
+    /***
+     * Moves the folder to the trash with a single rename. The rename fails both if the folder doesn't exist
+     * and if the trash doesn't exist yet, so in that case the trash is created and the rename is tried once more.
+     * If it fails again, the folder is only considered removed if it doesn't exist
+     */
+    private Either<FailedOperation, String> moveToTrash(String path) {
+        Path source = new Path(path);
+        Path tombstone = new Path(trash.tombstoneFor(path, System.currentTimeMillis()));
+        return execute("remove", path, () -> {
+                    if (fileSystem.rename(source, tombstone)) return true;
+                    fileSystem.mkdirs(new Path(trash.root()));
+                    if (fileSystem.rename(source, tombstone)) return true;
+                    if (fileSystem.exists(source))
+                        throw new IOException(
+                                String.format("The folder couldn't be moved to the trash as '%s'", tombstone));
+                    return false;
+                })
+                .map(renamed -> {
+                    if (renamed) logger.info("Folder {} moved to the trash as {}", path, tombstone);
+                    else logger.info("Folder {} doesn't exist, nothing to move to the trash", path);
+                    return path;
+                });
+    }
+
+    @Override
+    public Either<FailedOperation, String> deleteRecursively(String path) {
+        // if the folder doesn't exist (maybe is already deleted), delete returns false, so it's ok for us
+        return execute("delete", path, () -> fileSystem.delete(new Path(path), true))
+                .map(deleted -> path);
+    }
+
+    /***
+     * Executes the action as the logged in user, renewing the TGT first if it is about to expire
+     */
+    private <T> Either<FailedOperation, T> execute(String operation, String path, PrivilegedExceptionAction<T> action) {
+        try {
+            ugi.checkTGTAndReloginFromKeytab();
+            return right(ugi.doAs(action));
+        } catch (IOException e) {
+            logger.error(String.format("Error while trying to %s the folder '%s'", operation, path), e);
+            return left(new FailedOperation(
+                    Collections.singletonList(new Problem(getFailedMessage(operation, path, Optional.of(e)), e))));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return left(new FailedOperation(
+                    Collections.singletonList(new Problem(getFailedMessage(operation, path, Optional.of(e)), e))));
+        }
+    }
+
+    private static HdfsDirectoryListing toListing(DirectoryListing directoryListing) {
+        var listing = new HdfsDirectoryListing();
+        if (directoryListing == null) return listing;
+        var fileStatuses = new HdfsFileStatuses.FileStatuses();
+        fileStatuses.setFileStatus(Arrays.stream(directoryListing.getPartialListing())
+                .map(NativeHdfsServiceImpl::toFileStatus)
+                .toList());
+        var statuses = new HdfsFileStatuses();
+        statuses.setFileStatuses(fileStatuses);
+        var page = new HdfsDirectoryListing.DirectoryListing();
+        page.setPartialListing(statuses);
+        page.setRemainingEntries((long) directoryListing.getRemainingEntries());
+        listing.setDirectoryListing(page);
+        return listing;
+    }
+
+    private static HdfsFileStatuses.FileStatus toFileStatus(HdfsFileStatus hdfsFileStatus) {
+        var status = new HdfsFileStatuses.FileStatus();
+        status.setPathSuffix(hdfsFileStatus.getLocalName());
+        status.setType(hdfsFileStatus.isDirectory() ? "DIRECTORY" : hdfsFileStatus.isSymlink() ? "SYMLINK" : "FILE");
+        status.setChildrenNum((long) hdfsFileStatus.getChildrenNum());
+        return status;
+    }
+
+    private static Configuration buildConfiguration(HdfsNativeConfig nativeConfig) {
+        Configuration conf = new Configuration();
+        if (nativeConfig.configResources() != null)
+            nativeConfig.configResources().forEach(resource -> conf.addResource(new Path(resource)));
+        if (nativeConfig.properties() != null) nativeConfig.properties().forEach(conf::set);
+        if (nativeConfig.uri() != null) conf.set(FileSystem.FS_DEFAULT_NAME_KEY, nativeConfig.uri());
+        return conf;
+    }
+
+    private static UserGroupInformation login(Configuration conf, KerberosConfig kerberosConfig) throws IOException {
+        if (!KERBEROS.equalsIgnoreCase(conf.get("hadoop.security.authentication")))
+            return UserGroupInformation.getCurrentUser();
+        UserGroupInformation.setConfiguration(conf);
+        return UserGroupInformation.loginUserFromKeytabAndReturnUGI(
+                kerberosConfig.principal(), kerberosConfig.keytabLocation());
+    }
+
+    private String getFailedMessage(String operation, String path, Optional<Throwable> ex) {
+        if (ex.isPresent()) {
+            return String.format(
+                    "Failed to %s the folder '%s'. Please try again and if the issue persists contact the platform team. Details: %s",
+                    operation, path, ex.get().getMessage());
+        }
+        return String.format(
+                "Failed to %s the folder '%s'. Please try again and if the issue persists contact the platform team",
+                operation, path);
+    }
+}
@@ -4,14 +4,16 @@ import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
 
 import io.vavr.control.Either;
+import io.vavr.control.Option;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPGroup;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPIdentity;
-import java.util.AbstractMap;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPUser;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -26,24 +28,35 @@ public class PrincipalMappingServiceLdap implements PrincipalMappingService {
         this.ldapService = ldapService;
     }
 
+    /***
+     * Users and groups are looked up in batches, so that the number of LDAP round-trips doesn't grow
+     * with the number of subjects, and with a single call, so that the users and the groups can be searched
+     * at the same time
+     */
     @Override
     public Map<String, Either<FailedOperation, CDPIdentity>> map(Set<String> subjects) {
-        return subjects.stream()
-                .map(s -> {
-                    if (isWitboostUser(s)) {
-                        var eitherMail = getMailFromWitboostIdentity(s);
-                        return eitherMail.fold(
-                                l -> new AbstractMap.SimpleEntry<String, Either<FailedOperation, CDPIdentity>>(
-                                        s, left(l)),
-                                mail -> new AbstractMap.SimpleEntry<>(s, mapUser(mail)));
-                    } else if (isWitboostGroup(s)) {
-                        String group = getGroup(s);
-                        return new AbstractMap.SimpleEntry<>(s, mapGroup(group));
-                    } else {
-                        return new AbstractMap.SimpleEntry<>(s, mapUnkownIdentity(s));
-                    }
-                })
-                .collect(Collectors.toMap(AbstractMap.SimpleEntry::getKey, AbstractMap.SimpleEntry::getValue));
+        Map<String, Either<FailedOperation, CDPIdentity>> results = new HashMap<>();
+        Map<String, String> mailBySubject = new HashMap<>();
+        Map<String, String> groupBySubject = new HashMap<>();
+        subjects.forEach(s -> {
+            if (isWitboostUser(s)) {
+                var eitherMail = getMailFromWitboostIdentity(s);
+                if (eitherMail.isLeft()) results.put(s, left(eitherMail.getLeft()));
+                else mailBySubject.put(s, eitherMail.get());
+            } else if (isWitboostGroup(s)) {
+                groupBySubject.put(s, getGroup(s));
+            } else {
+                results.put(s, mapUnkownIdentity(s));
+            }
+        });
+        if (mailBySubject.isEmpty() && groupBySubject.isEmpty()) return results;
+        var usersAndGroups =
+                ldapService.findUsersAndGroups(Set.copyOf(mailBySubject.values()), Set.copyOf(groupBySubject.values()));
+        var users = usersAndGroups._1();
+        var groups = usersAndGroups._2();
+        mailBySubject.forEach((s, mail) -> results.put(s, mapUser(mail, users.get(mail))));
+        groupBySubject.forEach((s, group) -> results.put(s, mapGroup(group, groups.get(group))));
+        return results;
     }
 
     private Either<FailedOperation, String> getMailFromWitboostIdentity(String witboostIdentity) {
@@ -59,16 +72,18 @@ public class PrincipalMappingServiceLdap implements PrincipalMappingService {
         }
     }
 
-    private Either<FailedOperation, CDPIdentity> mapGroup(String group) {
-        return ldapService
-                .findGroupByName(group)
+    private Either<FailedOperation, CDPIdentity> mapGroup(
+            String group, Either<FailedOperation, Option<CDPGroup>> eitherGroup) {
+        return Option.of(eitherGroup)
+                .getOrElse(() -> right(Option.none()))
                 .flatMap(g -> g.toEither(new FailedOperation(Collections.singletonList(
                         new Problem(String.format("The group %s was not found on LDAP", group))))));
     }
 
-    private Either<FailedOperation, CDPIdentity> mapUser(String mail) {
-        return ldapService
-                .findUserByMail(mail)
+    private Either<FailedOperation, CDPIdentity> mapUser(
+            String mail, Either<FailedOperation, Option<CDPUser>> eitherUser) {
+        return Option.of(eitherUser)
+                .getOrElse(() -> right(Option.none()))
                 .flatMap(u -> u.toEither(new FailedOperation(Collections.singletonList(
                         new Problem(String.format("The user %s was not found on LDAP", mail))))));
     }
@@ -0,0 +1,177 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.RangerRetryConfig;
+import java.time.Clock;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import org.apache.ranger.RangerServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/***
+ * Retries the calls to Ranger failing with transient errors, like the ones returned when the Ranger database is locked
+ * by a concurrent update of the same entity. Errors are classified by status code and message, retries are spaced by an
+ * exponential backoff with jitter and bounded by the maximum attempts and by the time budget of the operation.
+ * Not found errors and errors without a response are never retried, as the latter could come from an applied write.
+ * For the same reason the creations, which fail if retried after being applied, are retried only on the lock errors
+ * matched by message, which Ranger returns before committing, and never on the status codes alone, as a 502 or a 504
+ * from a proxy doesn't tell whether the entity was created.
+ * Retries are published as the {@code ranger.client.retries} metric and the outcome of each call as the
+ * {@code ranger.client.calls} metric, both tagged with the operation
+ */
+@Component
+public class RangerRetryPolicy {
+
+    /***
+     * A call to the Ranger client
+     */
+    @FunctionalInterface
+    public interface RangerCall<T> {
+        T call() throws RangerServiceException;
+    }
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_RECOVERED = "recovered";
+    static final String OUTCOME_FAILED = "failed";
+    static final String OUTCOME_EXHAUSTED = "exhausted";
+
+    static final Set<String> NON_IDEMPOTENT_OPERATIONS = Set.of("createSecurityZone", "createPolicy", "createRole");
+
+    private final Logger logger = LoggerFactory.getLogger(RangerRetryPolicy.class);
+
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final double multiplier;
+    private final double jitter;
+    private final Integer budget;
+    private final Map<String, Integer> budgets;
+    private final Set<Integer> retryableStatusCodes;
+    private final List<String> retryableMessages;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Sleeper sleeper;
+    private final DoubleSupplier random;
+
+    @Autowired
+    public RangerRetryPolicy(RangerRetryConfig rangerRetryConfig, MeterRegistry meterRegistry) {
+        this(rangerRetryConfig, meterRegistry, Clock.systemUTC(), Thread::sleep, () -> ThreadLocalRandom.current()
+                .nextDouble());
+    }
+
+    RangerRetryPolicy(
+            RangerRetryConfig config,
+            MeterRegistry meterRegistry,
+            Clock clock,
+            Sleeper sleeper,
+            DoubleSupplier random) {
+        this.maxAttempts = config.maxAttempts() != null && config.maxAttempts() > 0 ? config.maxAttempts() : 1;
+        this.initialBackoff = config.initialBackoff() != null ? config.initialBackoff() : 200L;
+        this.maxBackoff = config.maxBackoff() != null ? config.maxBackoff() : 5000L;
+        this.multiplier = config.multiplier() != null ? config.multiplier() : 2.0;
+        this.jitter = config.jitter() != null ? Math.min(1.0, Math.max(0.0, config.jitter())) : 0.5;
+        this.budget = config.budget();
+        this.budgets = config.budgets() != null ? Map.copyOf(config.budgets()) : Map.of();
+        this.retryableStatusCodes =
+                config.retryableStatusCodes() != null ? Set.copyOf(config.retryableStatusCodes()) : Set.of();
+        this.retryableMessages = config.retryableMessages() != null
+                ? config.retryableMessages().stream()
+                        .map(m -> m.toLowerCase(Locale.ROOT))
+                        .toList()
+                : List.of();
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.random = random;
+    }
+
+    /***
+     * Executes the call, retrying it while it fails with a retryable error and the attempts and the budget allow it
+     * @param operation name of the {@code RangerClient} method, used to pick the budget and to tag the metrics
+     * @param call the call to execute
+     * @return the result of the first successful attempt
+     * @throws RangerServiceException the error of the last attempt
+     */
+    public <T> T execute(String operation, RangerCall<T> call) throws RangerServiceException {
+        long start = clock.millis();
+        Integer operationBudget = budgets.getOrDefault(operation, budget);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = call.call();
+                countCall(operation, attempt == 1 ? OUTCOME_SUCCESS : OUTCOME_RECOVERED);
+                return result;
+            } catch (RangerServiceException e) {
+                if (!isRetryable(operation, e)) {
+                    countCall(operation, OUTCOME_FAILED);
+                    throw e;
+                }
+                long backoff = backoff(attempt);
+                if (attempt >= maxAttempts
+                        || (operationBudget != null && clock.millis() - start + backoff > operationBudget)) {
+                    logger.warn("Ranger call {} failed after {} attempts, giving up", operation, attempt);
+                    countCall(operation, OUTCOME_EXHAUSTED);
+                    throw e;
+                }
+                logger.warn(
+                        "Ranger call {} failed with a retryable error (attempt {} of {}), retrying in {} ms. Details: {}",
+                        operation,
+                        attempt,
+                        maxAttempts,
+                        backoff,
+                        e.getMessage());
+                meterRegistry
+                        .counter("ranger.client.retries", "operation", operation)
+                        .increment();
+                try {
+                    sleeper.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    countCall(operation, OUTCOME_FAILED);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /***
+     * @param operation name of the {@code RangerClient} method that failed
+     * @param e the error returned by Ranger
+     * @return whether the error is transient and the call can be retried
+     */
+    boolean isRetryable(String operation, RangerServiceException e) {
+        if (e.getStatus() == null) return false;
+        int statusCode = e.getStatus().getStatusCode();
+        if (statusCode == 404) return false;
+        if (retryableStatusCodes.contains(statusCode) && !NON_IDEMPOTENT_OPERATIONS.contains(operation)) return true;
+        String message = e.getMessage() != null ? e.getMessage().toLowerCase(Locale.ROOT) : "";
+        return retryableMessages.stream().anyMatch(message::contains);
+    }
+
+    /***
+     * @param attempt number of the failed attempt, starting from 1
+     * @return the time in milliseconds to wait before the next attempt
+     */
+    long backoff(int attempt) {
+        double exponential = initialBackoff * Math.pow(multiplier, attempt - 1);
+        double capped = Math.min(exponential, maxBackoff);
+        return Math.round(capped * (1 - jitter * random.getAsDouble()));
+    }
+
+    private void countCall(String operation, String outcome) {
+        meterRegistry
+                .counter("ranger.client.calls", "operation", operation, "outcome", outcome)
+                .increment();
+    }
+}
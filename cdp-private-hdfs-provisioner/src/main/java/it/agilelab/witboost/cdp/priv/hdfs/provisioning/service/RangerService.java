@@ -2,6 +2,7 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
 
 import io.vavr.control.Either;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import java.util.List;
 import java.util.Optional;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerRole;
@@ -42,6 +43,14 @@ public interface RangerService {
     Either<FailedOperation, Optional<RangerPolicy>> findPolicyByName(
             String serviceName, String policyName, Optional<String> zoneName);
 
+    /***
+     * Find all the policies of a service in a security zone with a single request
+     * @param serviceName service name
+     * @param zoneName security zone name
+     * @return the policies found, possibly none, or the error encountered
+     */
+    Either<FailedOperation, List<RangerPolicy>> findPoliciesInZone(String serviceName, String zoneName);
+
     /***
      * Create a new policy with the supplied data
      * @param policy policy to create
@@ -8,6 +8,7 @@ import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.apache.ranger.RangerClient;
@@ -24,15 +25,18 @@ public class RangerServiceImpl implements RangerService {
     private final Logger logger = LoggerFactory.getLogger(RangerServiceImpl.class);
 
     private final RangerClient rangerClient;
+    private final RangerRetryPolicy retryPolicy;
 
-    public RangerServiceImpl(RangerClient rangerClient) {
+    public RangerServiceImpl(RangerClient rangerClient, RangerRetryPolicy retryPolicy) {
         this.rangerClient = rangerClient;
+        this.retryPolicy = retryPolicy;
     }
 
     @Override
     public Either<FailedOperation, Optional<RangerSecurityZone>> findSecurityZoneByName(String zoneName) {
         try {
-            return right(Optional.of(rangerClient.getSecurityZone(zoneName)));
+            return right(
+                    Optional.of(retryPolicy.execute("getSecurityZone", () -> rangerClient.getSecurityZone(zoneName))));
         } catch (RangerServiceException e) {
             int statusCode = e.getStatus() != null ? e.getStatus().getStatusCode() : 0;
             if (statusCode == 400 || statusCode == 404) return right(Optional.empty());
@@ -47,7 +51,7 @@ public class RangerServiceImpl implements RangerService {
     @Override
     public Either<FailedOperation, RangerSecurityZone> createSecurityZone(RangerSecurityZone zone) {
         try {
-            return right(rangerClient.createSecurityZone(zone));
+            return right(retryPolicy.execute("createSecurityZone", () -> rangerClient.createSecurityZone(zone)));
         } catch (RangerServiceException e) {
             String errorMessage = String.format(
                     "An error occurred while creating the security zone '%s' on Ranger. Please try again and if the error persists contact the platform team. Details: %s",
@@ -60,7 +64,8 @@ public class RangerServiceImpl implements RangerService {
     @Override
     public Either<FailedOperation, RangerSecurityZone> updateSecurityZone(RangerSecurityZone zone) {
         try {
-            return right(rangerClient.updateSecurityZone(zone.getId(), zone));
+            return right(retryPolicy.execute(
+                    "updateSecurityZone", () -> rangerClient.updateSecurityZone(zone.getId(), zone)));
         } catch (RangerServiceException e) {
             String errorMessage = String.format(
                     "An error occurred while updating the security zone '%s' on Ranger. Please try again and if the error persists contact the platform team. Details: %s",
@@ -76,7 +81,8 @@ public class RangerServiceImpl implements RangerService {
         try {
             Map<String, String> filter = new HashMap<>(Map.of("serviceName", serviceName, "policyName", policyName));
             zoneName.ifPresent(z -> filter.put("zoneName", z));
-            return right(rangerClient.findPolicies(filter).stream().findFirst());
+            return right(retryPolicy.execute("findPolicies", () -> rangerClient.findPolicies(filter)).stream()
+                    .findFirst());
         } catch (RangerServiceException e) {
             String errorMessage = String.format(
                     "An error occurred while searching for policy '%s' on Ranger. Please try again and if the error persists contact the platform team. Details: %s",
@@ -86,10 +92,25 @@ public class RangerServiceImpl implements RangerService {
         }
     }
 
+    @Override
+    public Either<FailedOperation, List<RangerPolicy>> findPoliciesInZone(String serviceName, String zoneName) {
+        try {
+            return right(retryPolicy.execute(
+                    "findPolicies",
+                    () -> rangerClient.findPolicies(Map.of("serviceName", serviceName, "zoneName", zoneName))));
+        } catch (RangerServiceException e) {
+            String errorMessage = String.format(
+                    "An error occurred while searching for the policies of security zone '%s' on Ranger. Please try again and if the error persists contact the platform team. Details: %s",
+                    zoneName, e.getMessage());
+            logger.error(errorMessage, e);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage, e))));
+        }
+    }
+
     @Override
     public Either<FailedOperation, RangerPolicy> createPolicy(RangerPolicy policy) {
         try {
-            return right(rangerClient.createPolicy(policy));
+            return right(retryPolicy.execute("createPolicy", () -> rangerClient.createPolicy(policy)));
         } catch (RangerServiceException e) {
             String errorMessage = String.format(
                     "An error occurred while creating the policy '%s' on Ranger. Please try again and if the error persists contact the platform team. Details: %s",
@@ -102,7 +123,7 @@ public class RangerServiceImpl implements RangerService {
     @Override
     public Either<FailedOperation, RangerPolicy> updatePolicy(RangerPolicy policy) {
         try {
-            return right(rangerClient.updatePolicy(policy.getId(), policy));
+            return right(retryPolicy.execute("updatePolicy", () -> rangerClient.updatePolicy(policy.getId(), policy)));
         } catch (RangerServiceException e) {
             String errorMessage = String.format(
                     "An error occurred while updating the policy '%s' on Ranger. Please try again and if the error persists contact the platform team. Details: %s",
@@ -115,7 +136,10 @@ public class RangerServiceImpl implements RangerService {
     @Override
     public Either<FailedOperation, Void> deletePolicy(RangerPolicy policy) {
         try {
-            rangerClient.deletePolicy(policy.getId());
+            retryPolicy.execute("deletePolicy", () -> {
+                rangerClient.deletePolicy(policy.getId());
+                return null;
+            });
             return right(null);
         } catch (RangerServiceException e) {
             String errorMessage = String.format(
@@ -129,8 +153,13 @@ public class RangerServiceImpl implements RangerService {
     @Override
     public Either<FailedOperation, Optional<RangerRole>> findRoleByName(String roleName) {
         try {
-            return right(rangerClient.findRoles(Collections.singletonMap("roleName", roleName)).stream()
-                    .findFirst());
+            return right(
+                    retryPolicy
+                            .execute(
+                                    "findRoles",
+                                    () -> rangerClient.findRoles(Collections.singletonMap("roleName", roleName)))
+                            .stream()
+                            .findFirst());
         } catch (RangerServiceException e) {
             String errorMessage = String.format(
                     "An error occurred while searching for role '%s' on Ranger. Please try again and if the error persists contact the platform team. Details: %s",
@@ -143,7 +172,7 @@ public class RangerServiceImpl implements RangerService {
     @Override
     public Either<FailedOperation, RangerRole> createRole(RangerRole role) {
         try {
-            return right(rangerClient.createRole("", role));
+            return right(retryPolicy.execute("createRole", () -> rangerClient.createRole("", role)));
         } catch (RangerServiceException e) {
             String errorMessage = String.format(
                     "An error occurred while creating the role '%s' on Ranger. Please try again and if the error persists contact the platform team. Details: %s",
@@ -156,7 +185,7 @@ public class RangerServiceImpl implements RangerService {
     @Override
     public Either<FailedOperation, RangerRole> updateRole(RangerRole role) {
         try {
-            return right(rangerClient.updateRole(role.getId(), role));
+            return right(retryPolicy.execute("updateRole", () -> rangerClient.updateRole(role.getId(), role)));
         } catch (RangerServiceException e) {
             String errorMessage = String.format(
                     "An error occurred while updating the role '%s' on Ranger. Please try again and if the error persists contact the platform team. Details: %s",
@@ -169,7 +198,10 @@ public class RangerServiceImpl implements RangerService {
     @Override
     public Either<FailedOperation, Void> deleteRole(RangerRole role) {
         try {
-            rangerClient.deleteRole(role.getId());
+            retryPolicy.execute("deleteRole", () -> {
+                rangerClient.deleteRole(role.getId());
+                return null;
+            });
             return right(null);
         } catch (RangerServiceException e) {
             String errorMessage = String.format(
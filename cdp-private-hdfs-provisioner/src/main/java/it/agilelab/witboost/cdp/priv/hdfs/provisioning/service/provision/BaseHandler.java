@@ -12,11 +12,18 @@ import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.RangerConfig;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.ComponentInfo;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.PrincipalMappingService;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.RangerService;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerDiffUtils;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerNaming;
 import java.util.List;
+import java.util.Optional;
 import org.apache.ranger.plugin.model.RangerRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public abstract class BaseHandler {
 
+    private final Logger logger = LoggerFactory.getLogger(BaseHandler.class);
+
     protected final RangerService rangerService;
     protected final PrincipalMappingService principalMappingService;
     protected final RangerConfig rangerConfig;
@@ -32,6 +39,16 @@ public abstract class BaseHandler {
         return prefixPath.endsWith("/") ? prefixPath : prefixPath.concat("/");
     }
 
+    /***
+     * Derives the names of the Ranger entities of a component. It's meant to be called once by the entry point of a
+     * handler, which passes the names down to the operations of the request
+     * @param componentId id of the storage area component
+     * @return the names of the Ranger entities of the component, or a failure if the id is not in the expected shape
+     */
+    protected Either<FailedOperation, RangerNaming> rangerNaming(String componentId) {
+        return extractIdentifiers(componentId).map(RangerNaming::of);
+    }
+
     protected Either<FailedOperation, ComponentInfo> extractIdentifiers(String componentId) {
         var components = componentId.split(":");
         if (components.length != 7) {
@@ -42,21 +59,39 @@ public abstract class BaseHandler {
         return right(new ComponentInfo(components[3], components[4], components[5], components[6]));
     }
 
-    protected Either<FailedOperation, String> buildUserRolePrefix(String componentId) {
-        var eitherIdentifiers = extractIdentifiers(componentId);
-        return eitherIdentifiers.map(identifiers -> String.format(
-                "%s_%s_%s_%s",
-                identifiers.domain(),
-                identifiers.dataProductId(),
-                identifiers.dataProductMajorVersion(),
-                identifiers.componentId()));
+    protected Either<FailedOperation, RangerRole> upsertRole(
+            String roleName, List<String> users, List<String> groups, String deployUser) {
+        return rangerService.findRoleByName(roleName).flatMap(r -> upsertRole(r, roleName, users, groups, deployUser));
     }
 
+    /***
+     * Creates the role, or updates the existing one if its members differ
+     * @param existingRole the role read from Ranger by the same request, empty if it doesn't exist
+     */
     protected Either<FailedOperation, RangerRole> upsertRole(
-            String roleName, List<String> users, List<String> groups, String deployUser) {
-        return rangerService.findRoleByName(roleName).flatMap(r -> Option.ofOptional(r)
+            Optional<RangerRole> existingRole,
+            String roleName,
+            List<String> users,
+            List<String> groups,
+            String deployUser) {
+        return Option.ofOptional(existingRole)
                 .fold(
                         () -> rangerService.createRole(rangerRole(roleName, users, groups, deployUser)),
-                        rr -> rangerService.updateRole(rangerRole(rr, users, groups))));
+                        rr -> updateRoleIfChanged(rr, users, groups));
+    }
+
+    /***
+     * Updates the members of a role found on Ranger, skipping the update if the role already has them
+     */
+    protected Either<FailedOperation, RangerRole> updateRoleIfChanged(
+            RangerRole existingRole, List<String> users, List<String> groups) {
+        var existingUsers = existingRole.getUsers();
+        var existingGroups = existingRole.getGroups();
+        var desiredRole = rangerRole(existingRole, users, groups);
+        if (RangerDiffUtils.sameMembers(existingUsers, existingGroups, desiredRole)) {
+            logger.debug("Role '{}' is up to date, skipping the update", desiredRole.getName());
+            return right(desiredRole);
+        }
+        return rangerService.updateRole(desiredRole);
     }
 }
@@ -2,8 +2,6 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision;
 
 import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
-import static it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerRoleUtils.generateUserRoleName;
-import static it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerRoleUtils.rangerRole;
 
 import io.vavr.control.Either;
 import io.vavr.control.Option;
@@ -15,7 +13,6 @@ import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.*;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.parser.Parser;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.PrincipalMappingService;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.RangerService;
-import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerRoleUtils;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.apache.ranger.plugin.model.RangerRole;
@@ -40,7 +37,7 @@ public class OutputPortHandler extends BaseHandler {
                         .dataProduct()
                         .getComponentToProvision(storageComponentId)
                         .toEither(unknownPath(storageComponentId))
-                        .flatMap(s -> Parser.parseComponent(s, StorageSpecific.class)
+                        .flatMap(s -> Parser.parseComponentMemoized(s, StorageSpecific.class)
                                 .flatMap(ss -> {
                                     if (ss.getSpecific() != null)
                                         return ss.getSpecific().getPath();
@@ -58,17 +55,14 @@ public class OutputPortHandler extends BaseHandler {
         if (provisionRequest.component() instanceof OutputPort<T> op) {
             if (op.getDependsOn() != null && !op.getDependsOn().isEmpty()) {
                 String storageComponentId = op.getDependsOn().get(0);
-                return buildUserRolePrefix(storageComponentId).flatMap(uRP -> {
-                    String userRoleName = generateUserRoleName(uRP);
-                    return rangerService
-                            .findRoleByName(userRoleName)
-                            .flatMap(optR -> Option.ofOptional(optR)
-                                    .fold(
-                                            () -> right(null),
-                                            userRole -> rangerService.updateRole(rangerRole(
-                                                    userRole, Collections.emptyList(), Collections.emptyList()))))
-                            .map(v -> null);
-                });
+                return rangerNaming(storageComponentId).flatMap(naming -> rangerService
+                        .findRoleByName(naming.userRoleName())
+                        .flatMap(optR -> Option.ofOptional(optR)
+                                .fold(
+                                        () -> right(null),
+                                        userRole -> updateRoleIfChanged(
+                                                userRole, Collections.emptyList(), Collections.emptyList())))
+                        .map(v -> null));
             } else {
                 return left(missingDependentStorageArea());
             }
@@ -117,9 +111,8 @@ public class OutputPortHandler extends BaseHandler {
         OutputPort<T> outputPort = (OutputPort<T>) provisionRequest.component();
         String storageComponentId = outputPort.getDependsOn().get(0);
 
-        Either<FailedOperation, RangerRole> userRangerRoleRes = buildUserRolePrefix(storageComponentId)
-                .map(RangerRoleUtils::generateUserRoleName)
-                .flatMap(userRoleName -> upsertRole(userRoleName, users, groups, rangerConfig.ownerTechnicalUser()));
+        Either<FailedOperation, RangerRole> userRangerRoleRes = rangerNaming(storageComponentId)
+                .flatMap(naming -> upsertRole(naming.userRoleName(), users, groups, rangerConfig.ownerTechnicalUser()));
 
         if (userRangerRoleRes.isLeft()) {
             problems.addAll(userRangerRoleRes.getLeft().problems());
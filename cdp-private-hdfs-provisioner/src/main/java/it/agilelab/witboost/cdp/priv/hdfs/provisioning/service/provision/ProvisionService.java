@@ -1,9 +1,11 @@
 package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision;
 
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.BatchProvisioningRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningStatus;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.UpdateAclRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ValidationResult;
+import java.util.function.Consumer;
 
 /***
  * Provision services
@@ -26,6 +28,14 @@ public interface ProvisionService {
      */
     ProvisioningStatus provision(ProvisioningRequest provisioningRequest);
 
+    /**
+     * Provision the storage area components present in the batch request, all belonging to the same data product
+     *
+     * @param batchProvisioningRequest the request
+     * @return the outcome of the provision, with the folder of each component in the private info
+     */
+    ProvisioningStatus provisionBatch(BatchProvisioningRequest batchProvisioningRequest);
+
     /**
      * Unprovision the component present in the request
      *
@@ -34,6 +44,15 @@ public interface ProvisionService {
      */
     ProvisioningStatus unprovision(ProvisioningRequest provisioningRequest);
 
+    /**
+     * Unprovision the component present in the request, reporting the progress of the long-running steps
+     *
+     * @param provisioningRequest the request
+     * @param progress receives a description of the progress of the unprovision
+     * @return the outcome of the unprovision
+     */
+    ProvisioningStatus unprovision(ProvisioningRequest provisioningRequest, Consumer<String> progress);
+
     /**
      * Updates the Access Control List for the component present in the request
      *
@@ -9,7 +9,9 @@ import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.*;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.*;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.validation.ValidationService;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -78,15 +80,46 @@ public class ProvisionServiceImpl implements ProvisionService {
         }
     }
 
+    @Override
+    public ProvisioningStatus provisionBatch(BatchProvisioningRequest batchProvisioningRequest) {
+        var eitherValidation = validationService.validate(batchProvisioningRequest);
+        if (eitherValidation.isLeft()) throw new SpecificProvisionerValidationException(eitherValidation.getLeft());
+
+        var provisionRequests = eitherValidation.get();
+        var problems = provisionRequests.stream()
+                .map(ProvisionRequest::component)
+                .filter(c -> !STORAGE_KIND.equals(c.getKind()))
+                .map(c -> new Problem(String.format(
+                        "The component %s of kind '%s' can't be provisioned in batch, only storage areas are supported",
+                        c.getId(), c.getKind())))
+                .toList();
+        if (!problems.isEmpty()) throw new SpecificProvisionerValidationException(new FailedOperation(problems));
+
+        var eitherCreatedFolderPaths = storageAreaHandler.createBatch(provisionRequests);
+        if (eitherCreatedFolderPaths.isLeft())
+            throw new SpecificProvisionerValidationException(eitherCreatedFolderPaths.getLeft());
+        Map<String, Map<String, String>> privateInfo = new LinkedHashMap<>();
+        eitherCreatedFolderPaths
+                .get()
+                .forEach((componentId, path) -> privateInfo.put(componentId, Map.of("path", path)));
+        return new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "")
+                .info(new Info(JsonNodeFactory.instance.objectNode(), privateInfo));
+    }
+
     @Override
     public ProvisioningStatus unprovision(ProvisioningRequest provisioningRequest) {
+        return unprovision(provisioningRequest, progress -> {});
+    }
+
+    @Override
+    public ProvisioningStatus unprovision(ProvisioningRequest provisioningRequest, Consumer<String> progress) {
         var eitherValidation = validationService.validate(provisioningRequest);
         if (eitherValidation.isLeft()) throw new SpecificProvisionerValidationException(eitherValidation.getLeft());
 
         var provisionRequest = eitherValidation.get();
         switch (provisionRequest.component().getKind()) {
             case STORAGE_KIND: {
-                var eitherDestroy = storageAreaHandler.destroy(provisionRequest);
+                var eitherDestroy = storageAreaHandler.destroy(provisionRequest, progress);
                 if (eitherDestroy.isLeft()) throw new SpecificProvisionerValidationException(eitherDestroy.getLeft());
                 return new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "");
             }
@@ -0,0 +1,89 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.SpecificProvisionerValidationException;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.TaskStore;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.AsyncConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningStatus;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/***
+ * Runs provision and unprovision requests in background, keeping their status available for polling
+ */
+@Service
+public class ProvisionTaskService {
+
+    private final ProvisionService provisionService;
+    private final Executor taskExecutor;
+    private final TaskStore<ProvisioningStatus> tasks;
+
+    public ProvisionTaskService(
+            ProvisionService provisionService,
+            @Qualifier("provisionerTaskExecutor") Executor taskExecutor,
+            AsyncConfig asyncConfig) {
+        this.provisionService = provisionService;
+        this.taskExecutor = taskExecutor;
+        this.tasks = new TaskStore<>(Duration.ofMillis(asyncConfig.taskTtl()), asyncConfig.maxTasks());
+    }
+
+    /***
+     * Starts the provision of the component present in the request
+     * @param provisioningRequest the request
+     * @return the token to be used to poll the status of the provision
+     */
+    public String provision(ProvisioningRequest provisioningRequest) {
+        return submit(() -> provisionService.provision(provisioningRequest));
+    }
+
+    /***
+     * Starts the unprovision of the component present in the request. While the unprovision is running, its status
+     * reports the progress of the removal of the data
+     * @param provisioningRequest the request
+     * @return the token to be used to poll the status of the unprovision
+     */
+    public String unprovision(ProvisioningRequest provisioningRequest) {
+        return tasks.submitWithProgress(
+                taskExecutor,
+                new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, ""),
+                progress -> provisionService.unprovision(
+                        provisioningRequest,
+                        message -> progress.accept(
+                                new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, message))),
+                this::failed);
+    }
+
+    /***
+     * @param token the token returned when the request was submitted
+     * @return the status of the request, empty if the token is unknown or expired
+     */
+    public Optional<ProvisioningStatus> getStatus(String token) {
+        return tasks.get(token);
+    }
+
+    private String submit(Supplier<ProvisioningStatus> task) {
+        return tasks.submit(
+                taskExecutor, new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, ""), task, this::failed);
+    }
+
+    private ProvisioningStatus failed(Throwable t) {
+        if (t instanceof SpecificProvisionerValidationException e) {
+            return new ProvisioningStatus(
+                    ProvisioningStatus.StatusEnum.FAILED,
+                    e.getFailedOperation().problems().stream()
+                            .map(Problem::description)
+                            .collect(Collectors.joining("\n")));
+        }
+        return new ProvisioningStatus(
+                ProvisioningStatus.StatusEnum.FAILED,
+                String.format(
+                        "An unexpected error occurred while processing the request. Please try again later. If the issue still persists, contact the platform team for assistance! Details: %s",
+                        t.getMessage()));
+    }
+}
@@ -2,43 +2,68 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision;
 
 import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
-import static it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerPolicyUtils.policyName;
 import static it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerPolicyUtils.rangerPolicy;
-import static it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerRoleUtils.*;
 import static it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerSecurityZoneUtils.securityZone;
-import static it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerSecurityZoneUtils.zoneName;
 
 import io.vavr.Tuple2;
-import io.vavr.Tuple3;
-import io.vavr.Tuple6;
 import io.vavr.control.Either;
 import io.vavr.control.Option;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.ConcurrentBranches;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.DependencyGraph;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.KeyedLock;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.RangerConfig;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.*;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.HdfsDeletionEngine;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.HdfsService;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.PrincipalMappingService;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.RangerService;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerDiffUtils;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerNaming;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerRole;
+import org.apache.ranger.plugin.model.RangerSecurityZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 @Service
 public class StorageAreaHandler extends BaseHandler {
     private final HdfsService hdfsService;
+    private final HdfsDeletionEngine deletionEngine;
+    private final Executor branchExecutor;
+    private final Executor rangerExecutor;
+    private final KeyedLock zoneLocks = new KeyedLock();
     private final Logger logger = LoggerFactory.getLogger(StorageAreaHandler.class);
 
     public StorageAreaHandler(
             PrincipalMappingService principalMappingService,
             RangerService rangerService,
             HdfsService hdfsService,
-            RangerConfig rangerConfig) {
+            HdfsDeletionEngine deletionEngine,
+            RangerConfig rangerConfig,
+            @Qualifier("provisioningBranchExecutor") Executor branchExecutor,
+            @Qualifier("rangerCallExecutor") Executor rangerExecutor) {
         super(rangerService, rangerConfig, principalMappingService);
         this.hdfsService = hdfsService;
+        this.deletionEngine = deletionEngine;
+        this.branchExecutor = branchExecutor;
+        this.rangerExecutor = rangerExecutor;
     }
 
+    /***
+     * Creates the Ranger entities and the HDFS folder of a storage area. The folder doesn't depend on the Ranger
+     * entities, so they are created concurrently: if one of the two fails, the other one is cancelled. The Ranger
+     * branch stops only if it's still waiting for the lock of the security zone, as the calls to Ranger ignore
+     * interrupts: once started, the Ranger entities are written completely and the next provisioning reconciles them
+     * @param provisionRequest the storage area to provision
+     * @return the created folder, or the problems encountered
+     */
     public <T extends Specific> Either<FailedOperation, String> create(ProvisionRequest<T> provisionRequest) {
         var eitherOwners = mapOwners(provisionRequest);
         if (eitherOwners.isLeft()) return left(eitherOwners.getLeft());
@@ -49,47 +74,107 @@ public class StorageAreaHandler extends BaseHandler {
         if (eitherStorageSpecific.isLeft()) return left(eitherStorageSpecific.getLeft());
         StorageSpecific ss = eitherStorageSpecific.get();
 
-        return ss.getPath().flatMap(path -> {
-            var rangerRes = upsertRangerEntities(provisionRequest, ss.getRootFolder(), path, ownerUsers, ownerGroups);
-            if (rangerRes.isLeft()) return left(rangerRes.getLeft());
+        var eitherNaming = rangerNaming(provisionRequest.component().getId());
+        if (eitherNaming.isLeft()) return left(eitherNaming.getLeft());
+        RangerNaming naming = eitherNaming.get();
 
-            return hdfsService.createFolder(path);
-        });
+        return ss.getPath().flatMap(path -> ConcurrentBranches.both(
+                        branchExecutor,
+                        () -> upsertRangerEntities(naming, ss.getRootFolder(), path, ownerUsers, ownerGroups),
+                        () -> hdfsService.createFolder(path))
+                .map(Tuple2::_2));
+    }
+
+    /***
+     * Provisions several storage areas of the same data product with a consolidated set of Ranger calls: the security
+     * zone and the owner role are written once with the folders of all the storage areas, and the existing policies
+     * of the security zone are read with a single request. As in {@link #create}, the folders are created
+     * concurrently with the Ranger entities
+     * @param provisionRequests the storage areas to provision, all belonging to the same data product
+     * @return the created folder of each storage area by component id, or the error encountered
+     */
+    public Either<FailedOperation, Map<String, String>> createBatch(
+            List<ProvisionRequest<? extends Specific>> provisionRequests) {
+        if (provisionRequests.isEmpty()) return right(Collections.emptyMap());
+
+        var eitherOwners = mapOwners(provisionRequests.get(0));
+        if (eitherOwners.isLeft()) return left(eitherOwners.getLeft());
+        var ownerUsers = eitherOwners.get()._1();
+        var ownerGroups = eitherOwners.get()._2();
+
+        List<BatchItem> items = new ArrayList<>();
+        for (var provisionRequest : provisionRequests) {
+            var eitherItem = getStorageSpecific(provisionRequest).flatMap(ss -> ss.getPath()
+                    .flatMap(path -> rangerNaming(provisionRequest.component().getId())
+                            .map(naming -> new BatchItem(
+                                    provisionRequest.component().getId(), naming, ss.getRootFolder(), path))));
+            if (eitherItem.isLeft()) return left(eitherItem.getLeft());
+            items.add(eitherItem.get());
+        }
+
+        var zoneNames =
+                items.stream().map(i -> i.naming().zoneName()).distinct().toList();
+        if (zoneNames.size() > 1) {
+            String errorMessage = String.format(
+                    "The storage areas of a batch must belong to the same data product, found security zones %s",
+                    zoneNames);
+            logger.error(errorMessage);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+        }
+
+        String deployUser = rangerConfig.ownerTechnicalUser();
+        return ConcurrentBranches.both(
+                        branchExecutor,
+                        // see upsertRangerEntities for the lock on the zone name
+                        () -> zoneLocks.withLock(
+                                zoneNames.get(0),
+                                () -> upsertRangerEntities(items, ownerUsers, ownerGroups, deployUser)),
+                        () -> createFolders(items))
+                .map(Tuple2::_2);
+    }
+
+    private Either<FailedOperation, Map<String, String>> createFolders(List<BatchItem> items) {
+        Map<String, String> createdFolders = new LinkedHashMap<>();
+        for (BatchItem item : items) {
+            var eitherFolder = hdfsService.createFolder(item.path());
+            if (eitherFolder.isLeft()) return left(eitherFolder.getLeft());
+            createdFolders.put(item.componentId(), eitherFolder.get());
+        }
+        return right(createdFolders);
     }
 
     public <T extends Specific> Either<FailedOperation, Void> destroy(ProvisionRequest<T> provisionRequest) {
-        var rangerRes = deleteRangerEntities(provisionRequest.component().getId());
+        return destroy(provisionRequest, progress -> {});
+    }
+
+    /***
+     * Deletes the Ranger entities of a storage area and, if removeData is set, its HDFS folder
+     * @param provisionRequest the storage area to unprovision
+     * @param progress receives a description of the progress of the removal of the folder
+     * @return nothing, or the problems encountered
+     */
+    public <T extends Specific> Either<FailedOperation, Void> destroy(
+            ProvisionRequest<T> provisionRequest, Consumer<String> progress) {
+        var rangerRes = rangerNaming(provisionRequest.component().getId()).flatMap(this::deleteRangerEntities);
         if (rangerRes.isLeft()) return left(rangerRes.getLeft());
 
         if (Boolean.TRUE.equals(provisionRequest.removeData())) {
             var eitherStorageSpecific = getStorageSpecific(provisionRequest);
             if (eitherStorageSpecific.isLeft()) return left(eitherStorageSpecific.getLeft());
-            return eitherStorageSpecific.get().getPath().flatMap(path -> hdfsService
-                    .deleteFolder(path)
+            return eitherStorageSpecific.get().getPath().flatMap(path -> deletionEngine
+                    .removeFolder(path, progress)
                     .map(f -> null));
         }
         return right(null);
     }
 
-    private Either<FailedOperation, Void> deleteRangerEntities(String componentId) {
-        var eitherPrefixes = buildPolicyPrefix(componentId)
-                .flatMap(policyPrefix -> buildZoneName(componentId).flatMap(zoneName -> buildUserRolePrefix(componentId)
-                        .map(userRolePrefix -> new Tuple3<>(policyPrefix, zoneName, userRolePrefix))));
-        if (eitherPrefixes.isLeft()) {
-            return left(eitherPrefixes.getLeft());
-        }
-
-        String policyPrefix = eitherPrefixes.get()._1();
-        String zoneName = zoneName(eitherPrefixes.get()._2());
-        String userRolePrefix = eitherPrefixes.get()._3();
-        String userRoleName = generateUserRoleName(userRolePrefix);
-
+    private Either<FailedOperation, Void> deleteRangerEntities(RangerNaming naming) {
         var eitherPolicy = rangerService
-                .findPolicyByName(rangerConfig.hdfsServiceName(), policyName(policyPrefix), Optional.of(zoneName))
+                .findPolicyByName(rangerConfig.hdfsServiceName(), naming.policyName(), Optional.of(naming.zoneName()))
                 .flatMap(optP -> Option.ofOptional(optP).fold(() -> right(null), rangerService::deletePolicy));
         if (eitherPolicy.isLeft()) return left(eitherPolicy.getLeft());
 
-        var eitherUserRole = rangerService.findRoleByName(userRoleName).flatMap(optR -> Option.ofOptional(optR)
+        var eitherUserRole = rangerService.findRoleByName(naming.userRoleName()).flatMap(optR -> Option.ofOptional(optR)
                 .fold(() -> right(null), rangerService::deleteRole));
         if (eitherUserRole.isLeft()) return left(eitherUserRole.getLeft());
 
@@ -109,83 +194,213 @@ public class StorageAreaHandler extends BaseHandler {
         }
     }
 
-    /*
-        This method is synchronized to avoid an error on Ranger
-        when deploying multiple storage areas for the same data product
-        (Ranger doesn't manage updating the same entity at the same time: first update works,
-        second update return an error because the DB is locked)
-        TODO: we can be more granular, it should be enough to synchronize (find & (create/update)) entities
-    */
-    private synchronized <T extends Specific> Either<FailedOperation, Void> upsertRangerEntities(
-            ProvisionRequest<T> provisionRequest,
-            String rootFolder,
-            String path,
-            List<String> ownerUsers,
-            List<String> ownerGroups) {
+    private Either<FailedOperation, Void> upsertRangerEntities(
+            RangerNaming naming, String rootFolder, String path, List<String> ownerUsers, List<String> ownerGroups) {
         String deployUser = rangerConfig.ownerTechnicalUser();
 
-        var eitherPrefixes = buildZoneName(provisionRequest.component().getId())
-                .flatMap(zoneName -> buildOwnerRolePrefix(
-                                provisionRequest.component().getId())
-                        .flatMap(ownerRolePrefix -> buildUserRolePrefix(
-                                        provisionRequest.component().getId())
-                                .flatMap(userRolePrefix -> buildPolicyPrefix(
-                                                provisionRequest.component().getId())
-                                        .map(policyPrefix -> new Tuple6<>(
-                                                zoneName,
-                                                ownerRolePrefix,
-                                                userRolePrefix,
-                                                policyPrefix,
-                                                buildRangerPolicyFolderPath(path),
-                                                rootFolder)))));
-        if (eitherPrefixes.isLeft()) {
-            return left(eitherPrefixes.getLeft());
+        /*
+            Ranger doesn't manage updating the same entity at the same time (first update works,
+            second update returns an error because the DB is locked), so the storage areas of the same
+            data product are deployed one at a time. The security zone and the owner role are shared by the data product,
+            so the zone name is used as lock key: deployments of different data products run in parallel.
+            The lock also keeps the read-modify-write of the zone folders from losing concurrent updates. It only
+            covers this instance: the lock errors caused by other instances are retried by RangerRetryPolicy
+        */
+        return zoneLocks.withLock(
+                naming.zoneName(),
+                () -> upsertRangerEntities(
+                        naming, RangerNaming.policyFolderPath(path), rootFolder, ownerUsers, ownerGroups, deployUser));
+    }
+
+    /***
+     * The lookups of the security zone, of the roles and of the policy don't depend on each other and run
+     * concurrently. The writes run one after the other, in the same order as the lookups' entities are referred to,
+     * as Ranger fails on concurrent updates of the entities of a security zone
+     */
+    private Either<FailedOperation, Void> upsertRangerEntities(
+            RangerNaming naming,
+            String rangerFolderPath,
+            String securityZoneFolderPath,
+            List<String> ownerUsers,
+            List<String> ownerGroups,
+            String deployUser) {
+        String zoneName = naming.zoneName();
+        var graph = new DependencyGraph(rangerExecutor);
+
+        var existingZone = graph.add("securityZoneLookup", () -> rangerService.findSecurityZoneByName(zoneName));
+        var existingOwnerRole =
+                graph.add("ownerRoleLookup", () -> rangerService.findRoleByName(naming.ownerRoleName()));
+        var existingUserRole = graph.add("userRoleLookup", () -> rangerService.findRoleByName(naming.userRoleName()));
+        var existingPolicy = graph.add(
+                "policyLookup",
+                () -> rangerService.findPolicyByName(
+                        rangerConfig.hdfsServiceName(), naming.policyName(), Optional.of(zoneName)));
+
+        var zone = graph.add(
+                "securityZone",
+                () -> upsertSecurityZone(existingZone.get(), zoneName, List.of(securityZoneFolderPath), deployUser),
+                existingZone);
+        var ownerRole = graph.add(
+                "ownerRole",
+                () -> upsertRole(existingOwnerRole.get(), naming.ownerRoleName(), ownerUsers, ownerGroups, deployUser),
+                zone,
+                existingOwnerRole);
+        var userRole = graph.add(
+                "userRole",
+                () -> upsertRole(
+                        existingUserRole.get(),
+                        naming.userRoleName(),
+                        Collections.emptyList(),
+                        Collections.emptyList(),
+                        deployUser),
+                ownerRole,
+                existingUserRole);
+        graph.add(
+                "policy", () -> upsertPolicy(naming, existingPolicy.get(), rangerFolderPath), userRole, existingPolicy);
+
+        return runGraph(zoneName, graph);
+    }
+
+    private Either<FailedOperation, Void> upsertRangerEntities(
+            List<BatchItem> items, List<String> ownerUsers, List<String> ownerGroups, String deployUser) {
+        RangerNaming dataProductNaming = items.get(0).naming();
+        String zoneName = dataProductNaming.zoneName();
+        var graph = new DependencyGraph(rangerExecutor);
+
+        var existingZone = graph.add("securityZoneLookup", () -> rangerService.findSecurityZoneByName(zoneName));
+        var existingOwnerRole =
+                graph.add("ownerRoleLookup", () -> rangerService.findRoleByName(dataProductNaming.ownerRoleName()));
+        var existingPolicies = graph.add("policyLookup", () -> rangerService
+                .findPoliciesInZone(rangerConfig.hdfsServiceName(), zoneName)
+                .map(policies -> {
+                    Map<String, RangerPolicy> byName = new HashMap<>();
+                    policies.forEach(p -> byName.put(p.getName(), p));
+                    return byName;
+                }));
+        Map<String, DependencyGraph.Node<Optional<RangerRole>>> existingUserRoles = new HashMap<>();
+        for (BatchItem item : items) {
+            existingUserRoles.put(
+                    item.componentId(),
+                    graph.add(
+                            "userRoleLookup " + item.componentId(),
+                            () -> rangerService.findRoleByName(item.naming().userRoleName())));
+        }
+
+        var securityZoneFolderPaths =
+                items.stream().map(BatchItem::rootFolder).distinct().toList();
+        var zone = graph.add(
+                "securityZone",
+                () -> upsertSecurityZone(existingZone.get(), zoneName, securityZoneFolderPaths, deployUser),
+                existingZone);
+        DependencyGraph.Node<?> previousWrite = graph.add(
+                "ownerRole",
+                () -> upsertRole(
+                        existingOwnerRole.get(),
+                        dataProductNaming.ownerRoleName(),
+                        ownerUsers,
+                        ownerGroups,
+                        deployUser),
+                zone,
+                existingOwnerRole);
+        for (BatchItem item : items) {
+            var existingUserRole = existingUserRoles.get(item.componentId());
+            var userRole = graph.add(
+                    "userRole " + item.componentId(),
+                    () -> upsertRole(
+                            existingUserRole.get(),
+                            item.naming().userRoleName(),
+                            Collections.emptyList(),
+                            Collections.emptyList(),
+                            deployUser),
+                    previousWrite,
+                    existingUserRole);
+            previousWrite = graph.add(
+                    "policy " + item.componentId(),
+                    () -> upsertPolicy(
+                            item.naming(),
+                            Optional.ofNullable(
+                                    existingPolicies.get().get(item.naming().policyName())),
+                            RangerNaming.policyFolderPath(item.path())),
+                    userRole,
+                    existingPolicies);
         }
 
-        String zoneName = zoneName(eitherPrefixes.get()._1());
-        String ownerRolePrefix = eitherPrefixes.get()._2();
-        String userRolePrefix = eitherPrefixes.get()._3();
-        String policyPrefix = eitherPrefixes.get()._4();
-        String rangerFolderPath = eitherPrefixes.get()._5();
-        String securityZoneFolderPath = eitherPrefixes.get()._6();
+        return runGraph(zoneName, graph);
+    }
+
+    private Either<FailedOperation, Void> runGraph(String zoneName, DependencyGraph graph) {
+        var res = graph.run();
+        logger.debug("Ranger upsert of security zone '{}', time in ms of each step: {}", zoneName, graph.timings());
+        return res;
+    }
 
-        var rangerZoneRes = rangerService.findSecurityZoneByName(zoneName).flatMap(s -> Option.ofOptional(s)
+    /***
+     * Creates the security zone with the supplied folders, or adds them to the existing one
+     * @param existingZone the security zone read from Ranger by the same request, empty if it doesn't exist
+     */
+    private Either<FailedOperation, RangerSecurityZone> upsertSecurityZone(
+            Optional<RangerSecurityZone> existingZone,
+            String zoneName,
+            List<String> securityZoneFolderPaths,
+            String deployUser) {
+        String serviceName = rangerConfig.hdfsServiceName();
+        return Option.ofOptional(existingZone)
                 .fold(
-                        () -> rangerService.createSecurityZone(securityZone(
-                                zoneName, rangerConfig.hdfsServiceName(), deployUser, securityZoneFolderPath)),
-                        sz -> rangerService.updateSecurityZone(
-                                securityZone(sz, rangerConfig.hdfsServiceName(), securityZoneFolderPath))));
-        if (rangerZoneRes.isLeft()) return left(rangerZoneRes.getLeft());
-
-        String ownerRoleName = generateOwnerRoleName(ownerRolePrefix);
-        var ownerRangerRoleRes = upsertRole(ownerRoleName, ownerUsers, ownerGroups, deployUser);
-        if (ownerRangerRoleRes.isLeft()) return left(ownerRangerRoleRes.getLeft());
-
-        String userRoleName = generateUserRoleName(userRolePrefix);
-        var userRangerRoleRes = upsertRole(userRoleName, Collections.emptyList(), Collections.emptyList(), deployUser);
-        if (userRangerRoleRes.isLeft()) return left(userRangerRoleRes.getLeft());
-
-        var componentRangerPolicy = rangerService
-                .findPolicyByName(rangerConfig.hdfsServiceName(), policyName(policyPrefix), Optional.of(zoneName))
-                .flatMap(p -> Option.ofOptional(p)
-                        .fold(
-                                () -> rangerService.createPolicy(rangerPolicy(
-                                        policyPrefix,
-                                        zoneName,
-                                        rangerFolderPath,
-                                        ownerRoleName,
-                                        userRoleName,
-                                        rangerConfig.hdfsServiceName())),
-                                pp -> rangerService.updatePolicy(rangerPolicy(
+                        () -> {
+                            var zone = securityZone(zoneName, serviceName, deployUser, securityZoneFolderPaths.get(0));
+                            for (String path : securityZoneFolderPaths.subList(1, securityZoneFolderPaths.size()))
+                                zone = securityZone(zone, serviceName, path);
+                            return rangerService.createSecurityZone(zone);
+                        },
+                        sz -> updateSecurityZoneIfChanged(sz, securityZoneFolderPaths));
+    }
+
+    private Either<FailedOperation, RangerSecurityZone> updateSecurityZoneIfChanged(
+            RangerSecurityZone existingZone, List<String> securityZoneFolderPaths) {
+        var existingServices = existingZone.getServices();
+        var desiredZone = existingZone;
+        for (String path : securityZoneFolderPaths)
+            desiredZone = securityZone(desiredZone, rangerConfig.hdfsServiceName(), path);
+        if (RangerDiffUtils.sameServices(existingServices, desiredZone)) {
+            logger.debug("Security zone '{}' is up to date, skipping the update", desiredZone.getName());
+            return right(desiredZone);
+        }
+        return rangerService.updateSecurityZone(desiredZone);
+    }
+
+    /***
+     * Creates the policy of the component, or updates the existing one if it differs from the expected policy
+     */
+    private Either<FailedOperation, RangerPolicy> upsertPolicy(
+            RangerNaming naming, Optional<RangerPolicy> existingPolicy, String rangerFolderPath) {
+        return Option.ofOptional(existingPolicy)
+                .fold(
+                        () -> rangerService.createPolicy(rangerPolicy(
+                                naming.policyPrefix(),
+                                naming.zoneName(),
+                                rangerFolderPath,
+                                naming.ownerRoleName(),
+                                naming.userRoleName(),
+                                rangerConfig.hdfsServiceName())),
+                        pp -> updatePolicyIfChanged(
+                                pp,
+                                rangerPolicy(
                                         pp,
-                                        policyPrefix,
-                                        zoneName,
+                                        naming.policyPrefix(),
+                                        naming.zoneName(),
                                         rangerFolderPath,
-                                        ownerRoleName,
-                                        userRoleName,
-                                        rangerConfig.hdfsServiceName()))));
-        if (componentRangerPolicy.isLeft()) return left(componentRangerPolicy.getLeft());
-        return right(null);
+                                        naming.ownerRoleName(),
+                                        naming.userRoleName(),
+                                        rangerConfig.hdfsServiceName())));
+    }
+
+    private Either<FailedOperation, RangerPolicy> updatePolicyIfChanged(
+            RangerPolicy existingPolicy, RangerPolicy desiredPolicy) {
+        if (RangerDiffUtils.samePolicy(existingPolicy, desiredPolicy)) {
+            logger.debug("Policy '{}' is up to date, skipping the update", desiredPolicy.getName());
+            return right(existingPolicy);
+        }
+        return rangerService.updatePolicy(desiredPolicy);
     }
 
     private <T extends Specific> Either<FailedOperation, Tuple2<List<String>, List<String>>> mapOwners(
@@ -223,29 +438,5 @@ public class StorageAreaHandler extends BaseHandler {
         return new FailedOperation(Collections.singletonList(new Problem(errorMessage)));
     }
 
-    private String buildRangerPolicyFolderPath(String path) {
-        return String.format("%s*", path);
-    }
-
-    private Either<FailedOperation, String> buildPolicyPrefix(String componentId) {
-        var eitherIdentifiers = extractIdentifiers(componentId);
-        return eitherIdentifiers.map(identifiers -> String.format(
-                "%s_%s_%s_%s",
-                identifiers.domain(),
-                identifiers.dataProductId(),
-                identifiers.dataProductMajorVersion(),
-                identifiers.componentId()));
-    }
-
-    private Either<FailedOperation, String> buildOwnerRolePrefix(String componentId) {
-        var eitherIdentifiers = extractIdentifiers(componentId);
-        return eitherIdentifiers.map(identifiers -> String.format(
-                "%s_%s_%s", identifiers.domain(), identifiers.dataProductId(), identifiers.dataProductMajorVersion()));
-    }
-
-    private Either<FailedOperation, String> buildZoneName(String componentId) {
-        var eitherIdentifiers = extractIdentifiers(componentId);
-        return eitherIdentifiers.map(identifiers -> String.format(
-                "%s_%s_%s", identifiers.domain(), identifiers.dataProductId(), identifiers.dataProductMajorVersion()));
-    }
+    private record BatchItem(String componentId, RangerNaming naming, String rootFolder, String path) {}
 }
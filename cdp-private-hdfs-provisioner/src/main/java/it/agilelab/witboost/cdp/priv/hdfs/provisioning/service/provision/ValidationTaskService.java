@@ -0,0 +1,102 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.TaskStore;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.AsyncConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ValidationError;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ValidationInfo;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ValidationResult;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ValidationStatus;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/***
+ * Runs validation requests in background, keeping their status available for polling.
+ * Validation only depends on the descriptor, so results are cached by the hash of the descriptor
+ * and the validation of an already seen descriptor completes immediately
+ */
+@Service
+public class ValidationTaskService {
+
+    private final ProvisionService provisionService;
+    private final Executor taskExecutor;
+    private final TaskStore<ValidationStatus> tasks;
+    private final Cache<String, ValidationResult> results;
+
+    public ValidationTaskService(
+            ProvisionService provisionService,
+            @Qualifier("provisionerTaskExecutor") Executor taskExecutor,
+            AsyncConfig asyncConfig) {
+        this.provisionService = provisionService;
+        this.taskExecutor = taskExecutor;
+        this.tasks = new TaskStore<>(Duration.ofMillis(asyncConfig.taskTtl()), asyncConfig.maxTasks());
+        this.results = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(asyncConfig.validationCacheTtl()))
+                .maximumSize(asyncConfig.validationCacheMaxSize())
+                .build();
+    }
+
+    /***
+     * Starts the validation of the request
+     * @param provisioningRequest request to validate
+     * @return the token to be used to poll the status of the validation
+     */
+    public String validate(ProvisioningRequest provisioningRequest) {
+        String key = descriptorHash(provisioningRequest);
+        var cached = results.getIfPresent(key);
+        if (cached != null) return tasks.completed(completed(cached));
+        return tasks.submit(
+                taskExecutor,
+                new ValidationStatus(ValidationStatus.StatusEnum.RUNNING),
+                () -> {
+                    var result = provisionService.validate(provisioningRequest);
+                    results.put(key, result);
+                    return completed(result);
+                },
+                this::failed);
+    }
+
+    /***
+     * @param token the token returned when the request was submitted
+     * @return the status of the validation, empty if the token is unknown or expired
+     */
+    public Optional<ValidationStatus> getStatus(String token) {
+        return tasks.get(token);
+    }
+
+    private ValidationStatus completed(ValidationResult result) {
+        return new ValidationStatus(ValidationStatus.StatusEnum.COMPLETED).info(new ValidationInfo(result));
+    }
+
+    private ValidationStatus failed(Throwable t) {
+        var result = new ValidationResult(false)
+                .error(new ValidationError(Collections.singletonList(String.format(
+                        "An unexpected error occurred while validating the request. Please try again later. If the issue still persists, contact the platform team for assistance! Details: %s",
+                        t.getMessage()))));
+        return new ValidationStatus(ValidationStatus.StatusEnum.FAILED).info(new ValidationInfo(result));
+    }
+
+    private String descriptorHash(ProvisioningRequest provisioningRequest) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(
+                    String.valueOf(provisioningRequest.getDescriptorKind()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(provisioningRequest.getDescriptor()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required to be supported by every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerRole;
+import org.apache.ranger.plugin.model.RangerSecurityZone;
+
+/***
+ * Compares the entities built by the Ranger utils with the ones found on Ranger, so that updates that wouldn't
+ * change anything can be skipped. Every update is a transactional write on Ranger and, for policies and zones,
+ * bumps the version downloaded by the HDFS plugins. A missing collection is considered equal to an empty one.
+ * The existing entities must be read from Ranger by the same request, under the lock of the security zone: comparing
+ * against an older copy would skip the updates that repair the changes made on Ranger in the meantime
+ */
+public class RangerDiffUtils {
+
+    /***
+     * @param existingServices the services of the security zone found on Ranger, before merging the new path
+     * @param desired the security zone to be written
+     * @return true if the security zone to be written has the same services and resources of the existing one
+     */
+    public static boolean sameServices(
+            Map<String, RangerSecurityZone.RangerSecurityZoneService> existingServices, RangerSecurityZone desired) {
+        var desiredServices = desired.getServices();
+        if (isEmpty(existingServices) || isEmpty(desiredServices)) {
+            return isEmpty(existingServices) && isEmpty(desiredServices);
+        }
+        if (!existingServices.keySet().equals(desiredServices.keySet())) return false;
+        return desiredServices.entrySet().stream().allMatch(e -> {
+            var existingService = existingServices.get(e.getKey());
+            return existingService != null
+                    && e.getValue() != null
+                    && Objects.equals(
+                            existingService.getResources(), e.getValue().getResources());
+        });
+    }
+
+    /***
+     * Members are compared regardless of their order
+     * @param existingUsers the user members of the role found on Ranger, before applying the new ones
+     * @param existingGroups the group members of the role found on Ranger, before applying the new ones
+     * @param desired the role to be written
+     * @return true if the role to be written has the same members of the existing one
+     */
+    public static boolean sameMembers(
+            Collection<RangerRole.RoleMember> existingUsers,
+            Collection<RangerRole.RoleMember> existingGroups,
+            RangerRole desired) {
+        return sameElements(existingUsers, desired.getUsers()) && sameElements(existingGroups, desired.getGroups());
+    }
+
+    /***
+     * @param existing the policy found on Ranger
+     * @param desired the policy to be written
+     * @return true if writing the desired policy wouldn't change any of the attributes of the existing one
+     */
+    public static boolean samePolicy(RangerPolicy existing, RangerPolicy desired) {
+        return Objects.equals(existing.getService(), desired.getService())
+                && Objects.equals(existing.getName(), desired.getName())
+                && Objects.equals(existing.getDescription(), desired.getDescription())
+                && Objects.equals(existing.getIsEnabled(), desired.getIsEnabled())
+                && Objects.equals(existing.getIsAuditEnabled(), desired.getIsAuditEnabled())
+                && Objects.equals(existing.getServiceType(), desired.getServiceType())
+                && Objects.equals(existing.getZoneName(), desired.getZoneName())
+                && Objects.equals(existing.getPolicyType(), desired.getPolicyType())
+                && Objects.equals(existing.getPolicyPriority(), desired.getPolicyPriority())
+                && Objects.equals(existing.getIsDenyAllElse(), desired.getIsDenyAllElse())
+                && sameMap(existing.getResources(), desired.getResources())
+                && sameList(existing.getPolicyItems(), desired.getPolicyItems())
+                && sameList(existing.getDenyPolicyItems(), desired.getDenyPolicyItems())
+                && sameList(existing.getAllowExceptions(), desired.getAllowExceptions())
+                && sameList(existing.getDenyExceptions(), desired.getDenyExceptions())
+                && sameList(existing.getDataMaskPolicyItems(), desired.getDataMaskPolicyItems())
+                && sameList(existing.getRowFilterPolicyItems(), desired.getRowFilterPolicyItems())
+                && sameList(existing.getConditions(), desired.getConditions())
+                && sameList(existing.getValiditySchedules(), desired.getValiditySchedules())
+                && sameList(existing.getAdditionalResources(), desired.getAdditionalResources())
+                && sameElements(existing.getPolicyLabels(), desired.getPolicyLabels())
+                && sameMap(existing.getOptions(), desired.getOptions());
+    }
+
+    private static boolean sameList(Collection<?> existing, Collection<?> desired) {
+        if (isEmpty(existing) || isEmpty(desired)) return isEmpty(existing) && isEmpty(desired);
+        return existing.equals(desired);
+    }
+
+    private static boolean sameElements(Collection<?> existing, Collection<?> desired) {
+        if (isEmpty(existing) || isEmpty(desired)) return isEmpty(existing) && isEmpty(desired);
+        return new HashSet<>(existing).equals(new HashSet<>(desired));
+    }
+
+    private static boolean sameMap(Map<?, ?> existing, Map<?, ?> desired) {
+        if (isEmpty(existing) || isEmpty(desired)) return isEmpty(existing) && isEmpty(desired);
+        return existing.equals(desired);
+    }
+
+    private static boolean isEmpty(Collection<?> c) {
+        return c == null || c.isEmpty();
+    }
+
+    private static boolean isEmpty(Map<?, ?> m) {
+        return m == null || m.isEmpty();
+    }
+}
@@ -0,0 +1,35 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils;
+
+/***
+ * Makes names safe to be used as Ranger entity names, replacing every character that is not
+ * an ASCII letter, a digit or an underscore with an underscore
+ */
+public final class RangerNameSanitizer {
+
+    private RangerNameSanitizer() {}
+
+    /***
+     * Equivalent to {@code name.replaceAll("[^A-Za-z0-9_]", "_")} without compiling the regex at each call.
+     * If the name has nothing to replace, the name itself is returned and no allocation is performed
+     * @param name the name to sanitize
+     * @return the sanitized name
+     */
+    public static String sanitize(String name) {
+        int length = name.length();
+        int i = 0;
+        while (i < length && isAllowed(name.charAt(i))) i++;
+        if (i == length) return name;
+        var sanitized = new StringBuilder(length).append(name, 0, i);
+        while (i < length) {
+            // like the regex, a character outside the BMP is replaced by a single underscore
+            int c = name.codePointAt(i);
+            sanitized.append(isAllowed(c) ? (char) c : '_');
+            i += Character.charCount(c);
+        }
+        return sanitized.toString();
+    }
+
+    private static boolean isAllowed(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
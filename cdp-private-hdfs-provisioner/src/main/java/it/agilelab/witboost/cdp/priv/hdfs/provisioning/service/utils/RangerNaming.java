@@ -0,0 +1,41 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.ComponentInfo;
+
+/***
+ * Names of the Ranger entities of a storage area component, derived once from its identifiers
+ * @param componentInfo the identifiers extracted from the component id
+ * @param zoneName name of the security zone of the data product
+ * @param ownerRoleName name of the owner role of the data product
+ * @param userRoleName name of the read-only role of the component
+ * @param policyPrefix prefix of the policy of the component, as expected by {@link RangerPolicyUtils#rangerPolicy}
+ * @param policyName name of the policy of the component
+ */
+public record RangerNaming(
+        ComponentInfo componentInfo,
+        String zoneName,
+        String ownerRoleName,
+        String userRoleName,
+        String policyPrefix,
+        String policyName) {
+
+    public static RangerNaming of(ComponentInfo componentInfo) {
+        String dataProductPrefix = componentInfo.dataProductPrefix();
+        String componentPrefix = componentInfo.componentPrefix();
+        return new RangerNaming(
+                componentInfo,
+                RangerSecurityZoneUtils.zoneName(dataProductPrefix),
+                RangerRoleUtils.generateOwnerRoleName(dataProductPrefix),
+                RangerRoleUtils.generateUserRoleName(componentPrefix),
+                componentPrefix,
+                RangerPolicyUtils.policyName(componentPrefix));
+    }
+
+    /***
+     * @param path the folder of the storage area
+     * @return the resource path of the policy of the component, covering the folder and its content
+     */
+    public static String policyFolderPath(String path) {
+        return path + '*';
+    }
+}
@@ -8,7 +8,7 @@ import org.apache.ranger.plugin.model.RangerPolicy;
 
 public class RangerPolicyUtils {
 
-    private static final String COMPONENT_POLICY_NAME_PATTERN = "%s_access_policy";
+    private static final String COMPONENT_POLICY_NAME_SUFFIX = "_access_policy";
     private static final String HDFS_SERVICE_TYPE = "HDFS";
     private static final List<String> DEFAULT_POLICY_LABELS = List.of("autogenerated");
 
@@ -66,7 +66,7 @@ public class RangerPolicyUtils {
     }
 
     public static String policyName(String prefix) {
-        return clean(String.format(COMPONENT_POLICY_NAME_PATTERN, prefix));
+        return clean(prefix + COMPONENT_POLICY_NAME_SUFFIX);
     }
 
     private static List<RangerPolicy.RangerPolicyItem> ownerPolicyItems(String ownerRole) {
@@ -95,6 +95,6 @@ public class RangerPolicyUtils {
     }
 
     private static String clean(String n) {
-        return n.replaceAll("[^A-Za-z0-9_]", "_");
+        return RangerNameSanitizer.sanitize(n);
     }
 }
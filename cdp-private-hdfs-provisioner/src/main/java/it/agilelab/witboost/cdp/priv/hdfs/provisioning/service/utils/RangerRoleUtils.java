@@ -7,15 +7,15 @@ import org.apache.ranger.plugin.model.RangerRole;
 
 public class RangerRoleUtils {
 
-    private static final String OWNER_ROLE_NAME_PATTERN = "%s_owner";
-    private static final String USER_ROLE_NAME_PATTERN = "%s_read";
+    private static final String OWNER_ROLE_NAME_SUFFIX = "_owner";
+    private static final String USER_ROLE_NAME_SUFFIX = "_read";
 
     public static String generateOwnerRoleName(String rolePrefix) {
-        return clean(String.format(OWNER_ROLE_NAME_PATTERN, rolePrefix));
+        return clean(rolePrefix + OWNER_ROLE_NAME_SUFFIX);
     }
 
     public static String generateUserRoleName(String rolePrefix) {
-        return clean(String.format(USER_ROLE_NAME_PATTERN, rolePrefix));
+        return clean(rolePrefix + USER_ROLE_NAME_SUFFIX);
     }
 
     public static RangerRole rangerRole(String roleName, List<String> users, List<String> groups, String deployUser) {
@@ -48,6 +48,6 @@ public class RangerRoleUtils {
     }
 
     private static String clean(String n) {
-        return n.replaceAll("[^A-Za-z0-9_]", "_");
+        return RangerNameSanitizer.sanitize(n);
     }
 }
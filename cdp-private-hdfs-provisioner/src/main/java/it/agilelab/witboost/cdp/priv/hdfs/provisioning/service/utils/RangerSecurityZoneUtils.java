@@ -51,6 +51,6 @@ public class RangerSecurityZoneUtils {
     }
 
     private static String clean(String n) {
-        return n.replaceAll("[^A-Za-z0-9_]", "_");
+        return RangerNameSanitizer.sanitize(n);
     }
 }
@@ -10,6 +10,7 @@ import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Component;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.DataProduct;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.OutputPort;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Specific;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.StorageSpecific;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.parser.Parser;
 import jakarta.validation.Valid;
 import java.util.Collections;
@@ -45,20 +46,23 @@ public class OutputPortValidation {
                 logger.error(errorMessage);
                 return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
             }
-            logger.info("Parsing OutputPort's dependency {}", dependentComponentId);
-            var dependentComponentAsJson = optionalDependentComponentAsJson.get();
-            var eitherDependentComponent = Parser.parseComponent(dependentComponentAsJson, Specific.class);
-            if (eitherDependentComponent.isLeft()) return left(eitherDependentComponent.getLeft());
-            var dependentComponent = eitherDependentComponent.get();
 
             logger.info("Checking dependency {} to have 'kind' field equal to 'storage'", dependentComponentId);
-            if (!STORAGE_KIND.equalsIgnoreCase(dependentComponent.getKind())) {
+            var dependentComponentKind =
+                    dp.getComponentKindToProvision(dependentComponentId).getOrNull();
+            if (!STORAGE_KIND.equalsIgnoreCase(dependentComponentKind)) {
                 String errorMessage = String.format(
                         "Kind of dependent component %s is not right. Expected: %s, found: %s",
-                        dependentComponent.getId(), STORAGE_KIND, dependentComponent.getKind());
+                        dependentComponentId, STORAGE_KIND, dependentComponentKind);
                 logger.error(errorMessage);
                 return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
             }
+
+            // parsed as the handler does, which reuses the result
+            logger.info("Parsing OutputPort's dependency {}", dependentComponentId);
+            var eitherDependentComponent =
+                    Parser.parseComponentMemoized(optionalDependentComponentAsJson.get(), StorageSpecific.class);
+            if (eitherDependentComponent.isLeft()) return left(eitherDependentComponent.getLeft());
         } else {
             String errorMessage = String.format("The component %s is not of type OutputPort", component.getId());
             logger.error(errorMessage);
@@ -4,7 +4,9 @@ import io.vavr.control.Either;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.ProvisionRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Specific;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.BatchProvisioningRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningRequest;
+import java.util.List;
 
 /** Validation services */
 public interface ValidationService {
@@ -15,4 +17,14 @@ public interface ValidationService {
      * @return a ProvisionRequest object or the error encountered
      */
     Either<FailedOperation, ProvisionRequest<? extends Specific>> validate(ProvisioningRequest provisioningRequest);
+
+    /**
+     * Validate the components of a batch provision request, parsing the descriptor once
+     *
+     * @param batchProvisioningRequest request to be validated
+     * @return a ProvisionRequest object for each component, in the order of the request, or the errors encountered
+     *     on all the components
+     */
+    Either<FailedOperation, List<ProvisionRequest<? extends Specific>>> validate(
+            BatchProvisioningRequest batchProvisioningRequest);
 }
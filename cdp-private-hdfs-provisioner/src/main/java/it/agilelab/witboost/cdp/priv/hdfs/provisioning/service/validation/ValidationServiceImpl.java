@@ -6,15 +6,21 @@ import static io.vavr.control.Either.right;
 import io.vavr.control.Either;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.ParserConfig;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Component;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Descriptor;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.ProvisionRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Specific;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.StorageSpecific;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.BatchProvisioningRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.DescriptorKind;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.parser.Parser;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -31,11 +37,15 @@ public class ValidationServiceImpl implements ValidationService {
 
     private final StorageAreaValidation storageAreaValidation;
     private final OutputPortValidation outputPortValidation;
+    private final ParserConfig parserConfig;
 
     public ValidationServiceImpl(
-            StorageAreaValidation storageAreaValidation, OutputPortValidation outputPortValidation) {
+            StorageAreaValidation storageAreaValidation,
+            OutputPortValidation outputPortValidation,
+            ParserConfig parserConfig) {
         this.storageAreaValidation = storageAreaValidation;
         this.outputPortValidation = outputPortValidation;
+        this.parserConfig = parserConfig;
     }
 
     @Override
@@ -52,13 +62,55 @@ public class ValidationServiceImpl implements ValidationService {
             return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
         }
 
-        logger.info("Parsing Descriptor");
-        var eitherDescriptor = Parser.parseDescriptor(provisioningRequest.getDescriptor());
+        var eitherDescriptor = parseDescriptor(provisioningRequest.getDescriptor(), null);
         if (eitherDescriptor.isLeft()) return left(eitherDescriptor.getLeft());
         var descriptor = eitherDescriptor.get();
 
-        var componentId = descriptor.getComponentIdToProvision();
+        return validateComponent(
+                descriptor, descriptor.getComponentIdToProvision(), provisioningRequest.getRemoveData());
+    }
+
+    @Override
+    public Either<FailedOperation, List<ProvisionRequest<? extends Specific>>> validate(
+            BatchProvisioningRequest batchProvisioningRequest) {
+
+        logger.info("Starting batch Descriptor validation");
+        var componentIds = batchProvisioningRequest.getComponentIds();
+        if (componentIds == null || componentIds.isEmpty()) {
+            String errorMessage = "The batch request doesn't contain any component to provision";
+            logger.error(errorMessage);
+            return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
+        }
+
+        var eitherDescriptor = parseDescriptor(batchProvisioningRequest.getDescriptor(), Set.copyOf(componentIds));
+        if (eitherDescriptor.isLeft()) return left(eitherDescriptor.getLeft());
+        var descriptor = eitherDescriptor.get();
+
+        List<ProvisionRequest<? extends Specific>> provisionRequests = new ArrayList<>();
+        List<Problem> problems = new ArrayList<>();
+        for (String componentId : componentIds) {
+            var eitherProvisionRequest = validateComponent(descriptor, componentId, Boolean.FALSE);
+            if (eitherProvisionRequest.isLeft())
+                problems.addAll(eitherProvisionRequest.getLeft().problems());
+            else provisionRequests.add(eitherProvisionRequest.get());
+        }
+        if (!problems.isEmpty()) return left(new FailedOperation(problems));
+        return right(provisionRequests);
+    }
+
+    /***
+     * @param componentIds the components to provision, or null for the component to provision of the descriptor.
+     * Only needed by the streaming parser, which skips the other components
+     */
+    private Either<FailedOperation, Descriptor> parseDescriptor(String descriptor, Set<String> componentIds) {
+        logger.info("Parsing Descriptor");
+        return Boolean.TRUE.equals(parserConfig.streaming())
+                ? Parser.parseDescriptorStreaming(descriptor, componentIds)
+                : Parser.parseDescriptor(descriptor);
+    }
 
+    private Either<FailedOperation, ProvisionRequest<? extends Specific>> validateComponent(
+            Descriptor descriptor, String componentId, Boolean removeData) {
         logger.info("Checking component to provision {} is in the descriptor", componentId);
         var optionalComponentToProvision = descriptor.getDataProduct().getComponentToProvision(componentId);
 
@@ -84,7 +136,7 @@ public class ValidationServiceImpl implements ValidationService {
                 var storageClass = kindToSpecificClass.get(STORAGE_KIND);
                 logger.info("Parsing Storage Area Component");
 
-                var eitherStorageToProvision = Parser.parseComponent(componentToProvisionAsJson, storageClass);
+                var eitherStorageToProvision = Parser.parseComponentMemoized(componentToProvisionAsJson, storageClass);
                 if (eitherStorageToProvision.isLeft()) return left(eitherStorageToProvision.getLeft());
                 componentToProvision = eitherStorageToProvision.get();
 
@@ -95,7 +147,8 @@ public class ValidationServiceImpl implements ValidationService {
                 var outputPortClass = kindToSpecificClass.get(OUTPUTPORT_KIND);
                 logger.info("Parsing Output Port Component");
 
-                var eitherOutputPortToProvision = Parser.parseComponent(componentToProvisionAsJson, outputPortClass);
+                var eitherOutputPortToProvision =
+                        Parser.parseComponentMemoized(componentToProvisionAsJson, outputPortClass);
                 if (eitherOutputPortToProvision.isLeft()) return left(eitherOutputPortToProvision.getLeft());
                 componentToProvision = eitherOutputPortToProvision.get();
 
@@ -110,7 +163,6 @@ public class ValidationServiceImpl implements ValidationService {
                 logger.error(errorMessage);
                 return left(new FailedOperation(Collections.singletonList(new Problem(errorMessage))));
         }
-        return right(new ProvisionRequest<>(
-                descriptor.getDataProduct(), componentToProvision, provisioningRequest.getRemoveData()));
+        return right(new ProvisionRequest<>(descriptor.getDataProduct(), componentToProvision, removeData));
     }
 }
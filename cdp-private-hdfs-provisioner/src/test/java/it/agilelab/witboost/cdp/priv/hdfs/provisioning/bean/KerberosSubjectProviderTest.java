@@ -0,0 +1,121 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.KerberosConfig;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.security.auth.Subject;
+import javax.security.auth.kerberos.KerberosPrincipal;
+import javax.security.auth.kerberos.KerberosTicket;
+import javax.security.auth.login.LoginException;
+import org.junit.jupiter.api.Test;
+
+public class KerberosSubjectProviderTest {
+
+    private static final long TGT_END_TIME = 3600000;
+
+    private final KerberosConfig kerberosConfig = new KerberosConfig("/my/path/keytab", "user@EXAMPLE.COM", 300000);
+
+    @Test
+    public void testSubjectIsCachedBeforeRenewMargin() throws LoginException {
+        var logins = new AtomicInteger();
+        var clock = new MutableClock();
+        var provider = new KerberosSubjectProvider(kerberosConfig, clock, config -> {
+            logins.incrementAndGet();
+            return subjectWithTgt();
+        });
+
+        var first = provider.getSubject();
+        clock.now = TGT_END_TIME - 300001;
+        var second = provider.getSubject();
+
+        assertSame(first, second);
+        assertEquals(1, logins.get());
+    }
+
+    @Test
+    public void testSubjectIsRenewedWithinRenewMargin() throws LoginException {
+        var logins = new AtomicInteger();
+        var clock = new MutableClock();
+        var provider = new KerberosSubjectProvider(kerberosConfig, clock, config -> {
+            logins.incrementAndGet();
+            return subjectWithTgt();
+        });
+
+        var first = provider.getSubject();
+        clock.now = TGT_END_TIME - 300000;
+        var second = provider.getSubject();
+
+        assertNotSame(first, second);
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void testSubjectWithoutTgtIsNotCached() throws LoginException {
+        var logins = new AtomicInteger();
+        var provider = new KerberosSubjectProvider(kerberosConfig, new MutableClock(), config -> {
+            logins.incrementAndGet();
+            return new Subject();
+        });
+
+        provider.getSubject();
+        provider.getSubject();
+
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void testLoginFailureIsPropagated() {
+        var provider = new KerberosSubjectProvider(kerberosConfig, new MutableClock(), config -> {
+            throw new LoginException("Unable to obtain password from user");
+        });
+
+        var ex = assertThrows(LoginException.class, provider::getSubject);
+
+        assertEquals("Unable to obtain password from user", ex.getMessage());
+    }
+
+    private Subject subjectWithTgt() {
+        var subject = new Subject();
+        subject.getPrivateCredentials()
+                .add(new KerberosTicket(
+                        new byte[] {0},
+                        new KerberosPrincipal("user@EXAMPLE.COM"),
+                        new KerberosPrincipal("krbtgt/EXAMPLE.COM@EXAMPLE.COM"),
+                        new byte[] {0},
+                        1,
+                        null,
+                        new Date(0),
+                        new Date(0),
+                        new Date(TGT_END_TIME),
+                        null,
+                        null));
+        return subject;
+    }
+
+    private static class MutableClock extends Clock {
+        private long now = 0;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(now);
+        }
+    }
+}
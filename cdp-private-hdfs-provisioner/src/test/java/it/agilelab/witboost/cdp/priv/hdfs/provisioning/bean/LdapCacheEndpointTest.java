@@ -0,0 +1,43 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.CachingLdapService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class LdapCacheEndpointTest {
+
+    @Mock
+    private CachingLdapService cachingLdapService;
+
+    @InjectMocks
+    private LdapCacheEndpoint ldapCacheEndpoint;
+
+    @Test
+    public void testStats() {
+        when(cachingLdapService.userStats()).thenReturn(CacheStats.of(3, 1, 0, 0, 0, 2, 0));
+        when(cachingLdapService.groupStats()).thenReturn(CacheStats.empty());
+
+        var actualRes = ldapCacheEndpoint.stats();
+
+        assertEquals(3L, actualRes.get("users").get("hits"));
+        assertEquals(1L, actualRes.get("users").get("misses"));
+        assertEquals(2L, actualRes.get("users").get("evictions"));
+        assertEquals(0L, actualRes.get("groups").get("hits"));
+    }
+
+    @Test
+    public void testFlush() {
+        ldapCacheEndpoint.flush();
+
+        verify(cachingLdapService).invalidateAll();
+    }
+}
@@ -0,0 +1,182 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.common;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vavr.Tuple;
+import io.vavr.control.Either;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentBranchesTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static Either<FailedOperation, String> failure(String description) {
+        return left(new FailedOperation(List.of(new Problem(description))));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("Timed out");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void testBranchesRunConcurrently() {
+        var firstStarted = new CountDownLatch(1);
+        var secondStarted = new CountDownLatch(1);
+
+        // each branch completes only once the other one has started
+        var res = ConcurrentBranches.both(
+                executor,
+                () -> {
+                    firstStarted.countDown();
+                    await(secondStarted);
+                    return right("a");
+                },
+                () -> {
+                    secondStarted.countDown();
+                    await(firstStarted);
+                    return right(1);
+                });
+
+        assertEquals(right(Tuple.of("a", 1)), res);
+    }
+
+    @Test
+    public void testFailureCancelsTheOtherBranchAndWaitsForIt() {
+        var interrupted = new AtomicBoolean(false);
+        var terminated = new AtomicBoolean(false);
+        var slowStarted = new CountDownLatch(1);
+
+        var res = ConcurrentBranches.both(
+                executor,
+                () -> {
+                    await(slowStarted);
+                    return failure("first failed");
+                },
+                () -> {
+                    slowStarted.countDown();
+                    try {
+                        Thread.sleep(60000);
+                        return right("never");
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                        return failure("second interrupted");
+                    } finally {
+                        terminated.set(true);
+                    }
+                });
+
+        assertTrue(res.isLeft());
+        assertEquals(
+                List.of("first failed"),
+                res.getLeft().problems().stream().map(Problem::description).toList());
+        assertTrue(interrupted.get());
+        assertTrue(terminated.get());
+    }
+
+    @Test
+    public void testFailuresOfCompletedBranchesAreAggregated() {
+        // with an executor running the branches in the caller thread both complete before their results are joined
+        var res = ConcurrentBranches.both(Runnable::run, () -> failure("first failed"), () -> failure("second failed"));
+
+        assertTrue(res.isLeft());
+        assertEquals(
+                List.of("first failed", "second failed"),
+                res.getLeft().problems().stream().map(Problem::description).toList());
+    }
+
+    @Test
+    public void testUnexpectedExceptionBecomesAProblem() {
+        var exception = new IllegalStateException("boom");
+
+        var res = ConcurrentBranches.both(
+                Runnable::run,
+                () -> {
+                    throw exception;
+                },
+                () -> right("b"));
+
+        assertTrue(res.isLeft());
+        assertEquals(1, res.getLeft().problems().size());
+        var problem = res.getLeft().problems().get(0);
+        assertEquals("An unexpected error occurred while running the operation: boom", problem.description());
+        assertEquals(exception, problem.cause().orElseThrow());
+    }
+
+    @Test
+    public void testRejectedBranchesRunInTheCallerThread() {
+        var caller = Thread.currentThread();
+        var firstThread = new AtomicReference<Thread>();
+
+        var res = ConcurrentBranches.both(
+                command -> {
+                    throw new RejectedExecutionException();
+                },
+                () -> {
+                    firstThread.set(Thread.currentThread());
+                    return right("a");
+                },
+                () -> right("b"));
+
+        assertEquals(right(Tuple.of("a", "b")), res);
+        assertEquals(caller, firstThread.get());
+    }
+
+    @Test
+    public void testInterruptedCallerCancelsBothBranches() throws InterruptedException {
+        var bothStarted = new CountDownLatch(2);
+        var interruptions = new CountDownLatch(2);
+        var result = new AtomicReference<Either<FailedOperation, ?>>();
+        var callerInterrupted = new AtomicBoolean(false);
+        var caller = new Thread(() -> {
+            result.set(ConcurrentBranches.both(
+                    executor,
+                    () -> sleepUntilInterrupted(bothStarted, interruptions),
+                    () -> sleepUntilInterrupted(bothStarted, interruptions)));
+            callerInterrupted.set(Thread.currentThread().isInterrupted());
+        });
+
+        caller.start();
+        await(bothStarted);
+        caller.interrupt();
+        caller.join(10000);
+
+        assertFalse(caller.isAlive());
+        assertEquals(0, interruptions.getCount());
+        assertTrue(result.get().isLeft());
+        assertTrue(callerInterrupted.get());
+    }
+
+    private static Either<FailedOperation, String> sleepUntilInterrupted(
+            CountDownLatch started, CountDownLatch interruptions) {
+        started.countDown();
+        try {
+            Thread.sleep(60000);
+            return right("never");
+        } catch (InterruptedException e) {
+            interruptions.countDown();
+            return failure("interrupted");
+        }
+    }
+}
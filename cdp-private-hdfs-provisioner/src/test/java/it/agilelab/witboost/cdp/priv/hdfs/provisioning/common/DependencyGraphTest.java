@@ -0,0 +1,202 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.common;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vavr.control.Either;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class DependencyGraphTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static <T> Either<FailedOperation, T> failure(String description) {
+        return left(new FailedOperation(List.of(new Problem(description))));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("Timed out");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void testIndependentOperationsRunConcurrentlyBeforeTheirDependent() {
+        var graph = new DependencyGraph(executor);
+        var allStarted = new CountDownLatch(3);
+
+        // each independent operation completes only once all of them have started
+        var a = graph.add("a", () -> {
+            allStarted.countDown();
+            await(allStarted);
+            return right("a");
+        });
+        var b = graph.add("b", () -> {
+            allStarted.countDown();
+            await(allStarted);
+            return right("b");
+        });
+        var c = graph.add("c", () -> {
+            allStarted.countDown();
+            await(allStarted);
+            return right("c");
+        });
+        var joined = graph.add("joined", () -> right(a.get() + b.get() + c.get()), a, b, c);
+
+        var res = graph.run();
+
+        assertTrue(res.isRight());
+        assertEquals("abc", joined.get());
+        assertEquals(
+                List.of("a", "b", "c", "joined"), List.copyOf(graph.timings().keySet()));
+    }
+
+    @Test
+    public void testFailureSkipsTheDependentOperations() {
+        var graph = new DependencyGraph(Runnable::run);
+        var dependentRun = new AtomicBoolean(false);
+
+        var a = graph.add("a", () -> failure("a failed"));
+        graph.add(
+                "dependent",
+                () -> {
+                    dependentRun.set(true);
+                    return right(null);
+                },
+                a);
+
+        var res = graph.run();
+
+        assertTrue(res.isLeft());
+        assertEquals(
+                List.of("a failed"),
+                res.getLeft().problems().stream().map(Problem::description).toList());
+        assertFalse(dependentRun.get());
+        assertEquals(List.of("a"), List.copyOf(graph.timings().keySet()));
+        assertThrows(IllegalStateException.class, a::get);
+    }
+
+    @Test
+    public void testInterruptionStopsTheWait() {
+        var graph = new DependencyGraph(executor);
+        var release = new CountDownLatch(1);
+        var dependentRun = new AtomicBoolean(false);
+
+        var a = graph.add("a", () -> {
+            await(release);
+            return right(null);
+        });
+        graph.add(
+                "dependent",
+                () -> {
+                    dependentRun.set(true);
+                    return right(null);
+                },
+                a);
+
+        Thread.currentThread().interrupt();
+        var res = graph.run();
+
+        assertTrue(Thread.interrupted());
+        release.countDown();
+        executor.shutdown();
+        assertTrue(res.isLeft());
+        assertEquals(
+                List.of("The operations were interrupted while waiting for their completion"),
+                res.getLeft().problems().stream().map(Problem::description).toList());
+        assertTrue(awaitTermination());
+        assertFalse(dependentRun.get());
+    }
+
+    private boolean awaitTermination() {
+        try {
+            return executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void testFailureSkipsTheOperationsNotStarted() {
+        var graph = new DependencyGraph(Runnable::run);
+        var laterRun = new AtomicBoolean(false);
+
+        graph.add("a", () -> failure("a failed"));
+        graph.add("later", () -> {
+            laterRun.set(true);
+            return right(null);
+        });
+
+        assertTrue(graph.run().isLeft());
+        assertFalse(laterRun.get());
+    }
+
+    @Test
+    public void testProblemsOfTheRunningOperationsAreAggregated() {
+        var graph = new DependencyGraph(executor);
+        var bothStarted = new CountDownLatch(2);
+
+        graph.add("a", () -> {
+            bothStarted.countDown();
+            await(bothStarted);
+            return failure("a failed");
+        });
+        graph.add("b", () -> {
+            bothStarted.countDown();
+            await(bothStarted);
+            return failure("b failed");
+        });
+
+        var res = graph.run();
+
+        assertTrue(res.isLeft());
+        assertEquals(
+                List.of("a failed", "b failed"),
+                res.getLeft().problems().stream().map(Problem::description).toList());
+    }
+
+    @Test
+    public void testUnexpectedExceptionBecomesAProblem() {
+        var graph = new DependencyGraph(Runnable::run);
+        var exception = new IllegalStateException("boom");
+        graph.add("a", () -> {
+            throw exception;
+        });
+
+        var res = graph.run();
+
+        assertTrue(res.isLeft());
+        var problem = res.getLeft().problems().get(0);
+        assertEquals("An unexpected error occurred while running the operation 'a': boom", problem.description());
+        assertEquals(exception, problem.cause().orElseThrow());
+    }
+
+    @Test
+    public void testDependencyMustBelongToTheGraph() {
+        var other = new DependencyGraph(Runnable::run);
+        var foreign = other.add("foreign", () -> right(null));
+        var graph = new DependencyGraph(Runnable::run);
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> graph.add("a", () -> right(null), foreign));
+
+        assertEquals("The dependency 'foreign' of 'a' is not part of the graph", ex.getMessage());
+    }
+}
@@ -0,0 +1,135 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.common;
+
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vavr.control.Either;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class KeyedLockTest {
+
+    private final KeyedLock keyedLock = new KeyedLock();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSameKeyIsSerialized() throws Exception {
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> keyedLock.withLock("zone", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep();
+                return right(running.decrementAndGet());
+            })));
+        }
+        for (Future<?> f : futures) f.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(0, keyedLock.size());
+    }
+
+    @Test
+    public void testDifferentKeysRunConcurrently() throws Exception {
+        var bothInside = new CountDownLatch(2);
+        Future<Boolean> first = executor.submit(() ->
+                keyedLock.withLock("zone1", () -> right(awaitOther(bothInside))).get());
+        Future<Boolean> second = executor.submit(() ->
+                keyedLock.withLock("zone2", () -> right(awaitOther(bothInside))).get());
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        assertEquals(0, keyedLock.size());
+    }
+
+    @Test
+    public void testLockIsReleasedOnException() {
+        assertThrows(
+                IllegalStateException.class,
+                () -> keyedLock.withLock("zone", () -> {
+                    throw new IllegalStateException("error");
+                }));
+
+        assertEquals(0, keyedLock.size());
+        assertEquals("ok", keyedLock.withLock("zone", () -> right("ok")).get());
+    }
+
+    @Test
+    public void testWaitForTheLockIsInterruptible() throws Exception {
+        var holding = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> keyedLock.withLock("zone", () -> {
+            holding.countDown();
+            return right(await(release));
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        var waiterRes = new AtomicReference<Either<FailedOperation, String>>();
+        var waiter = new Thread(() -> waiterRes.set(keyedLock.withLock("zone", () -> right("never"))));
+        waiter.start();
+        for (int i = 0; i < 500 && waiter.getState() != Thread.State.WAITING; i++) Thread.sleep(10);
+
+        waiter.interrupt();
+        waiter.join(5000);
+
+        // the waiter gave up while the lock is still held
+        assertFalse(waiter.isAlive());
+        assertTrue(waiterRes.get().isLeft());
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals(0, keyedLock.size());
+    }
+
+    @Test
+    public void testInterruptedThreadDoesNotRunTheAction() {
+        Thread.currentThread().interrupt();
+
+        var actualRes = keyedLock.withLock("zone", () -> right("ran"));
+
+        assertTrue(Thread.interrupted());
+        assertTrue(actualRes.isLeft());
+        assertEquals(
+                "The operation was interrupted while waiting for the lock of 'zone'",
+                actualRes.getLeft().problems().get(0).description());
+        assertEquals(0, keyedLock.size());
+    }
+
+    private boolean awaitOther(CountDownLatch latch) {
+        latch.countDown();
+        return await(latch);
+    }
+
+    private boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
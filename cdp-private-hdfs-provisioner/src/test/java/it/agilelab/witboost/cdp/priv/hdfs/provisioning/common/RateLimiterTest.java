@@ -0,0 +1,60 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final List<Long> sleeps = new ArrayList<>();
+
+    @Test
+    public void testPermitsAreSpacedByTheInterval() throws InterruptedException {
+        var rateLimiter = new RateLimiter(10, now::get, sleeps::add);
+
+        rateLimiter.acquire();
+        rateLimiter.acquire();
+        rateLimiter.acquire();
+
+        assertEquals(List.of(100_000_000L, 200_000_000L), sleeps);
+    }
+
+    @Test
+    public void testIdleTimeIsNotAccumulated() throws InterruptedException {
+        var rateLimiter = new RateLimiter(10, now::get, sleeps::add);
+
+        rateLimiter.acquire();
+        now.addAndGet(5_000_000_000L);
+        rateLimiter.acquire();
+        rateLimiter.acquire();
+
+        assertEquals(List.of(100_000_000L), sleeps);
+    }
+
+    @Test
+    public void testNonPositiveRateIsUnlimited() throws InterruptedException {
+        var rateLimiter = new RateLimiter(0, now::get, sleeps::add);
+
+        for (int i = 0; i < 100; i++) rateLimiter.acquire();
+
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    public void testInterruptionIsPropagated() {
+        var rateLimiter = new RateLimiter(1, now::get, nanos -> {
+            throw new InterruptedException();
+        });
+
+        assertThrows(InterruptedException.class, () -> {
+            rateLimiter.acquire();
+            rateLimiter.acquire();
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.Test;
+
+public class TaskStoreTest {
+
+    private final TaskStore<String> taskStore = new TaskStore<>(Duration.ofMinutes(1), 100);
+
+    @Test
+    public void testRunningStatusIsStoredUntilCompletion() {
+        List<Runnable> pending = new ArrayList<>();
+
+        String token = taskStore.submit(pending::add, "RUNNING", () -> "COMPLETED", Throwable::getMessage);
+
+        assertEquals(Optional.of("RUNNING"), taskStore.get(token));
+        pending.forEach(Runnable::run);
+        assertEquals(Optional.of("COMPLETED"), taskStore.get(token));
+    }
+
+    @Test
+    public void testProgressReplacesTheRunningStatus() {
+        List<Runnable> pending = new ArrayList<>();
+        List<Optional<String>> seen = new ArrayList<>();
+        String[] token = new String[1];
+
+        token[0] = taskStore.submitWithProgress(
+                pending::add,
+                "RUNNING",
+                progress -> {
+                    progress.accept("HALFWAY");
+                    seen.add(taskStore.get(token[0]));
+                    return "COMPLETED";
+                },
+                Throwable::getMessage);
+
+        assertEquals(Optional.of("RUNNING"), taskStore.get(token[0]));
+        pending.forEach(Runnable::run);
+        assertEquals(List.of(Optional.of("HALFWAY")), seen);
+        assertEquals(Optional.of("COMPLETED"), taskStore.get(token[0]));
+    }
+
+    @Test
+    public void testErrorIsMappedToStatus() {
+        String token = taskStore.submit(
+                Runnable::run,
+                "RUNNING",
+                () -> {
+                    throw new IllegalStateException("error");
+                },
+                Throwable::getMessage);
+
+        assertEquals(Optional.of("error"), taskStore.get(token));
+    }
+
+    @Test
+    public void testErrorOtherThanExceptionIsMappedToStatus() {
+        String token = taskStore.submit(
+                Runnable::run,
+                "RUNNING",
+                () -> {
+                    throw new StackOverflowError("overflow");
+                },
+                Throwable::getMessage);
+
+        assertEquals(Optional.of("overflow"), taskStore.get(token));
+    }
+
+    @Test
+    public void testTokensAreUnique() {
+        String first = taskStore.submit(Runnable::run, "RUNNING", () -> "COMPLETED", Throwable::getMessage);
+        String second = taskStore.submit(Runnable::run, "RUNNING", () -> "COMPLETED", Throwable::getMessage);
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void testCompletedTaskIsStored() {
+        String token = taskStore.completed("COMPLETED");
+
+        assertEquals(Optional.of("COMPLETED"), taskStore.get(token));
+    }
+
+    @Test
+    public void testUnknownToken() {
+        assertTrue(taskStore.get("unknown").isEmpty());
+    }
+
+    @Test
+    public void testRejectedTaskIsNotStored() {
+        var ex = assertThrows(
+                RejectedExecutionException.class,
+                () -> taskStore.submit(
+                        r -> {
+                            throw new RejectedExecutionException();
+                        },
+                        "RUNNING",
+                        () -> "COMPLETED",
+                        Throwable::getMessage));
+
+        assertTrue(ex.getMessage().startsWith("Too many requests are being processed"));
+    }
+}
@@ -6,10 +6,15 @@ import static org.mockito.Mockito.when;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.SpecificProvisionerValidationException;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.AsyncConfig;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.*;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision.ProvisionService;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision.ProvisionTaskService;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision.ValidationTaskService;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -27,6 +32,15 @@ public class SpecificProvisionerControllerTest {
     @Mock
     private ProvisionService provisionService;
 
+    @Mock
+    private ProvisionTaskService provisionTaskService;
+
+    @Mock
+    private ValidationTaskService validationTaskService;
+
+    @Mock
+    private AsyncConfig asyncConfig;
+
     @InjectMocks
     private SpecificProvisionerController specificProvisionerController;
 
@@ -96,6 +110,21 @@ public class SpecificProvisionerControllerTest {
         assertEquals(failedOperation, ex.getFailedOperation());
     }
 
+    @Test
+    void testProvisionBatchOk() throws Exception {
+        var batchProvisioningRequest = new BatchProvisioningRequest("", List.of("id1", "id2"));
+        when(provisionService.provisionBatch(batchProvisioningRequest))
+                .thenReturn(new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, ""));
+
+        ResponseEntity<ProvisioningStatus> actualRes =
+                specificProvisionerController.provisionBatch(batchProvisioningRequest);
+
+        assertEquals(HttpStatusCode.valueOf(200), actualRes.getStatusCode());
+        assertEquals(
+                ProvisioningStatus.StatusEnum.COMPLETED,
+                Objects.requireNonNull(actualRes.getBody()).getStatus());
+    }
+
     @Test
     void testUnprovisionOk() throws Exception {
         ProvisioningRequest provisioningRequest =
@@ -161,4 +190,89 @@ public class SpecificProvisionerControllerTest {
                 () -> specificProvisionerController.updateacl(updateAclRequest));
         assertEquals(failedOperation, ex.getFailedOperation());
     }
+
+    @Test
+    void testProvisionAsync() throws Exception {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        when(asyncConfig.provisionEnabled()).thenReturn(true);
+        when(provisionTaskService.provision(provisioningRequest)).thenReturn("my-token");
+
+        ResponseEntity<ProvisioningStatus> actualRes = specificProvisionerController.provision(provisioningRequest);
+
+        assertEquals(HttpStatusCode.valueOf(202), actualRes.getStatusCode());
+        assertEquals(new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "my-token"), actualRes.getBody());
+    }
+
+    @Test
+    void testUnprovisionAsync() throws Exception {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        when(asyncConfig.provisionEnabled()).thenReturn(true);
+        when(provisionTaskService.unprovision(provisioningRequest)).thenReturn("my-token");
+
+        ResponseEntity<ProvisioningStatus> actualRes = specificProvisionerController.unprovision(provisioningRequest);
+
+        assertEquals(HttpStatusCode.valueOf(202), actualRes.getStatusCode());
+        assertEquals(new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "my-token"), actualRes.getBody());
+    }
+
+    @Test
+    void testGetStatusOk() throws Exception {
+        when(provisionTaskService.getStatus("my-token"))
+                .thenReturn(Optional.of(new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "")));
+
+        ResponseEntity<ProvisioningStatus> actualRes = specificProvisionerController.getStatus("my-token");
+
+        assertEquals(HttpStatusCode.valueOf(200), actualRes.getStatusCode());
+        assertEquals(
+                ProvisioningStatus.StatusEnum.RUNNING,
+                Objects.requireNonNull(actualRes.getBody()).getStatus());
+    }
+
+    @Test
+    void testGetStatusUnknownToken() {
+        when(provisionTaskService.getStatus("my-token")).thenReturn(Optional.empty());
+
+        var ex = assertThrows(
+                SpecificProvisionerValidationException.class,
+                () -> specificProvisionerController.getStatus("my-token"));
+
+        assertEquals(
+                "The token 'my-token' doesn't match any request or it's expired",
+                ex.getFailedOperation().problems().get(0).description());
+    }
+
+    @Test
+    void testAsyncValidate() throws Exception {
+        ProvisioningRequest provisioningRequest =
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+        when(validationTaskService.validate(provisioningRequest)).thenReturn("my-token");
+
+        ResponseEntity<String> actualRes = specificProvisionerController.asyncValidate(provisioningRequest);
+
+        assertEquals(HttpStatusCode.valueOf(202), actualRes.getStatusCode());
+        assertEquals("my-token", actualRes.getBody());
+    }
+
+    @Test
+    void testGetValidationStatusOk() throws Exception {
+        var status = new ValidationStatus(ValidationStatus.StatusEnum.COMPLETED)
+                .info(new ValidationInfo(new ValidationResult(true)));
+        when(validationTaskService.getStatus("my-token")).thenReturn(Optional.of(status));
+
+        ResponseEntity<ValidationStatus> actualRes = specificProvisionerController.getValidationStatus("my-token");
+
+        assertEquals(HttpStatusCode.valueOf(200), actualRes.getStatusCode());
+        assertEquals(status, actualRes.getBody());
+    }
+
+    @Test
+    void testGetValidationStatusUnknownToken() {
+        when(validationTaskService.getStatus("my-token")).thenReturn(Optional.empty());
+
+        assertThrows(
+                SpecificProvisionerValidationException.class,
+                () -> specificProvisionerController.getValidationStatus("my-token"));
+    }
 }
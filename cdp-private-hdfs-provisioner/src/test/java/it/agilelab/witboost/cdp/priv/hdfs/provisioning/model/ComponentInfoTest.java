@@ -0,0 +1,20 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class ComponentInfoTest {
+
+    private final ComponentInfo componentInfo = new ComponentInfo("healthcare", "vaccinations", "0", "storage");
+
+    @Test
+    public void testDataProductPrefix() {
+        assertEquals("healthcare_vaccinations_0", componentInfo.dataProductPrefix());
+    }
+
+    @Test
+    public void testComponentPrefix() {
+        assertEquals("healthcare_vaccinations_0_storage", componentInfo.componentPrefix());
+    }
+}
@@ -0,0 +1,52 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.parser.Parser;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.util.ResourceUtils;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class DataProductTest {
+
+    private final String storageComponentId = "urn:dmb:cmp:healthcare:vaccinations:0:storage";
+
+    @Test
+    public void testGetComponentToProvision() throws IOException {
+        var dataProduct = dataProduct();
+
+        var actualRes = dataProduct.getComponentToProvision(storageComponentId);
+
+        assertTrue(actualRes.isDefined());
+        assertEquals(storageComponentId, actualRes.get().get("id").textValue());
+        assertEquals(
+                "storage",
+                dataProduct.getComponentKindToProvision(storageComponentId).get());
+    }
+
+    @Test
+    public void testGetComponentToProvisionWithUnknownOrNullId() throws IOException {
+        var dataProduct = dataProduct();
+
+        assertTrue(dataProduct.getComponentToProvision("not-existing").isEmpty());
+        assertTrue(dataProduct.getComponentToProvision(null).isEmpty());
+        assertTrue(dataProduct.getComponentKindToProvision("not-existing").isEmpty());
+    }
+
+    @Test
+    public void testSetComponentsResetsIndex() throws IOException {
+        var dataProduct = dataProduct();
+        assertTrue(dataProduct.getComponentToProvision(storageComponentId).isDefined());
+
+        dataProduct.setComponents(List.of());
+
+        assertTrue(dataProduct.getComponentToProvision(storageComponentId).isEmpty());
+    }
+
+    private DataProduct dataProduct() throws IOException {
+        String ymlDescriptor = ResourceUtils.getContentFromResource("/descriptor_outputport_ok.yml");
+        return Parser.parseDescriptor(ymlDescriptor).get().getDataProduct();
+    }
+}
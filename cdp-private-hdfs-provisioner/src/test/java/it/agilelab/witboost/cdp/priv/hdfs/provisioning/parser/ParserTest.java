@@ -1,14 +1,20 @@
 package it.agilelab.witboost.cdp.priv.hdfs.provisioning.parser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Descriptor;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.OutputPort;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.Specific;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.StorageSpecific;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.util.ResourceUtils;
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 public class ParserTest {
@@ -78,6 +84,32 @@ public class ParserTest {
         assertTrue(actualRes.isRight());
     }
 
+    @Test
+    public void testParseComponentMemoizedOnTheNode() throws IOException {
+        String ymlDescriptor = ResourceUtils.getContentFromResource("/descriptor_storage_ok.yml");
+        String componentIdToProvision = "urn:dmb:cmp:healthcare:vaccinations:0:storage";
+        JsonNode component = Parser.parseDescriptor(ymlDescriptor)
+                .get()
+                .getDataProduct()
+                .getComponentToProvision(componentIdToProvision)
+                .get();
+        JsonNode sameComponentOfAnotherRequest = Parser.parseDescriptor(ymlDescriptor)
+                .get()
+                .getDataProduct()
+                .getComponentToProvision(componentIdToProvision)
+                .get();
+
+        var first = Parser.parseComponentMemoized(component, StorageSpecific.class);
+        var second = Parser.parseComponentMemoized(component, StorageSpecific.class);
+        var otherClass = Parser.parseComponentMemoized(component, Specific.class);
+        var otherRequest = Parser.parseComponentMemoized(sameComponentOfAnotherRequest, StorageSpecific.class);
+
+        assertTrue(first.isRight());
+        assertSame(first.get(), second.get());
+        assertNotSame(first.get(), otherClass.get());
+        assertNotSame(first.get(), otherRequest.get());
+    }
+
     @Test
     public void testParseStorageComponentFail() {
         JsonNode node = null;
@@ -148,4 +180,121 @@ public class ParserTest {
 
         assertTrue(actualRes.isRight());
     }
+
+    @Test
+    public void testParseComponentKeepsAllFields() throws IOException {
+        String ymlDescriptor = ResourceUtils.getContentFromResource("/descriptor_outputport_ok.yml");
+        Descriptor descriptor = Parser.parseDescriptor(ymlDescriptor).get();
+        String componentIdToProvision = "urn:dmb:cmp:healthcare:vaccinations:0:hdfs-output-port";
+        JsonNode component = descriptor
+                .getDataProduct()
+                .getComponentToProvision(componentIdToProvision)
+                .get();
+
+        var actualRes = Parser.parseComponent(component, Specific.class);
+
+        assertTrue(actualRes.isRight());
+        assertTrue(actualRes.get() instanceof OutputPort<Specific>);
+        assertEquals(componentIdToProvision, actualRes.get().getId());
+        assertEquals("outputport", actualRes.get().getKind());
+        assertEquals(
+                List.of("urn:dmb:cmp:healthcare:vaccinations:0:storage"),
+                ((OutputPort<Specific>) actualRes.get()).getDependsOn());
+    }
+
+    @Test
+    public void testParseDescriptorStreamingKeepsOnlyNeededComponents() throws IOException {
+        String ymlDescriptor = ResourceUtils.getContentFromResource("/descriptor_outputport_many_components.yml");
+        Descriptor expected = Parser.parseDescriptor(ymlDescriptor).get();
+
+        var actualRes = Parser.parseDescriptorStreaming(ymlDescriptor);
+
+        assertTrue(actualRes.isRight());
+        Descriptor descriptor = actualRes.get();
+        assertEquals(expected.getComponentIdToProvision(), descriptor.getComponentIdToProvision());
+        assertEquals(
+                expected.getDataProduct().getId(), descriptor.getDataProduct().getId());
+        assertEquals(
+                expected.getDataProduct().getDevGroup(),
+                descriptor.getDataProduct().getDevGroup());
+        assertEquals(
+                expected.getDataProduct().getDataProductOwner(),
+                descriptor.getDataProduct().getDataProductOwner());
+        assertEquals(4, expected.getDataProduct().getComponents().size());
+        assertEquals(
+                List.of(
+                        "urn:dmb:cmp:healthcare:vaccinations:0:storage",
+                        "urn:dmb:cmp:healthcare:vaccinations:0:hdfs-output-port"),
+                descriptor.getDataProduct().getComponents().stream()
+                        .map(c -> c.get("id").textValue())
+                        .toList());
+        String componentIdToProvision = descriptor.getComponentIdToProvision();
+        assertEquals(
+                expected.getDataProduct()
+                        .getComponentToProvision(componentIdToProvision)
+                        .get(),
+                descriptor
+                        .getDataProduct()
+                        .getComponentToProvision(componentIdToProvision)
+                        .get());
+    }
+
+    @Test
+    public void testParseDescriptorStreamingKeepsSuppliedComponents() throws IOException {
+        String ymlDescriptor = ResourceUtils.getContentFromResource("/descriptor_outputport_many_components.yml");
+
+        var actualRes = Parser.parseDescriptorStreaming(
+                ymlDescriptor,
+                Set.of(
+                        "urn:dmb:cmp:healthcare:vaccinations:0:storage",
+                        "urn:dmb:cmp:healthcare:vaccinations:0:other-storage"));
+
+        assertTrue(actualRes.isRight());
+        var ids = new HashSet<String>();
+        actualRes
+                .get()
+                .getDataProduct()
+                .getComponents()
+                .forEach(c -> ids.add(c.get("id").asText()));
+        assertEquals(
+                Set.of(
+                        "urn:dmb:cmp:healthcare:vaccinations:0:storage",
+                        "urn:dmb:cmp:healthcare:vaccinations:0:other-storage"),
+                ids);
+    }
+
+    @Test
+    public void testParseDescriptorStreamingWithoutComponentToProvision() throws IOException {
+        String ymlDescriptor =
+                ResourceUtils.getContentFromResource("/descriptor_storage_missing_componentIdToProvision.yml");
+
+        var actualRes = Parser.parseDescriptorStreaming(ymlDescriptor);
+
+        assertTrue(actualRes.isRight());
+        assertTrue(actualRes.get().getDataProduct().getComponents().isEmpty());
+    }
+
+    @Test
+    public void testParseJsonDescriptorStreamingOk() throws IOException {
+        String jsonDescriptor = ResourceUtils.getContentFromResource("/descriptor_outputport_ok.json");
+
+        var actualRes = Parser.parseDescriptorStreaming(jsonDescriptor);
+
+        assertTrue(actualRes.isRight());
+        assertEquals(2, actualRes.get().getDataProduct().getComponents().size());
+    }
+
+    @Test
+    public void testParseDescriptorStreamingFail() {
+        String expectedDesc = "Failed to deserialize the Yaml Descriptor. Details: ";
+
+        var actualRes = Parser.parseDescriptorStreaming("an_invalid_descriptor");
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(1, actualRes.getLeft().problems().size());
+        actualRes.getLeft().problems().forEach(p -> {
+            assertTrue(p.description().startsWith(expectedDesc));
+            assertTrue(p.cause().isPresent());
+        });
+    }
 }
@@ -0,0 +1,202 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.JmxDetail;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.JmxResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class ActiveNameNodeResolverTest {
+
+    private static final String NN1_JMX = "http://hdfs-host-1/jmx?qry=Hadoop:service=NameNode,name=NameNodeStatus";
+    private static final String NN2_JMX = "http://hdfs-host-2/jmx?qry=Hadoop:service=NameNode,name=NameNodeStatus";
+    private static final String NN3_JMX = "http://hdfs-host-3/jmx?qry=Hadoop:service=NameNode,name=NameNodeStatus";
+
+    private final HdfsConfig hdfsConfig =
+            new HdfsConfig("http://hdfs-host-1", "http://hdfs-host-2", null, null, 1000, 60000, null);
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Test
+    public void testActiveNameNodeIsCached() {
+        when(restTemplate.getForObject(NN1_JMX, JmxResponse.class)).thenReturn(jmxResponse("active"));
+        var resolver = new ActiveNameNodeResolver(restTemplate, hdfsConfig, fixedClock(0));
+
+        var first = resolver.getActiveNameNode();
+        var second = resolver.getActiveNameNode();
+
+        assertTrue(first.isRight());
+        assertEquals("http://hdfs-host-1", first.get());
+        assertEquals(first, second);
+        verify(restTemplate, times(1)).getForObject(any(String.class), eq(JmxResponse.class));
+    }
+
+    @Test
+    public void testActiveNameNodeIsProbedAgainAfterTtl() {
+        when(restTemplate.getForObject(NN1_JMX, JmxResponse.class)).thenReturn(jmxResponse("active"));
+        var clock = new MutableClock();
+        var resolver = new ActiveNameNodeResolver(restTemplate, hdfsConfig, clock);
+
+        resolver.getActiveNameNode();
+        clock.now = 60000;
+        var actualRes = resolver.getActiveNameNode();
+
+        assertTrue(actualRes.isRight());
+        verify(restTemplate, times(2)).getForObject(NN1_JMX, JmxResponse.class);
+    }
+
+    @Test
+    public void testFailoverResolvesOtherNameNode() {
+        when(restTemplate.getForObject(NN1_JMX, JmxResponse.class))
+                .thenReturn(jmxResponse("active"))
+                .thenReturn(jmxResponse("standby"));
+        when(restTemplate.getForObject(NN2_JMX, JmxResponse.class)).thenReturn(jmxResponse("active"));
+        var resolver = new ActiveNameNodeResolver(restTemplate, hdfsConfig, fixedClock(0));
+
+        resolver.getActiveNameNode();
+        var failoverRes = resolver.failover("http://hdfs-host-1");
+        var cachedRes = resolver.getActiveNameNode();
+
+        assertTrue(failoverRes.isRight());
+        assertEquals("http://hdfs-host-2", failoverRes.get());
+        assertEquals("http://hdfs-host-2", cachedRes.get());
+    }
+
+    @Test
+    public void testProbeErrorIsNotCached() {
+        when(restTemplate.getForObject(NN1_JMX, JmxResponse.class))
+                .thenThrow(new ResourceAccessException("Connection refused"))
+                .thenReturn(jmxResponse("active"));
+        var resolver = new ActiveNameNodeResolver(restTemplate, hdfsConfig, fixedClock(0));
+
+        var first = resolver.getActiveNameNode();
+        var second = resolver.getActiveNameNode();
+
+        assertTrue(first.isLeft());
+        assertTrue(second.isRight());
+        assertEquals("http://hdfs-host-1", second.get());
+    }
+
+    @Test
+    public void testSequentialProbeSkipsFailingNameNode() {
+        var config = new HdfsConfig(
+                null,
+                null,
+                List.of("http://hdfs-host-1", "http://hdfs-host-2", "http://hdfs-host-3"),
+                HdfsConfig.NameNodeProbeMode.SEQUENTIAL,
+                1000,
+                60000,
+                null);
+        when(restTemplate.getForObject(NN1_JMX, JmxResponse.class))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        when(restTemplate.getForObject(NN2_JMX, JmxResponse.class)).thenReturn(jmxResponse("standby"));
+        when(restTemplate.getForObject(NN3_JMX, JmxResponse.class)).thenReturn(jmxResponse("active"));
+        var resolver = new ActiveNameNodeResolver(restTemplate, config, fixedClock(0));
+
+        var actualRes = resolver.getActiveNameNode();
+
+        assertTrue(actualRes.isRight());
+        assertEquals("http://hdfs-host-3", actualRes.get());
+    }
+
+    @Test
+    public void testParallelProbeDoesNotWaitForHungNameNode() {
+        var config = new HdfsConfig(
+                null,
+                null,
+                List.of("http://hdfs-host-1", "http://hdfs-host-2"),
+                HdfsConfig.NameNodeProbeMode.PARALLEL,
+                1000,
+                60000,
+                null);
+        var hungNameNode = new CountDownLatch(1);
+        // the probe of the hung NameNode may be cancelled before it even starts
+        lenient().when(restTemplate.getForObject(NN1_JMX, JmxResponse.class)).thenAnswer(invocation -> {
+            hungNameNode.await();
+            return jmxResponse("standby");
+        });
+        when(restTemplate.getForObject(NN2_JMX, JmxResponse.class)).thenReturn(jmxResponse("active"));
+        var resolver = new ActiveNameNodeResolver(restTemplate, config, fixedClock(0));
+
+        var actualRes = assertTimeoutPreemptively(Duration.ofSeconds(5), resolver::getActiveNameNode);
+
+        assertTrue(actualRes.isRight());
+        assertEquals("http://hdfs-host-2", actualRes.get());
+        resolver.shutdown();
+    }
+
+    @Test
+    public void testParallelProbeWithoutActiveNameNode() {
+        var config = new HdfsConfig(
+                "http://hdfs-host-1",
+                "http://hdfs-host-2",
+                null,
+                HdfsConfig.NameNodeProbeMode.PARALLEL,
+                1000,
+                60000,
+                null);
+        when(restTemplate.getForObject(NN1_JMX, JmxResponse.class)).thenReturn(jmxResponse("standby"));
+        when(restTemplate.getForObject(NN2_JMX, JmxResponse.class))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        var resolver = new ActiveNameNodeResolver(restTemplate, config, fixedClock(0));
+
+        var actualRes = resolver.getActiveNameNode();
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes.getLeft().problems().get(0).description().contains("Connection refused"));
+        resolver.shutdown();
+    }
+
+    private JmxResponse jmxResponse(String state) {
+        JmxDetail detail = new JmxDetail();
+        detail.setState(state);
+        JmxResponse response = new JmxResponse();
+        response.setBeans(List.of(detail));
+        return response;
+    }
+
+    private Clock fixedClock(long millis) {
+        return Clock.fixed(Instant.ofEpochMilli(millis), ZoneId.of("UTC"));
+    }
+
+    private static class MutableClock extends Clock {
+        private long now = 0;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(now);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vavr.control.Option;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.LdapCacheConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPGroup;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPUser;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingLdapServiceTest {
+
+    // the batch lookup of users and groups delegates to the stubbed lookups of users and of groups
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private LdapService ldapService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CachingLdapService cachingLdapService;
+
+    private final String mail = "name.surname@example.com";
+    private final String otherMail = "other.surname@example.com";
+    private final String groupName = "group1";
+    private final CDPUser cdpUser = new CDPUser("name.surname", mail);
+    private final FailedOperation failedOperation =
+            new FailedOperation(Collections.singletonList(new Problem("error")));
+
+    @BeforeEach
+    void setUp() {
+        cachingLdapService =
+                new CachingLdapService(ldapService, new LdapCacheConfig(true, 60000, 60000, 100), meterRegistry);
+    }
+
+    @Test
+    public void testFindUserByMailIsCachedIgnoringCase() {
+        when(ldapService.findUserByMail(mail)).thenReturn(right(Option.of(cdpUser)));
+
+        cachingLdapService.findUserByMail(mail);
+        var actualRes = cachingLdapService.findUserByMail(mail.toUpperCase());
+
+        assertEquals(cdpUser, actualRes.get().get());
+        verify(ldapService, times(1)).findUserByMail(any());
+    }
+
+    @Test
+    public void testNotExistingGroupIsCached() {
+        when(ldapService.findGroupByName(groupName)).thenReturn(right(Option.none()));
+
+        cachingLdapService.findGroupByName(groupName);
+        var actualRes = cachingLdapService.findGroupByName(groupName);
+
+        assertTrue(actualRes.isRight());
+        assertTrue(actualRes.get().isEmpty());
+        verify(ldapService, times(1)).findGroupByName(groupName);
+    }
+
+    @Test
+    public void testErrorIsNotCached() {
+        when(ldapService.findGroupByName(groupName))
+                .thenReturn(left(failedOperation))
+                .thenReturn(right(Option.of(new CDPGroup(groupName))));
+
+        var first = cachingLdapService.findGroupByName(groupName);
+        var second = cachingLdapService.findGroupByName(groupName);
+
+        assertTrue(first.isLeft());
+        assertEquals(new CDPGroup(groupName), second.get().get());
+    }
+
+    @Test
+    public void testFindUsersByMailLooksUpOnlyMisses() {
+        when(ldapService.findUserByMail(mail)).thenReturn(right(Option.of(cdpUser)));
+        when(ldapService.findUsersByMail(List.of(otherMail))).thenReturn(Map.of(otherMail, right(Option.none())));
+        cachingLdapService.findUserByMail(mail);
+
+        var actualRes = cachingLdapService.findUsersByMail(List.of(mail, otherMail));
+
+        assertEquals(2, actualRes.size());
+        assertEquals(cdpUser, actualRes.get(mail).get().get());
+        assertTrue(actualRes.get(otherMail).get().isEmpty());
+        verify(ldapService, times(1)).findUsersByMail(List.of(otherMail));
+    }
+
+    @Test
+    public void testFindUsersByMailWithAllHitsDoesNotCallLdap() {
+        when(ldapService.findUsersByMail(List.of(mail))).thenReturn(Map.of(mail, right(Option.of(cdpUser))));
+
+        cachingLdapService.findUsersByMail(List.of(mail));
+        var actualRes = cachingLdapService.findUsersByMail(List.of(mail));
+
+        assertEquals(cdpUser, actualRes.get(mail).get().get());
+        verify(ldapService, times(1)).findUsersByMail(any());
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        when(ldapService.findGroupsByName(List.of(groupName)))
+                .thenReturn(Map.of(groupName, right(Option.of(new CDPGroup(groupName)))));
+
+        cachingLdapService.findGroupsByName(List.of(groupName));
+        cachingLdapService.invalidateAll();
+        cachingLdapService.findGroupsByName(List.of(groupName));
+
+        verify(ldapService, times(2)).findGroupsByName(List.of(groupName));
+    }
+
+    @Test
+    public void testHitsAndMissesAreRecorded() {
+        when(ldapService.findUserByMail(mail)).thenReturn(right(Option.of(cdpUser)));
+
+        cachingLdapService.findUserByMail(mail);
+        cachingLdapService.findUserByMail(mail);
+
+        assertEquals(1, cachingLdapService.userStats().hitCount());
+        assertEquals(1, cachingLdapService.userStats().missCount());
+        assertNotNull(
+                meterRegistry.find("cache.gets").tag("cache", "ldap.users").meter());
+        assertNotNull(
+                meterRegistry.find("cache.gets").tag("cache", "ldap.groups").meter());
+    }
+}
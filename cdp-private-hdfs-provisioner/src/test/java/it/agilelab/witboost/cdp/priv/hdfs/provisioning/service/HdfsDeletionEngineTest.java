@@ -0,0 +1,316 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.RateLimiter;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsChunkedDeletionConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig.RemovalStrategy;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.HdfsDirectoryListing;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.HdfsFileStatuses;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class HdfsDeletionEngineTest {
+
+    private final HdfsService hdfsService = mock(HdfsService.class);
+    private final HdfsRemovalConfig chunked = new HdfsRemovalConfig(RemovalStrategy.CHUNKED, null, null, null, null);
+    private final HdfsChunkedDeletionConfig chunkedConfig = new HdfsChunkedDeletionConfig(null, 2, 2);
+    private final List<String> progress = new ArrayList<>();
+
+    @Test
+    public void testDeleteStrategyDeletesTheFolderAtOnce() {
+        var engine = new HdfsDeletionEngine(
+                hdfsService,
+                new HdfsRemovalConfig(RemovalStrategy.DELETE, null, null, null, null),
+                chunkedConfig,
+                Runnable::run,
+                new RateLimiter(0));
+        when(hdfsService.deleteFolder("/root")).thenReturn(right("/root"));
+
+        var actualRes = engine.removeFolder("/root", progress::add);
+
+        assertEquals(right("/root"), actualRes);
+        verify(hdfsService, never()).listFolderBatch(anyString(), any());
+        assertTrue(progress.isEmpty());
+    }
+
+    @Test
+    public void testChunkedStrategyDeletesTheContentBeforeItsFolder() {
+        var engine = new HdfsDeletionEngine(hdfsService, chunked, chunkedConfig, Runnable::run, new RateLimiter(0));
+        when(hdfsService.listFolderBatch("/root", Optional.empty()))
+                .thenReturn(right(listing(1, file("a"), directory("sub", 2))));
+        when(hdfsService.listFolderBatch("/root", Optional.of("sub"))).thenReturn(right(listing(0, file("b"))));
+        when(hdfsService.listFolderBatch("/root/sub", Optional.empty()))
+                .thenReturn(right(listing(0, file("c"), file("d"))));
+        when(hdfsService.deleteRecursively(anyString())).thenAnswer(i -> right(i.getArgument(0)));
+
+        var actualRes = engine.removeFolder("/root", progress::add);
+
+        assertEquals(right("/root"), actualRes);
+        var inOrder = inOrder(hdfsService);
+        for (String path : List.of("/root/a", "/root/sub/c", "/root/sub/d", "/root/sub", "/root/b", "/root"))
+            inOrder.verify(hdfsService).deleteRecursively(path);
+        assertEquals(
+                List.of(
+                        "Removing the folder '/root': 2 entries deleted",
+                        "Removing the folder '/root': 3 entries deleted",
+                        "Removing the folder '/root': 5 entries deleted"),
+                progress);
+    }
+
+    @Test
+    public void testChunkedStrategyWithMissingFolder() {
+        var engine = new HdfsDeletionEngine(hdfsService, chunked, chunkedConfig, Runnable::run, new RateLimiter(0));
+        when(hdfsService.listFolderBatch("/root", Optional.empty())).thenReturn(right(new HdfsDirectoryListing()));
+        when(hdfsService.deleteRecursively("/root")).thenReturn(right("/root"));
+
+        var actualRes = engine.removeFolder("/root", progress::add);
+
+        assertEquals(right("/root"), actualRes);
+    }
+
+    @Test
+    public void testChunkedStrategyStopsAtTheFirstFailedBatch() {
+        var engine = new HdfsDeletionEngine(hdfsService, chunked, chunkedConfig, Runnable::run, new RateLimiter(0));
+        var failedOperation = new FailedOperation(List.of(new Problem("error")));
+        when(hdfsService.listFolderBatch("/root", Optional.empty()))
+                .thenReturn(right(listing(0, file("a"), file("b"), file("c"))));
+        when(hdfsService.deleteRecursively("/root/a")).thenReturn(right("/root/a"));
+        when(hdfsService.deleteRecursively("/root/b")).thenReturn(left(failedOperation));
+
+        var actualRes = engine.removeFolder("/root", progress::add);
+
+        assertEquals(left(failedOperation), actualRes);
+        verify(hdfsService, never()).deleteRecursively("/root/c");
+        verify(hdfsService, never()).deleteRecursively("/root");
+        assertTrue(progress.isEmpty());
+    }
+
+    @Test
+    public void testChunkedStrategyWithListingFailure() {
+        var engine = new HdfsDeletionEngine(hdfsService, chunked, chunkedConfig, Runnable::run, new RateLimiter(0));
+        var failedOperation = new FailedOperation(List.of(new Problem("error")));
+        when(hdfsService.listFolderBatch("/root", Optional.empty())).thenReturn(left(failedOperation));
+
+        var actualRes = engine.removeFolder("/root", progress::add);
+
+        assertEquals(left(failedOperation), actualRes);
+        verify(hdfsService, never()).deleteRecursively(anyString());
+    }
+
+    @Test
+    public void testEveryOperationTakesAPermit() throws InterruptedException {
+        var rateLimiter = mock(RateLimiter.class);
+        var engine = new HdfsDeletionEngine(hdfsService, chunked, chunkedConfig, Runnable::run, rateLimiter);
+        when(hdfsService.listFolderBatch("/root", Optional.empty()))
+                .thenReturn(right(listing(0, file("a"), file("b"))));
+        when(hdfsService.deleteRecursively(anyString())).thenAnswer(i -> right(i.getArgument(0)));
+
+        engine.removeFolder("/root", progress::add);
+
+        // one listing and three deletions
+        verify(rateLimiter, times(4)).acquire();
+    }
+
+    @Test
+    public void testInterruptionStopsTheRemoval() throws InterruptedException {
+        var rateLimiter = mock(RateLimiter.class);
+        doThrow(new InterruptedException()).when(rateLimiter).acquire();
+        var engine = new HdfsDeletionEngine(hdfsService, chunked, chunkedConfig, Runnable::run, rateLimiter);
+
+        var actualRes = engine.removeFolder("/root", progress::add);
+
+        assertTrue(Thread.interrupted());
+        assertTrue(actualRes.isLeft());
+        assertEquals(
+                "The removal of '/root' was interrupted before '/root'",
+                actualRes.getLeft().problems().get(0).description());
+        verify(hdfsService, never()).listFolderBatch(anyString(), any());
+    }
+
+    @Test
+    public void testInterruptionStopsTheWaitForTheBatch() throws InterruptedException {
+        var workers = Executors.newSingleThreadExecutor();
+        var engine = new HdfsDeletionEngine(hdfsService, chunked, chunkedConfig, workers, new RateLimiter(0));
+        var release = new CountDownLatch(1);
+        when(hdfsService.listFolderBatch("/root", Optional.empty())).thenAnswer(i -> {
+            // the removal is interrupted while the batch is being deleted
+            Thread.currentThread().interrupt();
+            return right(listing(0, file("a"), file("b")));
+        });
+        when(hdfsService.deleteRecursively("/root/a")).thenAnswer(i -> {
+            if (!release.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("Timed out");
+            return right(i.getArgument(0));
+        });
+
+        var actualRes = engine.removeFolder("/root", progress::add);
+
+        assertTrue(Thread.interrupted());
+        release.countDown();
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(actualRes.isLeft());
+        assertEquals(
+                "The removal of '/root' was interrupted while waiting for the deletions in progress",
+                actualRes.getLeft().problems().get(0).description());
+        verify(hdfsService, never()).deleteRecursively("/root/b");
+        verify(hdfsService, never()).deleteRecursively("/root");
+    }
+
+    @Test
+    public void testBatchIsDeletedConcurrently() {
+        var workers = Executors.newFixedThreadPool(2);
+        var engine = new HdfsDeletionEngine(hdfsService, chunked, chunkedConfig, workers, new RateLimiter(0));
+        var bothStarted = new CountDownLatch(2);
+        when(hdfsService.listFolderBatch("/root", Optional.empty()))
+                .thenReturn(right(listing(0, file("a"), file("b"))));
+        when(hdfsService.deleteRecursively(anyString())).thenAnswer(i -> {
+            // the deletions of the batch complete only once both have started
+            if (!"/root".equals(i.getArgument(0))) {
+                bothStarted.countDown();
+                if (!bothStarted.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("Timed out");
+            }
+            return right(i.getArgument(0));
+        });
+
+        var actualRes = engine.removeFolder("/root", progress::add);
+
+        engine.shutdown();
+        assertEquals(right("/root"), actualRes);
+        assertTrue(workers.isShutdown());
+    }
+
+    @Test
+    public void testPurgeTrashDeletesTheOldestExpiredFoldersEntryByEntry() {
+        var trash = new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, null, 2);
+        var engine = new HdfsDeletionEngine(hdfsService, trash, chunkedConfig, Runnable::run, new RateLimiter(0));
+        String recent = System.currentTimeMillis() + 60000 + "-recent";
+        when(hdfsService.listFolderBatch("/trash", Optional.empty()))
+                .thenReturn(right(listing(3, directory("3000-third", 1), directory(recent, 1))));
+        when(hdfsService.listFolderBatch("/trash", Optional.of(recent)))
+                .thenReturn(right(
+                        listing(0, directory("other", 1), directory("1000-first", 2), directory("2000-second", 0))));
+        when(hdfsService.listFolderBatch("/trash/1000-first", Optional.empty()))
+                .thenReturn(right(listing(0, file("a"), file("b"))));
+        when(hdfsService.listFolderBatch("/trash/2000-second", Optional.empty()))
+                .thenReturn(right(new HdfsDirectoryListing()));
+        when(hdfsService.deleteRecursively(anyString())).thenAnswer(i -> right(i.getArgument(0)));
+
+        var actualRes = engine.purgeTrash();
+
+        assertEquals(right(2), actualRes);
+        var inOrder = inOrder(hdfsService);
+        for (String path :
+                List.of("/trash/1000-first/a", "/trash/1000-first/b", "/trash/1000-first", "/trash/2000-second"))
+            inOrder.verify(hdfsService).deleteRecursively(path);
+        verify(hdfsService, never()).deleteRecursively("/trash/3000-third");
+        verify(hdfsService, never()).deleteFolder(anyString());
+    }
+
+    @Test
+    public void testPurgeTrashWithMissingTrash() {
+        var trash = new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, null, 2);
+        var engine = new HdfsDeletionEngine(hdfsService, trash, chunkedConfig, Runnable::run, new RateLimiter(0));
+        when(hdfsService.listFolderBatch("/trash", Optional.empty())).thenReturn(right(new HdfsDirectoryListing()));
+
+        var actualRes = engine.purgeTrash();
+
+        assertEquals(right(0), actualRes);
+        verify(hdfsService, never()).deleteRecursively(anyString());
+    }
+
+    @Test
+    public void testPurgeTrashWithoutTrashRoot() {
+        var engine = new HdfsDeletionEngine(hdfsService, chunked, chunkedConfig, Runnable::run, new RateLimiter(0));
+
+        var actualRes = engine.purgeTrash();
+
+        assertEquals(right(0), actualRes);
+        verify(hdfsService, never()).listFolderBatch(anyString(), any());
+    }
+
+    @Test
+    public void testPurgeTrashStopsAtTheFirstFailure() {
+        var trash = new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, null, 2);
+        var engine = new HdfsDeletionEngine(hdfsService, trash, chunkedConfig, Runnable::run, new RateLimiter(0));
+        var failedOperation = new FailedOperation(List.of(new Problem("error")));
+        when(hdfsService.listFolderBatch("/trash", Optional.empty()))
+                .thenReturn(right(listing(0, directory("1000-first", 1), directory("2000-second", 1))));
+        when(hdfsService.listFolderBatch("/trash/1000-first", Optional.empty()))
+                .thenReturn(right(listing(0, file("a"))));
+        when(hdfsService.deleteRecursively("/trash/1000-first/a")).thenReturn(left(failedOperation));
+
+        var actualRes = engine.purgeTrash();
+
+        assertEquals(left(failedOperation), actualRes);
+        verify(hdfsService, never()).deleteRecursively("/trash/1000-first");
+        verify(hdfsService, never()).listFolderBatch("/trash/2000-second", Optional.empty());
+    }
+
+    @Test
+    public void testPurgeTrashTakesAPermitForEveryOperation() throws InterruptedException {
+        var rateLimiter = mock(RateLimiter.class);
+        var trash = new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, null, 2);
+        var engine = new HdfsDeletionEngine(hdfsService, trash, chunkedConfig, Runnable::run, rateLimiter);
+        when(hdfsService.listFolderBatch("/trash", Optional.empty()))
+                .thenReturn(right(listing(0, directory("1000-first", 1))));
+        when(hdfsService.listFolderBatch("/trash/1000-first", Optional.empty()))
+                .thenReturn(right(listing(0, file("a"))));
+        when(hdfsService.deleteRecursively(anyString())).thenAnswer(i -> right(i.getArgument(0)));
+
+        engine.purgeTrash();
+
+        // two listings and two deletions
+        verify(rateLimiter, times(4)).acquire();
+    }
+
+    private static HdfsDirectoryListing listing(long remainingEntries, HdfsFileStatuses.FileStatus... entries) {
+        var fileStatuses = new HdfsFileStatuses.FileStatuses();
+        fileStatuses.setFileStatus(Arrays.asList(entries));
+        var statuses = new HdfsFileStatuses();
+        statuses.setFileStatuses(fileStatuses);
+        var directoryListing = new HdfsDirectoryListing.DirectoryListing();
+        directoryListing.setPartialListing(statuses);
+        directoryListing.setRemainingEntries(remainingEntries);
+        var listing = new HdfsDirectoryListing();
+        listing.setDirectoryListing(directoryListing);
+        return listing;
+    }
+
+    private static HdfsFileStatuses.FileStatus file(String name) {
+        var status = new HdfsFileStatuses.FileStatus();
+        status.setPathSuffix(name);
+        status.setType("FILE");
+        status.setChildrenNum(0L);
+        return status;
+    }
+
+    private static HdfsFileStatuses.FileStatus directory(String name, long childrenNum) {
+        var status = new HdfsFileStatuses.FileStatus();
+        status.setPathSuffix(name);
+        status.setType("DIRECTORY");
+        status.setChildrenNum(childrenNum);
+        return status;
+    }
+}
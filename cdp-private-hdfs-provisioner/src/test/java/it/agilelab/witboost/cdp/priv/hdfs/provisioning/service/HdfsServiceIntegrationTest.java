@@ -3,7 +3,10 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsChunkedDeletionConfig;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig.RemovalStrategy;
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
 import java.net.URI;
@@ -19,6 +22,7 @@ import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.web.client.RestTemplate;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.wait.strategy.Wait;
 import org.testcontainers.images.builder.ImageFromDockerfile;
@@ -73,8 +77,12 @@ public class HdfsServiceIntegrationTest {
 
         String url =
                 String.format("http://%s:%s", miniclusterContainer.getHost(), miniclusterContainer.getMappedPort(9001));
-        HdfsConfig integrationHdfsConfig = new HdfsConfig(url, url, 10);
-        HdfsService hdfsService = new HdfsServiceImpl(restTemplateBuilder.build(), integrationHdfsConfig);
+        HdfsConfig integrationHdfsConfig = new HdfsConfig(url, url, null, null, 10, 60000, null);
+        RestTemplate restTemplate = restTemplateBuilder.build();
+        HdfsService hdfsService = new HdfsServiceImpl(
+                restTemplate,
+                new ActiveNameNodeResolver(restTemplate, integrationHdfsConfig),
+                new HdfsRemovalConfig(null, null, null, null, null));
 
         var resCreation = hdfsService.createFolder("/myfolder");
 
@@ -91,8 +99,12 @@ public class HdfsServiceIntegrationTest {
     void testIntegrationHdfsServiceDeleteAlreadyDeletedIsWorking() {
         String url =
                 String.format("http://%s:%s", miniclusterContainer.getHost(), miniclusterContainer.getMappedPort(9001));
-        HdfsConfig integrationHdfsConfig = new HdfsConfig(url, url, 10);
-        HdfsService hdfsService = new HdfsServiceImpl(restTemplateBuilder.build(), integrationHdfsConfig);
+        HdfsConfig integrationHdfsConfig = new HdfsConfig(url, url, null, null, 10, 60000, null);
+        RestTemplate restTemplate = restTemplateBuilder.build();
+        HdfsService hdfsService = new HdfsServiceImpl(
+                restTemplate,
+                new ActiveNameNodeResolver(restTemplate, integrationHdfsConfig),
+                new HdfsRemovalConfig(null, null, null, null, null));
 
         var resDeletion = hdfsService.deleteFolder("/notexisting");
 
@@ -100,6 +112,32 @@ public class HdfsServiceIntegrationTest {
         assertEquals("/notexisting", resDeletion.get());
     }
 
+    @Test
+    void testIntegrationHdfsServiceTrashAndPurgeIsWorking() {
+        String url =
+                String.format("http://%s:%s", miniclusterContainer.getHost(), miniclusterContainer.getMappedPort(9001));
+        HdfsConfig integrationHdfsConfig = new HdfsConfig(url, url, null, null, 10, 60000, null);
+        RestTemplate restTemplate = restTemplateBuilder.build();
+        HdfsRemovalConfig removalConfig = new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, null, 10);
+        HdfsService hdfsService = new HdfsServiceImpl(
+                restTemplate, new ActiveNameNodeResolver(restTemplate, integrationHdfsConfig), removalConfig);
+
+        assertThat(hdfsService.createFolder("/trashed/child").isRight()).isTrue();
+
+        var resDeletion = hdfsService.deleteFolder("/trashed");
+
+        assertThat(resDeletion.isRight()).isTrue();
+        assertEquals("/trashed", resDeletion.get());
+
+        var deletionEngine =
+                new HdfsDeletionEngine(hdfsService, removalConfig, new HdfsChunkedDeletionConfig(null, null, null));
+        var resPurge = deletionEngine.purgeTrash();
+        deletionEngine.shutdown();
+
+        assertThat(resPurge.isRight()).isTrue();
+        assertEquals(1, resPurge.get());
+    }
+
     private URI appendUri(String uri, String appendQuery) {
         try {
             URI oldUri = new URI(uri);
@@ -3,13 +3,16 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
 import io.vavr.control.Either;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
 import java.util.Collections;
+import java.util.Optional;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,14 +20,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.client.AutoConfigureWebClient;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestClientResponseException;
 
-@RestClientTest(HdfsService.class)
+@RestClientTest({HdfsService.class, ActiveNameNodeResolver.class})
 @AutoConfigureWebClient(registerRestTemplate = true)
 @EnableConfigurationProperties({
     HdfsConfig.class,
+    HdfsRemovalConfig.class,
 })
 public class HdfsServiceTest {
 
@@ -34,9 +39,13 @@ public class HdfsServiceTest {
     @Autowired
     private HdfsService hdfsService;
 
+    @Autowired
+    private ActiveNameNodeResolver activeNameNodeResolver;
+
     @BeforeEach
     void setUp() {
         server.reset();
+        activeNameNodeResolver.invalidate();
     }
 
     @AfterEach
@@ -181,6 +190,139 @@ public class HdfsServiceTest {
         });
     }
 
+    @Test
+    public void testCreateFolderShouldReuseCachedActiveNN() {
+        setupActiveNN1();
+        String res = """
+            {"boolean": true}
+             """;
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/my/folder?op=MKDIRS"))
+                .andRespond(withSuccess(res, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/my/other/folder?op=MKDIRS"))
+                .andRespond(withSuccess(res, MediaType.APPLICATION_JSON));
+
+        var firstRes = hdfsService.createFolder("/my/folder");
+        var secondRes = hdfsService.createFolder("/my/other/folder");
+
+        assertTrue(firstRes.isRight());
+        assertTrue(secondRes.isRight());
+    }
+
+    @Test
+    public void testCreateFolderShouldFailoverOnStandbyException() {
+        setupActiveNN1();
+        String standbyRes =
+                """
+            {"RemoteException": {"exception": "StandbyException", "javaClassName": "org.apache.hadoop.ipc.StandbyException", "message": "Operation category WRITE is not supported in state standby"}}
+             """;
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/my/folder?op=MKDIRS"))
+                .andRespond(withStatus(HttpStatus.FORBIDDEN).body(standbyRes).contentType(MediaType.APPLICATION_JSON));
+        setupActiveNN2();
+        String res = """
+            {"boolean": true}
+             """;
+        server.expect(requestTo("http://hdfs-host-2/webhdfs/v1/my/folder?op=MKDIRS"))
+                .andRespond(withSuccess(res, MediaType.APPLICATION_JSON));
+
+        Either<FailedOperation, String> actualRes = hdfsService.createFolder("/my/folder");
+
+        assertTrue(actualRes.isRight());
+        assertEquals("/my/folder", actualRes.get());
+    }
+
+    @Test
+    public void testCreateFolderShouldNotRetryOnSameActiveNN() {
+        setupActiveNN1();
+        String retriableRes =
+                """
+            {"RemoteException": {"exception": "RetriableException", "javaClassName": "org.apache.hadoop.ipc.RetriableException", "message": "NameNode still not started"}}
+             """;
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/my/folder?op=MKDIRS"))
+                .andRespond(
+                        withStatus(HttpStatus.FORBIDDEN).body(retriableRes).contentType(MediaType.APPLICATION_JSON));
+        setupActiveNN1();
+
+        Either<FailedOperation, String> actualRes = hdfsService.createFolder("/my/folder");
+
+        assertTrue(actualRes.isLeft());
+        actualRes.getLeft().problems().forEach(p -> {
+            assertTrue(p.cause().isPresent());
+            assertInstanceOf(RestClientResponseException.class, p.cause().get());
+        });
+    }
+
+    @Test
+    public void testCreateFolderShouldNotFailoverOnAccessControlException() {
+        setupActiveNN1();
+        String accessControlRes =
+                """
+            {"RemoteException": {"exception": "AccessControlException", "javaClassName": "org.apache.hadoop.security.AccessControlException", "message": "Permission denied: user=provisioner, access=WRITE"}}
+             """;
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/my/folder?op=MKDIRS"))
+                .andRespond(withStatus(HttpStatus.FORBIDDEN)
+                        .body(accessControlRes)
+                        .contentType(MediaType.APPLICATION_JSON));
+
+        Either<FailedOperation, String> actualRes = hdfsService.createFolder("/my/folder");
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes.getLeft().problems().get(0).description().contains("Permission denied"));
+    }
+
+    @Test
+    public void testListFolderBatchShouldReturnThePage() {
+        setupActiveNN1();
+        String res =
+                """
+            {"DirectoryListing": {"partialListing": {"FileStatuses": {"FileStatus": [
+                {"pathSuffix": "file", "type": "FILE", "childrenNum": 0},
+                {"pathSuffix": "sub", "type": "DIRECTORY", "childrenNum": 3}
+            ]}}, "remainingEntries": 5}}
+             """;
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/my/folder?op=LISTSTATUS_BATCH&startAfter=previous"))
+                .andRespond(withSuccess(res, MediaType.APPLICATION_JSON));
+
+        var actualRes = hdfsService.listFolderBatch("/my/folder", Optional.of("previous"));
+
+        assertTrue(actualRes.isRight());
+        var entries = actualRes.get().entries();
+        assertEquals(2, entries.size());
+        assertEquals("file", entries.get(0).getPathSuffix());
+        assertFalse(entries.get(0).isNonEmptyDirectory());
+        assertTrue(entries.get(1).isNonEmptyDirectory());
+        assertTrue(actualRes.get().hasMore());
+    }
+
+    @Test
+    public void testListFolderBatchOfMissingFolderIsEmpty() {
+        setupActiveNN1();
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/my/folder?op=LISTSTATUS_BATCH"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        var actualRes = hdfsService.listFolderBatch("/my/folder", Optional.empty());
+
+        assertTrue(actualRes.isRight());
+        assertTrue(actualRes.get().entries().isEmpty());
+        assertFalse(actualRes.get().hasMore());
+    }
+
+    @Test
+    public void testListFolderBatchShouldReturnBadStatusCode() {
+        setupActiveNN1();
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/my/folder?op=LISTSTATUS_BATCH"))
+                .andRespond(withServerError());
+
+        var actualRes = hdfsService.listFolderBatch("/my/folder", Optional.empty());
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes
+                .getLeft()
+                .problems()
+                .get(0)
+                .description()
+                .startsWith("Failed to list the folder '/my/folder'"));
+    }
+
     private void setupActiveNN1() {
         String jmxRes =
                 """
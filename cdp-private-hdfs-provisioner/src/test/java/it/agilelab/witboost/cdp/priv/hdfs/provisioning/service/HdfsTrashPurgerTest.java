@@ -0,0 +1,62 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import static io.vavr.control.Either.left;
+import static io.vavr.control.Either.right;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig.RemovalStrategy;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class HdfsTrashPurgerTest {
+
+    private final HdfsDeletionEngine deletionEngine = mock(HdfsDeletionEngine.class);
+
+    @Test
+    public void testPurgeIsNotScheduledWithTheDeleteStrategy() {
+        var purger = new HdfsTrashPurger(
+                deletionEngine, new HdfsRemovalConfig(RemovalStrategy.DELETE, "/trash", 0, 10, null));
+
+        assertFalse(purger.isScheduled());
+        purger.shutdown();
+    }
+
+    @Test
+    public void testPurgeIsNotScheduledWithoutInterval() {
+        var purger =
+                new HdfsTrashPurger(deletionEngine, new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, 0, null));
+
+        assertFalse(purger.isScheduled());
+        purger.shutdown();
+    }
+
+    @Test
+    public void testPurgeIsScheduledWithTheTrashStrategy() {
+        when(deletionEngine.purgeTrash()).thenReturn(right(1));
+        var purger = new HdfsTrashPurger(
+                deletionEngine, new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, 10, null));
+
+        assertTrue(purger.isScheduled());
+        verify(deletionEngine, timeout(5000).atLeast(2)).purgeTrash();
+        purger.shutdown();
+    }
+
+    @Test
+    public void testFailedPurgeIsLogged() {
+        when(deletionEngine.purgeTrash()).thenReturn(left(new FailedOperation(List.of(new Problem("error")))));
+        var purger = new HdfsTrashPurger(
+                deletionEngine, new HdfsRemovalConfig(RemovalStrategy.DELETE, "/trash", 0, null, null));
+
+        purger.purge();
+
+        verify(deletionEngine).purgeTrash();
+    }
+}
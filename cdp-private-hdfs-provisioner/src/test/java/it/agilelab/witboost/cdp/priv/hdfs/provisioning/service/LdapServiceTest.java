@@ -1,16 +1,27 @@
 package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.LdapConfig;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPGroup;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPUser;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.ldaptive.*;
+import org.ldaptive.filter.FilterParser;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -143,4 +154,210 @@ public class LdapServiceTest {
             assertEquals(ex, p.cause().get());
         });
     }
+
+    @Test
+    public void testFindUsersByMailWithSingleSearch() throws LdapException {
+        String otherMail = "user2@email.com";
+        var searchResponse = SearchResponse.builder()
+                .entry(LdapEntry.builder()
+                        .dn("")
+                        .attributes(
+                                LdapAttribute.builder()
+                                        .name("cn")
+                                        .values("user1")
+                                        .build(),
+                                LdapAttribute.builder()
+                                        .name("mail")
+                                        .values("USER1@email.com")
+                                        .build())
+                        .build())
+                .build();
+        when(ldapConfig.userSearchFilter()).thenReturn("(mail={mail})");
+        when(ldapConfig.userAttributeName()).thenReturn("cn");
+        var searchRequest = ArgumentCaptor.forClass(SearchRequest.class);
+        when(searchOperation.execute(searchRequest.capture())).thenReturn(searchResponse);
+
+        var actualRes = ldapService.findUsersByMail(List.of(mail, otherMail));
+
+        assertEquals(2, actualRes.size());
+        assertEquals(
+                new CDPUser("user1", "USER1@email.com"),
+                actualRes.get(mail).get().get());
+        assertTrue(actualRes.get(otherMail).isRight());
+        assertTrue(actualRes.get(otherMail).get().isEmpty());
+        assertEquals(
+                FilterParser.parse("(|(mail=user1@email.com)(mail=user2@email.com))"),
+                searchRequest.getValue().getFilter());
+    }
+
+    @Test
+    public void testFindGroupsByNameInChunks() throws LdapException {
+        var searchResponse = SearchResponse.builder()
+                .entry(LdapEntry.builder()
+                        .dn("")
+                        .attributes(LdapAttribute.builder()
+                                .name("cn")
+                                .values(cnGroup)
+                                .build())
+                        .build())
+                .build();
+        when(ldapConfig.groupSearchFilter()).thenReturn("(&(objectClass=groupOfNames)(cn={group}))");
+        when(ldapConfig.groupAttributeName()).thenReturn("cn");
+        when(ldapConfig.batchSize()).thenReturn(2);
+        when(searchOperation.execute(any(SearchRequest.class))).thenReturn(searchResponse);
+
+        var actualRes = ldapService.findGroupsByName(List.of(cnGroup, "group2", "group3"));
+
+        assertEquals(3, actualRes.size());
+        assertEquals(new CDPGroup(cnGroup), actualRes.get(cnGroup).get().get());
+        assertTrue(actualRes.get("group2").get().isEmpty());
+        assertTrue(actualRes.get("group3").get().isEmpty());
+        verify(searchOperation, times(2)).execute(any(SearchRequest.class));
+    }
+
+    @Test
+    public void testFindGroupsByNameMatchesTheAttributeOfTheFilter() throws LdapException {
+        var searchResponse = SearchResponse.builder()
+                .entry(LdapEntry.builder()
+                        .dn("")
+                        .attributes(
+                                LdapAttribute.builder()
+                                        .name("cn")
+                                        .values("Group One")
+                                        .build(),
+                                LdapAttribute.builder()
+                                        .name("sAMAccountName")
+                                        .values(cnGroup)
+                                        .build())
+                        .build())
+                .build();
+        when(ldapConfig.groupSearchFilter()).thenReturn("(&(objectClass=group)(sAMAccountName={group}))");
+        when(ldapConfig.groupAttributeName()).thenReturn("cn");
+        when(searchOperation.execute(any(SearchRequest.class))).thenReturn(searchResponse);
+
+        var actualRes = ldapService.findGroupsByName(List.of(cnGroup, "group2"));
+
+        assertEquals(new CDPGroup("Group One"), actualRes.get(cnGroup).get().get());
+        assertTrue(actualRes.get("group2").get().isEmpty());
+        verify(searchOperation, times(1)).execute(any(SearchRequest.class));
+    }
+
+    @Test
+    public void testFindGroupsByNameWithFilterNotBatchable() throws LdapException {
+        var searchResponse = SearchResponse.builder()
+                .entry(LdapEntry.builder()
+                        .dn("")
+                        .attributes(LdapAttribute.builder()
+                                .name("cn")
+                                .values("prefix-" + cnGroup)
+                                .build())
+                        .build())
+                .build();
+        when(ldapConfig.groupSearchFilter()).thenReturn("(cn=prefix-{group})");
+        when(ldapConfig.groupAttributeName()).thenReturn("cn");
+        when(searchOperation.execute(any(SearchRequest.class))).thenReturn(searchResponse);
+
+        var actualRes = ldapService.findGroupsByName(List.of(cnGroup, "group2"));
+
+        assertEquals(
+                new CDPGroup("prefix-" + cnGroup), actualRes.get(cnGroup).get().get());
+        verify(searchOperation, times(2)).execute(any(SearchRequest.class));
+    }
+
+    @Test
+    public void testFilterAttributes() {
+        assertEquals(
+                List.of("cn"), LdapServiceImpl.filterAttributes("(&(objectClass=groupOfNames)(cn={group}))", "group"));
+        assertEquals(
+                List.of("cn", "sAMAccountName"),
+                LdapServiceImpl.filterAttributes("(|(cn={group})(sAMAccountName={group}))", "group"));
+        assertEquals(List.of(), LdapServiceImpl.filterAttributes("(|(cn={group})(description=*{group}*))", "group"));
+        assertEquals(List.of(), LdapServiceImpl.filterAttributes("(objectClass=group)", "group"));
+    }
+
+    @Test
+    public void testFindUsersByMailReturnErrorForWholeChunk() throws LdapException {
+        LdapException ex = new LdapException(ResultCode.TIME_LIMIT_EXCEEDED, "");
+        when(ldapConfig.userSearchFilter()).thenReturn("(mail={mail})");
+        when(searchOperation.execute(any(SearchRequest.class))).thenThrow(ex);
+        String expectedDesc =
+                "An error occurred while searching for the users 'user1@email.com, user2@email.com' on LDAP. Please try again and if the error persists contact the platform team. Details: ";
+
+        var actualRes = ldapService.findUsersByMail(List.of(mail, "user2@email.com"));
+
+        assertEquals(2, actualRes.size());
+        actualRes.values().forEach(res -> {
+            assertTrue(res.isLeft());
+            assertTrue(res.getLeft().problems().get(0).description().startsWith(expectedDesc));
+            assertEquals(ex, res.getLeft().problems().get(0).cause().get());
+        });
+    }
+
+    @Test
+    public void testFindUsersByMailSearchesChunksConcurrently() throws LdapException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        var concurrentLdapService = new LdapServiceImpl(searchOperation, ldapConfig, executor);
+        var bothSearchesStarted = new CountDownLatch(2);
+        when(ldapConfig.userSearchFilter()).thenReturn("(mail={mail})");
+        when(ldapConfig.batchSize()).thenReturn(1);
+        when(ldapConfig.concurrentLookups()).thenReturn(true);
+        when(searchOperation.execute(any(SearchRequest.class))).thenAnswer(invocation -> {
+            bothSearchesStarted.countDown();
+            // completes only if the other chunk is searched at the same time
+            if (!bothSearchesStarted.await(5, TimeUnit.SECONDS))
+                throw new LdapException(ResultCode.TIME_LIMIT_EXCEEDED, "");
+            return SearchResponse.builder().build();
+        });
+
+        var actualRes = assertTimeoutPreemptively(
+                Duration.ofSeconds(10), () -> concurrentLdapService.findUsersByMail(List.of(mail, "user2@email.com")));
+
+        assertEquals(2, actualRes.size());
+        actualRes.values().forEach(res -> assertTrue(res.isRight()));
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testFindUsersAndGroupsSearchesUsersAndGroupsConcurrently() throws LdapException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        var concurrentLdapService = new LdapServiceImpl(searchOperation, ldapConfig, executor);
+        var bothSearchesStarted = new CountDownLatch(2);
+        when(ldapConfig.userSearchFilter()).thenReturn("(mail={mail})");
+        when(ldapConfig.groupSearchFilter()).thenReturn("(cn={group})");
+        when(ldapConfig.concurrentLookups()).thenReturn(true);
+        when(searchOperation.execute(any(SearchRequest.class))).thenAnswer(invocation -> {
+            bothSearchesStarted.countDown();
+            // completes only if the users and the groups are searched at the same time
+            if (!bothSearchesStarted.await(5, TimeUnit.SECONDS))
+                throw new LdapException(ResultCode.TIME_LIMIT_EXCEEDED, "");
+            return SearchResponse.builder().build();
+        });
+
+        var actualRes = assertTimeoutPreemptively(
+                Duration.ofSeconds(10),
+                () -> concurrentLdapService.findUsersAndGroups(List.of(mail), List.of(cnGroup)));
+
+        assertTrue(actualRes._1().get(mail).isRight());
+        assertTrue(actualRes._2().get(cnGroup).isRight());
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testFindUsersByMailSpreadsTheValuesOverTheConnections() throws LdapException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        var concurrentLdapService = new LdapServiceImpl(searchOperation, ldapConfig, executor);
+        when(ldapConfig.userSearchFilter()).thenReturn("(mail={mail})");
+        when(ldapConfig.concurrentLookups()).thenReturn(true);
+        when(ldapConfig.maxPoolSize()).thenReturn(2);
+        when(searchOperation.execute(any(SearchRequest.class)))
+                .thenReturn(SearchResponse.builder().build());
+
+        var actualRes = concurrentLdapService.findUsersByMail(
+                List.of(mail, "user2@email.com", "user3@email.com", "user4@email.com"));
+
+        assertEquals(4, actualRes.size());
+        // the default batch size would fit all the values in a single search
+        verify(searchOperation, times(2)).execute(any(SearchRequest.class));
+        executor.shutdownNow();
+    }
 }
@@ -0,0 +1,298 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsChunkedDeletionConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsNativeConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig.RemovalStrategy;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.KerberosConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.HdfsFileStatuses;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.DFSConfigKeys;
+import org.apache.hadoop.hdfs.MiniDFSCluster;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class NativeHdfsServiceImplTest {
+
+    private static final KerberosConfig kerberosConfig = new KerberosConfig(null, null, null);
+
+    private static MiniDFSCluster cluster;
+    private static FileSystem fs;
+
+    private final List<NativeHdfsServiceImpl> services = new ArrayList<>();
+
+    @BeforeAll
+    static void startCluster() throws IOException {
+        Configuration conf = new Configuration();
+        conf.set(
+                MiniDFSCluster.HDFS_MINIDFS_BASEDIR, new File("target/minidfs-" + System.nanoTime()).getAbsolutePath());
+        // small pages, to exercise the listing in batches
+        conf.setInt(DFSConfigKeys.DFS_LIST_LIMIT, 2);
+        cluster = new MiniDFSCluster.Builder(conf).numDataNodes(1).build();
+        cluster.waitActive();
+        fs = cluster.getFileSystem();
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        if (cluster != null) cluster.shutdown(true);
+    }
+
+    @BeforeEach
+    void cleanUp() throws IOException {
+        for (var status : fs.listStatus(new Path("/"))) fs.delete(status.getPath(), true);
+    }
+
+    @AfterEach
+    void closeServices() {
+        services.forEach(NativeHdfsServiceImpl::shutdown);
+    }
+
+    @Test
+    public void testCreateFolder() throws IOException {
+        var hdfsService = service(new HdfsRemovalConfig(RemovalStrategy.DELETE, null, null, null, null));
+
+        var actualRes = hdfsService.createFolder("/data/my/folder");
+
+        assertTrue(actualRes.isRight());
+        assertEquals("/data/my/folder", actualRes.get());
+        assertTrue(fs.getFileStatus(new Path("/data/my/folder")).isDirectory());
+    }
+
+    @Test
+    public void testCreateFolderOverAFile() throws IOException {
+        var hdfsService = service(new HdfsRemovalConfig(RemovalStrategy.DELETE, null, null, null, null));
+        fs.create(new Path("/data/file")).close();
+
+        var actualRes = hdfsService.createFolder("/data/file");
+
+        assertTrue(actualRes.isLeft());
+        var problem = actualRes.getLeft().problems().get(0);
+        assertTrue(problem.description().startsWith("Failed to create the folder '/data/file'"));
+        assertTrue(problem.cause().isPresent());
+    }
+
+    @Test
+    public void testDeleteFolder() throws IOException {
+        var hdfsService = service(new HdfsRemovalConfig(RemovalStrategy.DELETE, null, null, null, null));
+        fs.mkdirs(new Path("/data/my/folder/sub"));
+        fs.create(new Path("/data/my/folder/sub/file")).close();
+
+        var actualRes = hdfsService.deleteFolder("/data/my/folder");
+
+        assertTrue(actualRes.isRight());
+        assertEquals("/data/my/folder", actualRes.get());
+        assertFalse(fs.exists(new Path("/data/my/folder")));
+    }
+
+    @Test
+    public void testDeleteFolderAlreadyDeleted() {
+        var hdfsService = service(new HdfsRemovalConfig(RemovalStrategy.DELETE, null, null, null, null));
+
+        var actualRes = hdfsService.deleteFolder("/data/missing");
+
+        assertTrue(actualRes.isRight());
+        assertEquals("/data/missing", actualRes.get());
+    }
+
+    @Test
+    public void testListFolderBatchPagesTheEntries() throws IOException {
+        var hdfsService = service(new HdfsRemovalConfig(RemovalStrategy.DELETE, null, null, null, null));
+        fs.mkdirs(new Path("/data/a/child"));
+        fs.create(new Path("/data/b")).close();
+        fs.create(new Path("/data/c")).close();
+
+        var firstPage = hdfsService.listFolderBatch("/data", Optional.empty());
+        var secondPage = hdfsService.listFolderBatch("/data", Optional.of("b"));
+
+        assertTrue(firstPage.isRight());
+        assertEquals(
+                List.of("a", "b"),
+                firstPage.get().entries().stream()
+                        .map(HdfsFileStatuses.FileStatus::getPathSuffix)
+                        .toList());
+        assertTrue(firstPage.get().entries().get(0).isNonEmptyDirectory());
+        assertEquals("FILE", firstPage.get().entries().get(1).getType());
+        assertTrue(firstPage.get().hasMore());
+        assertTrue(secondPage.isRight());
+        assertEquals("c", secondPage.get().entries().get(0).getPathSuffix());
+        assertFalse(secondPage.get().hasMore());
+    }
+
+    @Test
+    public void testListFolderBatchWithMissingFolder() {
+        var hdfsService = service(new HdfsRemovalConfig(RemovalStrategy.DELETE, null, null, null, null));
+
+        var actualRes = hdfsService.listFolderBatch("/data/missing", Optional.empty());
+
+        assertTrue(actualRes.isRight());
+        assertTrue(actualRes.get().entries().isEmpty());
+        assertFalse(actualRes.get().hasMore());
+    }
+
+    @Test
+    public void testChunkedRemovalOnTopOfTheNativeClient() throws IOException {
+        var removalConfig = new HdfsRemovalConfig(RemovalStrategy.CHUNKED, null, null, null, null);
+        var hdfsService = service(removalConfig);
+        for (int i = 0; i < 5; i++)
+            fs.create(new Path("/data/folder/sub/file" + i)).close();
+        fs.create(new Path("/data/folder/file")).close();
+        var engine = new HdfsDeletionEngine(hdfsService, removalConfig, new HdfsChunkedDeletionConfig(null, 2, 2));
+        List<String> progress = new ArrayList<>();
+
+        var actualRes = engine.removeFolder("/data/folder", progress::add);
+
+        engine.shutdown();
+        assertTrue(actualRes.isRight());
+        assertFalse(fs.exists(new Path("/data/folder")));
+        assertFalse(progress.isEmpty());
+    }
+
+    @Test
+    public void testDeleteFolderMovesItToTheTrashAndPurgeDeletesIt() throws IOException {
+        var removalConfig = new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, null, 10);
+        var hdfsService = service(removalConfig);
+        fs.mkdirs(new Path("/data/my/folder/sub"));
+        for (int i = 0; i < 5; i++)
+            fs.create(new Path("/data/my/folder/sub/file" + i)).close();
+        fs.create(new Path("/data/my/folder/file")).close();
+
+        var deleted = hdfsService.deleteFolder("/data/my/folder");
+
+        assertTrue(deleted.isRight());
+        assertFalse(fs.exists(new Path("/data/my/folder")));
+        var tombstones = fs.listStatus(new Path("/trash"));
+        assertEquals(1, tombstones.length);
+        assertTrue(tombstones[0].getPath().getName().contains("-data_my_folder-"));
+
+        var engine = new HdfsDeletionEngine(hdfsService, removalConfig, new HdfsChunkedDeletionConfig(null, 2, 2));
+        var purged = engine.purgeTrash();
+
+        engine.shutdown();
+        assertTrue(purged.isRight());
+        assertEquals(1, purged.get());
+        assertEquals(0, fs.listStatus(new Path("/trash")).length);
+    }
+
+    @Test
+    public void testPurgeTrashListsTheTrashInPages() throws IOException {
+        var removalConfig = new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, null, 10);
+        var hdfsService = service(removalConfig);
+        for (int i = 0; i < 5; i++) {
+            fs.mkdirs(new Path("/data/folder" + i));
+            hdfsService.deleteFolder("/data/folder" + i);
+        }
+        var engine = new HdfsDeletionEngine(hdfsService, removalConfig, new HdfsChunkedDeletionConfig(null, 2, 2));
+
+        var purged = engine.purgeTrash();
+
+        engine.shutdown();
+        assertTrue(purged.isRight());
+        assertEquals(5, purged.get());
+        assertEquals(0, fs.listStatus(new Path("/trash")).length);
+    }
+
+    @Test
+    public void testDeleteFolderWithTrashKeepsTheFlattenedPathsApart() throws IOException {
+        var hdfsService = service(new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, null, 10));
+        fs.mkdirs(new Path("/a/b_c"));
+        fs.mkdirs(new Path("/a_b/c"));
+
+        assertTrue(hdfsService.deleteFolder("/a/b_c").isRight());
+        assertTrue(hdfsService.deleteFolder("/a_b/c").isRight());
+
+        assertFalse(fs.exists(new Path("/a/b_c")));
+        assertFalse(fs.exists(new Path("/a_b/c")));
+        assertEquals(2, fs.listStatus(new Path("/trash")).length);
+    }
+
+    @Test
+    public void testDeleteFolderThatCannotBeMovedToTheTrashFails() throws IOException {
+        // a folder can't be moved into its own subtree
+        var hdfsService = service(new HdfsRemovalConfig(RemovalStrategy.TRASH, "/data/trash", 0, null, 10));
+        fs.mkdirs(new Path("/data/my/folder"));
+
+        var actualRes = hdfsService.deleteFolder("/data");
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(
+                actualRes.getLeft().problems().get(0).description().startsWith("Failed to remove the folder '/data'"));
+        assertTrue(fs.exists(new Path("/data/my/folder")));
+    }
+
+    @Test
+    public void testDeleteFolderAlreadyDeletedWithTrash() {
+        var hdfsService = service(new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, null, 10));
+
+        var actualRes = hdfsService.deleteFolder("/data/missing");
+
+        assertTrue(actualRes.isRight());
+        assertEquals("/data/missing", actualRes.get());
+    }
+
+    @Test
+    public void testPurgeTrashKeepsTheFoldersWithinTheRetention() throws IOException {
+        var removalConfig = new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 3600000, null, 10);
+        var hdfsService = service(removalConfig);
+        fs.mkdirs(new Path("/data/my/folder"));
+        hdfsService.deleteFolder("/data/my/folder");
+        var engine = new HdfsDeletionEngine(hdfsService, removalConfig, new HdfsChunkedDeletionConfig(null, 2, 2));
+
+        var purged = engine.purgeTrash();
+
+        engine.shutdown();
+        assertTrue(purged.isRight());
+        assertEquals(0, purged.get());
+        assertEquals(1, fs.listStatus(new Path("/trash")).length);
+    }
+
+    @Test
+    public void testPurgeTrashWithMissingTrash() {
+        var removalConfig = new HdfsRemovalConfig(RemovalStrategy.TRASH, "/trash", 0, null, 10);
+        var engine = new HdfsDeletionEngine(
+                service(removalConfig), removalConfig, new HdfsChunkedDeletionConfig(null, 2, 2));
+
+        var actualRes = engine.purgeTrash();
+
+        engine.shutdown();
+        assertTrue(actualRes.isRight());
+        assertEquals(0, actualRes.get());
+    }
+
+    @Test
+    public void testUriMustPointToHdfs() {
+        var nativeConfig = new HdfsNativeConfig(true, "file:///", null, null);
+        var removalConfig = new HdfsRemovalConfig(RemovalStrategy.DELETE, null, null, null, null);
+
+        var ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> new NativeHdfsServiceImpl(nativeConfig, kerberosConfig, removalConfig));
+
+        assertEquals("hdfs.native.uri must point to an HDFS file system, found 'file:///'", ex.getMessage());
+    }
+
+    private NativeHdfsServiceImpl service(HdfsRemovalConfig removalConfig) {
+        var nativeConfig = new HdfsNativeConfig(
+                true, cluster.getURI().toString(), null, Map.of("dfs.client.retry.policy.enabled", "false"));
+        try {
+            var service = new NativeHdfsServiceImpl(nativeConfig, kerberosConfig, removalConfig);
+            services.add(service);
+            return service;
+        } catch (IOException | InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
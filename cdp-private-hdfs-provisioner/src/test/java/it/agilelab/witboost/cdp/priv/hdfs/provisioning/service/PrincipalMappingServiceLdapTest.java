@@ -4,6 +4,8 @@ import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.vavr.control.Option;
@@ -12,11 +14,14 @@ import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPGroup;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.CDPUser;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.ldaptive.LdapException;
 import org.ldaptive.ResultCode;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,7 +29,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 public class PrincipalMappingServiceLdapTest {
 
-    @Mock
+    // the batch lookup of users and groups delegates to the stubbed lookups of users and of groups
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private LdapService ldapService;
 
     @InjectMocks
@@ -40,7 +46,7 @@ public class PrincipalMappingServiceLdapTest {
     public void testMapExistingUser() {
         String userId = "name.surname";
         CDPUser cdpUser = new CDPUser(userId, mail);
-        when(ldapService.findUserByMail(mail)).thenReturn(right(Option.of(cdpUser)));
+        when(ldapService.findUsersByMail(Set.of(mail))).thenReturn(Map.of(mail, right(Option.of(cdpUser))));
 
         var actualRes = principalMappingService.map(Collections.singleton(witboostUserIdentity));
 
@@ -51,7 +57,7 @@ public class PrincipalMappingServiceLdapTest {
 
     @Test
     public void testMapNotExistingUser() {
-        when(ldapService.findUserByMail(mail)).thenReturn(right(Option.none()));
+        when(ldapService.findUsersByMail(Set.of(mail))).thenReturn(Map.of(mail, right(Option.none())));
         String expectedDesc = "The user name.surname@example.com was not found on LDAP";
 
         var actualRes = principalMappingService.map(Collections.singleton(witboostUserIdentity));
@@ -67,8 +73,8 @@ public class PrincipalMappingServiceLdapTest {
 
     @Test
     public void testMapUserWithError() {
-        when(ldapService.findUserByMail(mail))
-                .thenReturn(left(new FailedOperation(Collections.singletonList(expectedProblem))));
+        when(ldapService.findUsersByMail(Set.of(mail)))
+                .thenReturn(Map.of(mail, left(new FailedOperation(Collections.singletonList(expectedProblem)))));
 
         var actualRes = principalMappingService.map(Collections.singleton(witboostUserIdentity));
 
@@ -81,7 +87,7 @@ public class PrincipalMappingServiceLdapTest {
     @Test
     public void testMapExistingGroup() {
         CDPGroup cdpGroup = new CDPGroup(groupName);
-        when(ldapService.findGroupByName(groupName)).thenReturn(right(Option.of(cdpGroup)));
+        when(ldapService.findGroupsByName(Set.of(groupName))).thenReturn(Map.of(groupName, right(Option.of(cdpGroup))));
 
         var actualRes = principalMappingService.map(Collections.singleton(witboostGroupIdentity));
 
@@ -92,7 +98,7 @@ public class PrincipalMappingServiceLdapTest {
 
     @Test
     public void testMapNotExistingGroup() {
-        when(ldapService.findGroupByName(groupName)).thenReturn(right(Option.none()));
+        when(ldapService.findGroupsByName(Set.of(groupName))).thenReturn(Map.of(groupName, right(Option.none())));
         String expectedDesc = "The group name was not found on LDAP";
 
         var actualRes = principalMappingService.map(Collections.singleton(witboostGroupIdentity));
@@ -109,8 +115,8 @@ public class PrincipalMappingServiceLdapTest {
 
     @Test
     public void testMapGroupWithError() {
-        when(ldapService.findGroupByName(groupName))
-                .thenReturn(left(new FailedOperation(Collections.singletonList(expectedProblem))));
+        when(ldapService.findGroupsByName(Set.of(groupName)))
+                .thenReturn(Map.of(groupName, left(new FailedOperation(Collections.singletonList(expectedProblem)))));
 
         var actualRes = principalMappingService.map(Collections.singleton(witboostGroupIdentity));
 
@@ -140,8 +146,8 @@ public class PrincipalMappingServiceLdapTest {
         String userId = "name.surname";
         CDPUser cdpUser = new CDPUser(userId, mail);
         CDPGroup cdpGroup = new CDPGroup(groupName);
-        when(ldapService.findUserByMail(mail)).thenReturn(right(Option.of(cdpUser)));
-        when(ldapService.findGroupByName(groupName)).thenReturn(right(Option.of(cdpGroup)));
+        when(ldapService.findUsersByMail(Set.of(mail))).thenReturn(Map.of(mail, right(Option.of(cdpUser))));
+        when(ldapService.findGroupsByName(Set.of(groupName))).thenReturn(Map.of(groupName, right(Option.of(cdpGroup))));
 
         var actualRes = principalMappingService.map(Set.of(witboostUserIdentity, witboostGroupIdentity));
 
@@ -166,4 +172,22 @@ public class PrincipalMappingServiceLdapTest {
         assertEquals(1, actualRes.get(wrongUserIdentity).getLeft().problems().size());
         actualRes.get(wrongUserIdentity).getLeft().problems().forEach(p -> assertEquals(expectedWrongProblem, p));
     }
+
+    @Test
+    public void testMapManyUsersWithSingleLookup() {
+        String otherIdentity = "user:other.surname_example.com";
+        String otherMail = "other.surname@example.com";
+        CDPUser cdpUser = new CDPUser("name.surname", mail);
+        when(ldapService.findUsersByMail(Set.of(mail, otherMail)))
+                .thenReturn(Map.of(mail, right(Option.of(cdpUser)), otherMail, right(Option.none())));
+
+        var actualRes = principalMappingService.map(Set.of(witboostUserIdentity, otherIdentity));
+
+        assertEquals(cdpUser, actualRes.get(witboostUserIdentity).get());
+        assertTrue(actualRes.get(otherIdentity).isLeft());
+        assertEquals(
+                List.of(new Problem("The user other.surname@example.com was not found on LDAP")),
+                actualRes.get(otherIdentity).getLeft().problems());
+        verify(ldapService, times(1)).findUsersByMail(Set.of(mail, otherMail));
+    }
 }
@@ -0,0 +1,257 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.sun.jersey.api.client.ClientResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.RangerRetryConfig;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.ranger.RangerClient;
+import org.apache.ranger.RangerServiceException;
+import org.junit.jupiter.api.Test;
+
+public class RangerRetryPolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock();
+    private final List<Long> sleeps = new ArrayList<>();
+
+    private RangerRetryPolicy policy(RangerRetryConfig config, double random) {
+        return new RangerRetryPolicy(
+                config,
+                meterRegistry,
+                clock,
+                millis -> {
+                    sleeps.add(millis);
+                    clock.now += millis;
+                },
+                () -> random);
+    }
+
+    private RangerRetryConfig config(int maxAttempts, Integer budget, Map<String, Integer> budgets) {
+        return new RangerRetryConfig(
+                maxAttempts, 100, 1000, 2.0, 0.0, budget, budgets, List.of(503), List.of("deadlock", "lock wait"));
+    }
+
+    private static RangerServiceException error(int statusCode, String body) {
+        ClientResponse response = mock(ClientResponse.class);
+        when(response.getStatus()).thenReturn(statusCode);
+        when(response.getEntity(String.class)).thenReturn(body);
+        return new RangerServiceException(RangerClient.UPDATE_ZONE_BY_ID, response);
+    }
+
+    private static RangerRetryPolicy.RangerCall<String> failing(
+            AtomicInteger calls, int failures, Exception... errors) {
+        return () -> {
+            int call = calls.getAndIncrement();
+            if (call < failures) throw (RangerServiceException) errors[Math.min(call, errors.length - 1)];
+            return "ok";
+        };
+    }
+
+    private double calls(String outcome) {
+        var counter = meterRegistry
+                .find("ranger.client.calls")
+                .tags("operation", "updateSecurityZone", "outcome", outcome)
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @Test
+    public void testSuccessIsNotRetried() throws RangerServiceException {
+        var calls = new AtomicInteger();
+        var policy = policy(config(3, null, null), 0);
+
+        var res = policy.execute("updateSecurityZone", failing(calls, 0));
+
+        assertEquals("ok", res);
+        assertEquals(1, calls.get());
+        assertTrue(sleeps.isEmpty());
+        assertEquals(1, calls(RangerRetryPolicy.OUTCOME_SUCCESS));
+    }
+
+    @Test
+    public void testLockErrorIsRetriedWithExponentialBackoff() throws RangerServiceException {
+        var calls = new AtomicInteger();
+        var policy = policy(config(5, null, null), 0);
+        var lockError = error(400, "Lock wait timeout exceeded; try restarting transaction");
+
+        var res = policy.execute("updateSecurityZone", failing(calls, 3, lockError));
+
+        assertEquals("ok", res);
+        assertEquals(4, calls.get());
+        assertEquals(List.of(100L, 200L, 400L), sleeps);
+        assertEquals(1, calls(RangerRetryPolicy.OUTCOME_RECOVERED));
+        assertEquals(
+                3,
+                meterRegistry
+                        .find("ranger.client.retries")
+                        .tag("operation", "updateSecurityZone")
+                        .counter()
+                        .count());
+    }
+
+    @Test
+    public void testRetryableStatusCodeIsRetried() throws RangerServiceException {
+        var calls = new AtomicInteger();
+        var policy = policy(config(2, null, null), 0);
+
+        var res = policy.execute("updateSecurityZone", failing(calls, 1, error(503, "")));
+
+        assertEquals("ok", res);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testAttemptsAreExhausted() {
+        var calls = new AtomicInteger();
+        var policy = policy(config(3, null, null), 0);
+        var lockError = error(500, "Deadlock found when trying to get lock");
+
+        var ex = assertThrows(
+                RangerServiceException.class,
+                () -> policy.execute("updateSecurityZone", failing(calls, 10, lockError)));
+
+        assertSame(lockError, ex);
+        assertEquals(3, calls.get());
+        assertEquals(List.of(100L, 200L), sleeps);
+        assertEquals(1, calls(RangerRetryPolicy.OUTCOME_EXHAUSTED));
+    }
+
+    @Test
+    public void testNonRetryableErrorIsNotRetried() {
+        var calls = new AtomicInteger();
+        var policy = policy(config(3, null, null), 0);
+        var badRequest = error(400, "Invalid security zone");
+
+        var ex = assertThrows(
+                RangerServiceException.class,
+                () -> policy.execute("updateSecurityZone", failing(calls, 10, badRequest)));
+
+        assertSame(badRequest, ex);
+        assertEquals(1, calls.get());
+        assertEquals(1, calls(RangerRetryPolicy.OUTCOME_FAILED));
+    }
+
+    @Test
+    public void testNotFoundAndErrorsWithoutResponseAreNotRetryable() {
+        var policy =
+                policy(new RangerRetryConfig(3, 100, 1000, 2.0, 0.0, null, null, List.of(404), List.of("lock")), 0);
+
+        assertFalse(policy.isRetryable("updateSecurityZone", error(404, "lock")));
+        assertFalse(policy.isRetryable(
+                "updateSecurityZone", new RangerServiceException(new IOException("Read timed out (lock)"))));
+        assertTrue(policy.isRetryable("updateSecurityZone", error(400, "ObjectOptimisticLockingFailureException")));
+    }
+
+    @Test
+    public void testCreationsAreRetriedOnlyOnLockMessages() {
+        var policy = policy(config(3, null, null), 0);
+
+        assertTrue(policy.isRetryable("updatePolicy", error(503, "Service Unavailable")));
+        assertFalse(policy.isRetryable("createPolicy", error(503, "Service Unavailable")));
+        assertFalse(policy.isRetryable("createSecurityZone", error(503, "Service Unavailable")));
+        assertFalse(policy.isRetryable("createRole", error(503, "Service Unavailable")));
+        assertTrue(policy.isRetryable("createRole", error(400, "Lock wait timeout exceeded")));
+    }
+
+    @Test
+    public void testCreationFailingWithStatusCodeIsNotRetried() {
+        var calls = new AtomicInteger();
+        var policy = policy(config(3, null, null), 0);
+        var unavailable = error(503, "Service Unavailable");
+
+        var ex = assertThrows(
+                RangerServiceException.class, () -> policy.execute("createPolicy", failing(calls, 10, unavailable)));
+
+        assertSame(unavailable, ex);
+        assertEquals(1, calls.get());
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    public void testBudgetStopsRetries() {
+        var calls = new AtomicInteger();
+        var policy = policy(config(10, 350, null), 0);
+        var lockError = error(400, "deadlock");
+
+        assertThrows(
+                RangerServiceException.class,
+                () -> policy.execute("updateSecurityZone", failing(calls, 10, lockError)));
+
+        // 100 + 200 ms fit the budget, the following 400 ms don't
+        assertEquals(List.of(100L, 200L), sleeps);
+        assertEquals(3, calls.get());
+        assertEquals(1, calls(RangerRetryPolicy.OUTCOME_EXHAUSTED));
+    }
+
+    @Test
+    public void testOperationBudgetOverridesDefaultBudget() throws RangerServiceException {
+        var calls = new AtomicInteger();
+        var policy = policy(config(10, 50, Map.of("updateSecurityZone", 1000)), 0);
+        var lockError = error(400, "deadlock");
+
+        var res = policy.execute("updateSecurityZone", failing(calls, 3, lockError));
+
+        assertEquals("ok", res);
+        assertEquals(List.of(100L, 200L, 400L), sleeps);
+    }
+
+    @Test
+    public void testBackoffIsCappedAndJittered() {
+        var capped = policy(config(10, null, null), 0);
+        assertEquals(100, capped.backoff(1));
+        assertEquals(800, capped.backoff(4));
+        assertEquals(1000, capped.backoff(5));
+        assertEquals(1000, capped.backoff(20));
+
+        var jittered = policy(new RangerRetryConfig(10, 100, 1000, 2.0, 0.5, null, null, List.of(), List.of()), 0.5);
+        // half of the backoff is randomized, a random value of 0.5 removes a quarter of it
+        assertEquals(150, jittered.backoff(2));
+    }
+
+    @Test
+    public void testMissingConfigurationDisablesRetries() {
+        var calls = new AtomicInteger();
+        var policy = policy(new RangerRetryConfig(null, null, null, null, null, null, null, null, null), 0);
+        var lockError = error(400, "deadlock");
+
+        assertThrows(
+                RangerServiceException.class,
+                () -> policy.execute("updateSecurityZone", failing(calls, 10, lockError)));
+
+        assertEquals(1, calls.get());
+    }
+
+    private static class MutableClock extends Clock {
+        private long now = 0;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(now);
+        }
+    }
+}
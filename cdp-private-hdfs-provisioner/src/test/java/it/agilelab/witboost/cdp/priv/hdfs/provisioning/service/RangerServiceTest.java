@@ -6,7 +6,10 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 import com.sun.jersey.api.client.ClientResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.RangerRetryConfig;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.apache.ranger.RangerClient;
@@ -14,9 +17,9 @@ import org.apache.ranger.RangerServiceException;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerRole;
 import org.apache.ranger.plugin.model.RangerSecurityZone;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -25,7 +28,6 @@ public class RangerServiceTest {
     @Mock
     private RangerClient rangerClient;
 
-    @InjectMocks
     private RangerServiceImpl rangerService;
 
     private final String securityZoneName = "my_sz_name";
@@ -52,6 +54,13 @@ public class RangerServiceTest {
         rangerRole.setId(roleId);
     }
 
+    @BeforeEach
+    public void setUp() {
+        var retryConfig = new RangerRetryConfig(3, 0, 0, 2.0, 0.0, null, null, List.of(503), List.of("deadlock"));
+        rangerService =
+                new RangerServiceImpl(rangerClient, new RangerRetryPolicy(retryConfig, new SimpleMeterRegistry()));
+    }
+
     @Test
     public void testFindSecurityZoneByNameWithExistingSZ() throws RangerServiceException {
         when(rangerClient.getSecurityZone(securityZoneName)).thenReturn(rangerSecurityZone);
@@ -98,6 +107,36 @@ public class RangerServiceTest {
         });
     }
 
+    @Test
+    public void testUpdateSecurityZoneRetriedOnLockError() throws RangerServiceException {
+        ClientResponse response = mock(ClientResponse.class);
+        when(response.getStatus()).thenReturn(ClientResponse.Status.BAD_REQUEST.getStatusCode());
+        when(response.getEntity(String.class)).thenReturn("Deadlock found when trying to get lock");
+        var ex = new RangerServiceException(UPDATE_ZONE_BY_ID, response);
+        when(rangerClient.updateSecurityZone(securityZoneId, rangerSecurityZone))
+                .thenThrow(ex)
+                .thenReturn(rangerSecurityZone);
+
+        var actualRes = rangerService.updateSecurityZone(rangerSecurityZone);
+
+        assertTrue(actualRes.isRight());
+        assertEquals(rangerSecurityZone, actualRes.get());
+        verify(rangerClient, times(2)).updateSecurityZone(securityZoneId, rangerSecurityZone);
+    }
+
+    @Test
+    public void testFindSecurityZoneByNameNotFoundIsNotRetried() throws RangerServiceException {
+        ClientResponse response = mock(ClientResponse.class);
+        when(response.getStatus()).thenReturn(ClientResponse.Status.NOT_FOUND.getStatusCode());
+        when(response.getEntity(String.class)).thenReturn("");
+        var ex = new RangerServiceException(GET_ZONE_BY_NAME, response);
+        when(rangerClient.getSecurityZone(securityZoneName)).thenThrow(ex);
+
+        rangerService.findSecurityZoneByName(securityZoneName);
+
+        verify(rangerClient, times(1)).getSecurityZone(securityZoneName);
+    }
+
     @Test
     public void testCreateSecurityZoneWithSuccess() throws RangerServiceException {
         when(rangerClient.createSecurityZone(rangerSecurityZone)).thenReturn(rangerSecurityZone);
@@ -197,6 +236,39 @@ public class RangerServiceTest {
         assertTrue(actualRes.get().isEmpty());
     }
 
+    @Test
+    public void testFindPoliciesInZone() throws RangerServiceException {
+        var filter = Map.of("serviceName", serviceName, "zoneName", securityZoneName);
+        when(rangerClient.findPolicies(filter)).thenReturn(Collections.singletonList(rangerPolicy));
+
+        var actualRes = rangerService.findPoliciesInZone(serviceName, securityZoneName);
+
+        assertTrue(actualRes.isRight());
+        assertEquals(List.of(rangerPolicy), actualRes.get());
+    }
+
+    @Test
+    public void testFindPoliciesInZoneWithInternalError() throws RangerServiceException {
+        var filter = Map.of("serviceName", serviceName, "zoneName", securityZoneName);
+        ClientResponse response = mock(ClientResponse.class);
+        when(response.getStatus()).thenReturn(ClientResponse.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        when(response.getEntity(String.class)).thenReturn("");
+        var ex = new RangerServiceException(FIND_POLICIES, response);
+        when(rangerClient.findPolicies(filter)).thenThrow(ex);
+        var expectedDesc =
+                "An error occurred while searching for the policies of security zone 'my_sz_name' on Ranger. Please try again and if the error persists contact the platform team. Details: ";
+
+        var actualRes = rangerService.findPoliciesInZone(serviceName, securityZoneName);
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(1, actualRes.getLeft().problems().size());
+        actualRes.getLeft().problems().forEach(p -> {
+            assertTrue(p.description().startsWith(expectedDesc));
+            assertTrue(p.cause().isPresent());
+            assertEquals(ex, p.cause().get());
+        });
+    }
+
     @Test
     public void testFindPolicyByNameWithInternalError() throws RangerServiceException {
         var filter = Map.of("serviceName", serviceName, "policyName", policyName, "zoneName", securityZoneName);
@@ -0,0 +1,188 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig.RemovalStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.client.AutoConfigureWebClient;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+@RestClientTest({HdfsService.class, ActiveNameNodeResolver.class})
+@AutoConfigureWebClient(registerRestTemplate = true)
+@EnableConfigurationProperties({
+    HdfsConfig.class,
+    HdfsRemovalConfig.class,
+})
+@TestPropertySource(properties = {"hdfs.removal.strategy=TRASH"})
+public class TrashHdfsServiceTest {
+
+    private static final String TRUE = """
+            {"boolean": true}
+            """;
+    private static final String FALSE = """
+            {"boolean": false}
+            """;
+
+    @Autowired
+    private MockRestServiceServer server;
+
+    @Autowired
+    private HdfsService hdfsService;
+
+    @Autowired
+    private ActiveNameNodeResolver activeNameNodeResolver;
+
+    @BeforeEach
+    void setUp() {
+        server.reset();
+        activeNameNodeResolver.invalidate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.verify();
+    }
+
+    @Test
+    public void testDeleteFolderMovesItToTheTrash() {
+        setupActiveNN1();
+        server.expect(requestTo(startsWith("http://hdfs-host-1/webhdfs/v1/my/folder?op=RENAME&destination=/trash/")))
+                .andExpect(method(HttpMethod.PUT))
+                .andExpect(requestTo(matchesPattern(".*/trash/[0-9]+-my_folder-[0-9a-f-]{36}$")))
+                .andRespond(withSuccess(TRUE, MediaType.APPLICATION_JSON));
+
+        var actualRes = hdfsService.deleteFolder("/my/folder");
+
+        assertTrue(actualRes.isRight());
+        assertEquals("/my/folder", actualRes.get());
+    }
+
+    @Test
+    public void testDeleteFolderCreatesTheMissingTrash() {
+        setupActiveNN1();
+        server.expect(requestTo(startsWith("http://hdfs-host-1/webhdfs/v1/my/folder?op=RENAME")))
+                .andRespond(withSuccess(FALSE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/trash?op=MKDIRS"))
+                .andRespond(withSuccess(TRUE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(startsWith("http://hdfs-host-1/webhdfs/v1/my/folder?op=RENAME")))
+                .andRespond(withSuccess(TRUE, MediaType.APPLICATION_JSON));
+
+        var actualRes = hdfsService.deleteFolder("/my/folder");
+
+        assertTrue(actualRes.isRight());
+        assertEquals("/my/folder", actualRes.get());
+    }
+
+    @Test
+    public void testDeleteFolderAlreadyDeleted() {
+        setupActiveNN1();
+        server.expect(requestTo(startsWith("http://hdfs-host-1/webhdfs/v1/my/folder?op=RENAME")))
+                .andRespond(withSuccess(FALSE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/trash?op=MKDIRS"))
+                .andRespond(withSuccess(TRUE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(startsWith("http://hdfs-host-1/webhdfs/v1/my/folder?op=RENAME")))
+                .andRespond(withSuccess(FALSE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/my/folder?op=GETFILESTATUS"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        var actualRes = hdfsService.deleteFolder("/my/folder");
+
+        assertTrue(actualRes.isRight());
+        assertEquals("/my/folder", actualRes.get());
+    }
+
+    @Test
+    public void testDeleteFolderThatCannotBeMovedToTheTrashFails() {
+        setupActiveNN1();
+        server.expect(requestTo(startsWith("http://hdfs-host-1/webhdfs/v1/my/folder?op=RENAME")))
+                .andRespond(withSuccess(FALSE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/trash?op=MKDIRS"))
+                .andRespond(withSuccess(TRUE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(startsWith("http://hdfs-host-1/webhdfs/v1/my/folder?op=RENAME")))
+                .andRespond(withSuccess(FALSE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/my/folder?op=GETFILESTATUS"))
+                .andRespond(withSuccess("{\"FileStatus\": {\"type\": \"DIRECTORY\"}}", MediaType.APPLICATION_JSON));
+
+        var actualRes = hdfsService.deleteFolder("/my/folder");
+
+        assertTrue(actualRes.isLeft());
+        assertTrue(actualRes
+                .getLeft()
+                .problems()
+                .get(0)
+                .description()
+                .startsWith("Failed to remove the folder '/my/folder'"));
+    }
+
+    @Test
+    public void testDeleteFolderShouldReturnBadStatusCode() {
+        setupActiveNN1();
+        server.expect(requestTo(startsWith("http://hdfs-host-1/webhdfs/v1/my/folder?op=RENAME")))
+                .andRespond(withServerError());
+
+        var actualRes = hdfsService.deleteFolder("/my/folder");
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(1, actualRes.getLeft().problems().size());
+        var problem = actualRes.getLeft().problems().get(0);
+        assertTrue(problem.description().startsWith("Failed to remove the folder '/my/folder'"));
+        assertTrue(problem.cause().isPresent());
+    }
+
+    @Test
+    public void testDeleteRecursivelyBypassesTheTrash() {
+        setupActiveNN1();
+        server.expect(requestTo("http://hdfs-host-1/webhdfs/v1/trash/1000-my_folder?op=DELETE&recursive=true"))
+                .andExpect(method(HttpMethod.DELETE))
+                .andRespond(withSuccess(TRUE, MediaType.APPLICATION_JSON));
+
+        var actualRes = hdfsService.deleteRecursively("/trash/1000-my_folder");
+
+        assertTrue(actualRes.isRight());
+        assertEquals("/trash/1000-my_folder", actualRes.get());
+    }
+
+    @Test
+    public void testTrashStrategyRequiresTheTrashRoot() {
+        var config = new HdfsRemovalConfig(RemovalStrategy.TRASH, " ", null, null, null);
+        var hdfsConfig = new HdfsConfig("http://hdfs-host-1", "http://hdfs-host-2", null, null, 10, 60000, null);
+        var restTemplate = new RestTemplate();
+
+        var ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> new HdfsServiceImpl(restTemplate, new ActiveNameNodeResolver(restTemplate, hdfsConfig), config));
+
+        assertEquals("hdfs.removal.trashRoot is required by the TRASH removal strategy", ex.getMessage());
+    }
+
+    private void setupActiveNN1() {
+        String jmxRes =
+                """
+            {"beans" : [ {
+                                    "name" : "Hadoop:service=NameNode,name=NameNodeStatus",
+                                    "State" : "active"
+                                  } ]}
+             """;
+        server.expect(requestTo("http://hdfs-host-1/jmx?qry=Hadoop:service%3DNameNode,name%3DNameNodeStatus"))
+                .andRespond(withSuccess(jmxRes, MediaType.APPLICATION_JSON));
+    }
+}
@@ -168,12 +168,27 @@ public class OutputPortHandlerTest {
     public void testDestroyUpdateRoleOk() {
         DataProduct dp = new DataProduct();
         var provisionRequest = new ProvisionRequest<>(dp, outputPort, false);
-        when(rangerService.findRoleByName(anyString())).thenReturn(right(Optional.of(new RangerRole())));
+        var existingRole = new RangerRole();
+        existingRole.setUsers(List.of(new RangerRole.RoleMember("user1", false)));
+        when(rangerService.findRoleByName(anyString())).thenReturn(right(Optional.of(existingRole)));
         when(rangerService.updateRole(any())).thenReturn(right(new RangerRole()));
 
         var actualRes = outputPortHandler.destroy(provisionRequest);
 
         assertTrue(actualRes.isRight());
+        verify(rangerService).updateRole(any());
+    }
+
+    @Test
+    public void testDestroyRoleAlreadyEmptyIsNotUpdated() {
+        DataProduct dp = new DataProduct();
+        var provisionRequest = new ProvisionRequest<>(dp, outputPort, false);
+        when(rangerService.findRoleByName(anyString())).thenReturn(right(Optional.of(new RangerRole())));
+
+        var actualRes = outputPortHandler.destroy(provisionRequest);
+
+        assertTrue(actualRes.isRight());
+        verify(rangerService, never()).updateRole(any());
     }
 
     @Test
@@ -5,6 +5,8 @@ import static io.vavr.control.Either.right;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
@@ -121,6 +123,66 @@ public class ProvisionServiceTest {
         assertEquals(failedOperation, ex.getFailedOperation());
     }
 
+    @Test
+    public void testProvisionBatchOk() {
+        var batchProvisioningRequest = new BatchProvisioningRequest("", List.of("id1", "id2"));
+        StorageArea<Specific> storageArea1 = new StorageArea<>();
+        storageArea1.setKind("storage");
+        StorageArea<Specific> storageArea2 = new StorageArea<>();
+        storageArea2.setKind("storage");
+        List<ProvisionRequest<? extends Specific>> provisionRequests = List.of(
+                new ProvisionRequest<>(null, storageArea1, false), new ProvisionRequest<>(null, storageArea2, false));
+        when(validationService.validate(batchProvisioningRequest)).thenReturn(right(provisionRequests));
+        when(storageAreaHandler.createBatch(provisionRequests))
+                .thenReturn(right(Map.of("id1", "folder1", "id2", "folder2")));
+        var privateInfo = Map.of("id1", Map.of("path", "folder1"), "id2", Map.of("path", "folder2"));
+        var expectedRes = new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "")
+                .info(new Info(JsonNodeFactory.instance.objectNode(), privateInfo));
+
+        var actualRes = provisionService.provisionBatch(batchProvisioningRequest);
+
+        assertEquals(expectedRes, actualRes);
+    }
+
+    @Test
+    public void testProvisionBatchRejectsOutputPorts() {
+        var batchProvisioningRequest = new BatchProvisioningRequest("", List.of("id1", "id2"));
+        StorageArea<Specific> storageArea = new StorageArea<>();
+        storageArea.setId("id1");
+        storageArea.setKind("storage");
+        OutputPort<Specific> outputPort = new OutputPort<>();
+        outputPort.setId("id2");
+        outputPort.setKind("outputport");
+        List<ProvisionRequest<? extends Specific>> provisionRequests = List.of(
+                new ProvisionRequest<>(null, storageArea, false), new ProvisionRequest<>(null, outputPort, false));
+        when(validationService.validate(batchProvisioningRequest)).thenReturn(right(provisionRequests));
+        String expectedDesc =
+                "The component id2 of kind 'outputport' can't be provisioned in batch, only storage areas are supported";
+        var failedOperation = new FailedOperation(Collections.singletonList(new Problem(expectedDesc)));
+
+        var ex = assertThrows(
+                SpecificProvisionerValidationException.class,
+                () -> provisionService.provisionBatch(batchProvisioningRequest));
+        assertEquals(failedOperation, ex.getFailedOperation());
+    }
+
+    @Test
+    public void testProvisionBatchFailHandler() {
+        var batchProvisioningRequest = new BatchProvisioningRequest("", List.of("id1"));
+        StorageArea<Specific> storageArea = new StorageArea<>();
+        storageArea.setKind("storage");
+        List<ProvisionRequest<? extends Specific>> provisionRequests =
+                List.of(new ProvisionRequest<>(null, storageArea, false));
+        when(validationService.validate(batchProvisioningRequest)).thenReturn(right(provisionRequests));
+        var failedOperation = new FailedOperation(Collections.singletonList(new Problem("Error on Ranger")));
+        when(storageAreaHandler.createBatch(provisionRequests)).thenReturn(left(failedOperation));
+
+        var ex = assertThrows(
+                SpecificProvisionerValidationException.class,
+                () -> provisionService.provisionBatch(batchProvisioningRequest));
+        assertEquals(failedOperation, ex.getFailedOperation());
+    }
+
     @Test
     public void testProvisionOutputPortOk() {
         ProvisioningRequest provisioningRequest = new ProvisioningRequest();
@@ -188,7 +250,7 @@ public class ProvisionServiceTest {
         storageArea.setKind("storage");
         var provisionRequest = new ProvisionRequest<>(null, storageArea, false);
         when(validationService.validate(provisioningRequest)).thenReturn(right(provisionRequest));
-        when(storageAreaHandler.destroy(provisionRequest)).thenReturn(right(null));
+        when(storageAreaHandler.destroy(eq(provisionRequest), any())).thenReturn(right(null));
         var expectedRes = new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "");
 
         var actualRes = provisionService.unprovision(provisioningRequest);
@@ -205,7 +267,7 @@ public class ProvisionServiceTest {
         when(validationService.validate(provisioningRequest)).thenReturn(right(provisionRequest));
         String expectedDesc = "Error on Ranger";
         var failedOperation = new FailedOperation(Collections.singletonList(new Problem(expectedDesc)));
-        when(storageAreaHandler.destroy(provisionRequest)).thenReturn(left(failedOperation));
+        when(storageAreaHandler.destroy(eq(provisionRequest), any())).thenReturn(left(failedOperation));
 
         var ex = assertThrows(
                 SpecificProvisionerValidationException.class, () -> provisionService.unprovision(provisioningRequest));
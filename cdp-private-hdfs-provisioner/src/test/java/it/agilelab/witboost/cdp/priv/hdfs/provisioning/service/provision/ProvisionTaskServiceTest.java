@@ -0,0 +1,110 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.SpecificProvisionerValidationException;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.AsyncConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.DescriptorKind;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningStatus;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ProvisionTaskServiceTest {
+
+    @Mock
+    private ProvisionService provisionService;
+
+    private final List<Runnable> pendingTasks = new ArrayList<>();
+    private final ProvisioningRequest provisioningRequest =
+            new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "", false);
+
+    private ProvisionTaskService provisionTaskService;
+
+    @BeforeEach
+    void setUp() {
+        provisionTaskService = new ProvisionTaskService(
+                provisionService, pendingTasks::add, new AsyncConfig(true, 1, 1, 60000, 100, 60000, 100));
+    }
+
+    @Test
+    public void testProvisionIsRunningUntilCompleted() {
+        var completed = new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "");
+        when(provisionService.provision(provisioningRequest)).thenReturn(completed);
+
+        String token = provisionTaskService.provision(provisioningRequest);
+
+        assertEquals(
+                ProvisioningStatus.StatusEnum.RUNNING,
+                provisionTaskService.getStatus(token).get().getStatus());
+        pendingTasks.forEach(Runnable::run);
+        assertEquals(completed, provisionTaskService.getStatus(token).get());
+    }
+
+    @Test
+    public void testUnprovisionReportsItsProgress() {
+        var completed = new ProvisioningStatus(ProvisioningStatus.StatusEnum.COMPLETED, "");
+        var runningStatus = new AtomicReference<ProvisioningStatus>();
+        var token = new AtomicReference<String>();
+        when(provisionService.unprovision(eq(provisioningRequest), any())).thenAnswer(invocation -> {
+            Consumer<String> progress = invocation.getArgument(1);
+            progress.accept("10 entries deleted");
+            runningStatus.set(provisionTaskService.getStatus(token.get()).get());
+            return completed;
+        });
+
+        token.set(provisionTaskService.unprovision(provisioningRequest));
+        pendingTasks.forEach(Runnable::run);
+
+        assertEquals(
+                new ProvisioningStatus(ProvisioningStatus.StatusEnum.RUNNING, "10 entries deleted"),
+                runningStatus.get());
+        assertEquals(completed, provisionTaskService.getStatus(token.get()).get());
+    }
+
+    @Test
+    public void testUnprovisionValidationErrorIsFailed() {
+        var failedOperation = new FailedOperation(Collections.singletonList(new Problem("Invalid descriptor")));
+        when(provisionService.unprovision(eq(provisioningRequest), any()))
+                .thenThrow(new SpecificProvisionerValidationException(failedOperation));
+
+        String token = provisionTaskService.unprovision(provisioningRequest);
+        pendingTasks.forEach(Runnable::run);
+
+        var actualRes = provisionTaskService.getStatus(token).get();
+        assertEquals(ProvisioningStatus.StatusEnum.FAILED, actualRes.getStatus());
+        assertEquals("Invalid descriptor", actualRes.getResult());
+    }
+
+    @Test
+    public void testProvisionUnexpectedErrorIsFailed() {
+        when(provisionService.provision(provisioningRequest)).thenThrow(new NullPointerException("npe"));
+
+        String token = provisionTaskService.provision(provisioningRequest);
+        pendingTasks.forEach(Runnable::run);
+
+        var actualRes = provisionTaskService.getStatus(token).get();
+        assertEquals(ProvisioningStatus.StatusEnum.FAILED, actualRes.getStatus());
+        assertTrue(actualRes.getResult().endsWith("Details: npe"));
+    }
+
+    @Test
+    public void testUnknownToken() {
+        assertTrue(provisionTaskService.getStatus("unknown").isEmpty());
+    }
+}
@@ -1,31 +1,50 @@
 package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision;
 
+import static io.vavr.control.Either.left;
 import static io.vavr.control.Either.right;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.FailedOperation;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsChunkedDeletionConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.HdfsRemovalConfig;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.RangerConfig;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.*;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.HdfsDeletionEngine;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.HdfsService;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.PrincipalMappingService;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.RangerService;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerPolicyUtils;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerRoleUtils;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils.RangerSecurityZoneUtils;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerRole;
 import org.apache.ranger.plugin.model.RangerSecurityZone;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 
 @ExtendWith(MockitoExtension.class)
 public class StorageAreaHandlerTest {
@@ -42,7 +61,6 @@ public class StorageAreaHandlerTest {
     @Mock
     private RangerConfig rangerConfig;
 
-    @InjectMocks
     private StorageAreaHandler storageAreaHandler;
 
     private final ProvisionRequest<StorageSpecific> provisionRequest;
@@ -76,6 +94,22 @@ public class StorageAreaHandlerTest {
         provisionRequestNotSetSpecific = new ProvisionRequest<>(dp, storageAreaNotSetSpecific, true);
     }
 
+    @BeforeEach
+    public void setUp() {
+        // the Ranger upsert and the folder creation run one after the other in the test thread
+        storageAreaHandler = new StorageAreaHandler(
+                principalMappingService,
+                rangerService,
+                hdfsService,
+                new HdfsDeletionEngine(
+                        hdfsService,
+                        new HdfsRemovalConfig(null, null, null, null, null),
+                        new HdfsChunkedDeletionConfig(null, null, null)),
+                rangerConfig,
+                Runnable::run,
+                Runnable::run);
+    }
+
     @Test
     public void testCreateNotExistingEntitiesOk() {
         when(principalMappingService.map(Set.of("ownerUser", "group:ownerGroup")))
@@ -97,6 +131,90 @@ public class StorageAreaHandlerTest {
         assertTrue(actualRes.isRight());
     }
 
+    @Test
+    public void testCreateWritesTheRangerEntitiesOneAfterTheOther() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        var handler = new StorageAreaHandler(
+                principalMappingService,
+                rangerService,
+                hdfsService,
+                new HdfsDeletionEngine(
+                        hdfsService,
+                        new HdfsRemovalConfig(null, null, null, null, null),
+                        new HdfsChunkedDeletionConfig(null, null, null)),
+                rangerConfig,
+                pool,
+                pool);
+        AtomicInteger runningWrites = new AtomicInteger();
+        AtomicInteger maxRunningWrites = new AtomicInteger();
+        Answer<Object> write = i -> {
+            maxRunningWrites.accumulateAndGet(runningWrites.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            runningWrites.decrementAndGet();
+            return right(i.getArgument(0));
+        };
+        when(principalMappingService.map(Set.of("ownerUser", "group:ownerGroup")))
+                .thenReturn(Map.of("ownerUser", right(new CDPUser("", "")), "ownerGroup", right(new CDPGroup(""))));
+        when(rangerConfig.hdfsServiceName()).thenReturn("cm_hdfs");
+        when(rangerConfig.ownerTechnicalUser()).thenReturn("admin");
+        when(rangerService.findSecurityZoneByName(anyString())).thenReturn(right(Optional.empty()));
+        when(rangerService.findRoleByName(anyString())).thenReturn(right(Optional.empty()));
+        when(rangerService.findPolicyByName(anyString(), anyString(), any())).thenReturn(right(Optional.empty()));
+        when(rangerService.createSecurityZone(any())).thenAnswer(write);
+        when(rangerService.createRole(any())).thenAnswer(write);
+        when(rangerService.createPolicy(any())).thenAnswer(write);
+        when(hdfsService.createFolder(anyString())).thenReturn(right(""));
+
+        var actualRes = handler.create(provisionRequest);
+        pool.shutdown();
+
+        assertTrue(actualRes.isRight());
+        assertEquals(1, maxRunningWrites.get());
+        InOrder inOrder = inOrder(rangerService);
+        inOrder.verify(rangerService).createSecurityZone(any());
+        inOrder.verify(rangerService).createRole(argThat(r -> r.getName().equals("healthcare_vaccinations_0_owner")));
+        inOrder.verify(rangerService)
+                .createRole(argThat(r -> r.getName().equals("healthcare_vaccinations_0_storage_read")));
+        inOrder.verify(rangerService).createPolicy(any());
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCreateRangerAndHdfsErrorsAreAggregated() {
+        when(principalMappingService.map(Set.of("ownerUser", "group:ownerGroup")))
+                .thenReturn(Map.of("ownerUser", right(new CDPUser("", "")), "ownerGroup", right(new CDPGroup(""))));
+        when(rangerConfig.ownerTechnicalUser()).thenReturn("admin");
+        var rangerError = new FailedOperation(List.of(new Problem("ranger error")));
+        when(rangerService.findSecurityZoneByName(anyString())).thenReturn(left(rangerError));
+        var hdfsError = new FailedOperation(List.of(new Problem("hdfs error")));
+        when(hdfsService.createFolder(anyString())).thenReturn(left(hdfsError));
+
+        var actualRes = storageAreaHandler.create(provisionRequest);
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(
+                List.of("ranger error", "hdfs error"),
+                actualRes.getLeft().problems().stream()
+                        .map(Problem::description)
+                        .toList());
+    }
+
+    @Test
+    public void testCreateRangerErrorFailsEvenIfFolderIsCreated() {
+        when(principalMappingService.map(Set.of("ownerUser", "group:ownerGroup")))
+                .thenReturn(Map.of("ownerUser", right(new CDPUser("", "")), "ownerGroup", right(new CDPGroup(""))));
+        when(rangerConfig.ownerTechnicalUser()).thenReturn("admin");
+        var rangerError = new FailedOperation(List.of(new Problem("ranger error")));
+        when(rangerService.findSecurityZoneByName(anyString())).thenReturn(left(rangerError));
+        when(hdfsService.createFolder(anyString())).thenReturn(right("folder"));
+
+        var actualRes = storageAreaHandler.create(provisionRequest);
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(rangerError, actualRes.getLeft());
+        verify(rangerService, never()).createPolicy(any());
+    }
+
     @Test
     public void testCreateExistingEntitiesOk() {
         when(principalMappingService.map(Set.of("ownerUser", "group:ownerGroup")))
@@ -119,6 +237,181 @@ public class StorageAreaHandlerTest {
         assertTrue(actualRes.isRight());
     }
 
+    @Test
+    public void testCreateUnchangedEntitiesAreNotUpdated() {
+        when(principalMappingService.map(Set.of("ownerUser", "group:ownerGroup")))
+                .thenReturn(Map.of(
+                        "ownerUser", right(new CDPUser("owner", "")), "ownerGroup", right(new CDPGroup("group"))));
+        when(rangerConfig.hdfsServiceName()).thenReturn("cm_hdfs");
+        when(rangerConfig.ownerTechnicalUser()).thenReturn("admin");
+        String path = provisionRequest.component().getSpecific().getPath().get();
+        String rootFolder = provisionRequest.component().getSpecific().getRootFolder();
+        var zone = RangerSecurityZoneUtils.securityZone("healthcare_vaccinations_0", "cm_hdfs", "admin", rootFolder);
+        var ownerRole = RangerRoleUtils.rangerRole(
+                "healthcare_vaccinations_0_owner", List.of("owner"), List.of("group"), "admin");
+        var userRole =
+                RangerRoleUtils.rangerRole("healthcare_vaccinations_0_storage_read", List.of(), List.of(), "admin");
+        var policy = RangerPolicyUtils.rangerPolicy(
+                "healthcare_vaccinations_0_storage",
+                "healthcare_vaccinations_0",
+                path + "*",
+                "healthcare_vaccinations_0_owner",
+                "healthcare_vaccinations_0_storage_read",
+                "cm_hdfs");
+        when(rangerService.findSecurityZoneByName("healthcare_vaccinations_0")).thenReturn(right(Optional.of(zone)));
+        when(rangerService.findRoleByName("healthcare_vaccinations_0_owner")).thenReturn(right(Optional.of(ownerRole)));
+        when(rangerService.findRoleByName("healthcare_vaccinations_0_storage_read"))
+                .thenReturn(right(Optional.of(userRole)));
+        when(rangerService.findPolicyByName(anyString(), anyString(), any())).thenReturn(right(Optional.of(policy)));
+        when(hdfsService.createFolder(anyString())).thenReturn(right(""));
+
+        var actualRes = storageAreaHandler.create(provisionRequest);
+
+        assertTrue(actualRes.isRight());
+        verify(rangerService, never()).updateSecurityZone(any());
+        verify(rangerService, never()).updateRole(any());
+        verify(rangerService, never()).updatePolicy(any());
+    }
+
+    @Test
+    public void testCreateRepairsTheChangesMadeOnRanger() {
+        when(principalMappingService.map(Set.of("ownerUser", "group:ownerGroup")))
+                .thenReturn(Map.of(
+                        "ownerUser", right(new CDPUser("owner", "")), "ownerGroup", right(new CDPGroup("group"))));
+        when(rangerConfig.hdfsServiceName()).thenReturn("cm_hdfs");
+        when(rangerConfig.ownerTechnicalUser()).thenReturn("admin");
+        String path = provisionRequest.component().getSpecific().getPath().get();
+        String rootFolder = provisionRequest.component().getSpecific().getRootFolder();
+        var zone = RangerSecurityZoneUtils.securityZone("healthcare_vaccinations_0", "cm_hdfs", "admin", rootFolder);
+        var ownerRole = RangerRoleUtils.rangerRole(
+                "healthcare_vaccinations_0_owner", List.of("owner"), List.of("group"), "admin");
+        // an admin removed the owner group from the role after the first provisioning
+        var editedOwnerRole =
+                RangerRoleUtils.rangerRole("healthcare_vaccinations_0_owner", List.of("owner"), List.of(), "admin");
+        var userRole =
+                RangerRoleUtils.rangerRole("healthcare_vaccinations_0_storage_read", List.of(), List.of(), "admin");
+        var policy = RangerPolicyUtils.rangerPolicy(
+                "healthcare_vaccinations_0_storage",
+                "healthcare_vaccinations_0",
+                path + "*",
+                "healthcare_vaccinations_0_owner",
+                "healthcare_vaccinations_0_storage_read",
+                "cm_hdfs");
+        when(rangerService.findSecurityZoneByName("healthcare_vaccinations_0")).thenReturn(right(Optional.of(zone)));
+        when(rangerService.findRoleByName("healthcare_vaccinations_0_owner"))
+                .thenReturn(right(Optional.of(ownerRole)), right(Optional.of(editedOwnerRole)));
+        when(rangerService.findRoleByName("healthcare_vaccinations_0_storage_read"))
+                .thenReturn(right(Optional.of(userRole)));
+        when(rangerService.findPolicyByName(anyString(), anyString(), any())).thenReturn(right(Optional.of(policy)));
+        when(rangerService.updateRole(any())).thenAnswer(i -> right(i.getArgument(0)));
+        when(hdfsService.createFolder(anyString())).thenReturn(right(""));
+
+        var firstRes = storageAreaHandler.create(provisionRequest);
+        var secondRes = storageAreaHandler.create(provisionRequest);
+
+        assertTrue(firstRes.isRight());
+        assertTrue(secondRes.isRight());
+        verify(rangerService, times(2)).findRoleByName("healthcare_vaccinations_0_owner");
+        verify(rangerService, times(1)).updateRole(argThat(r -> r.getName().equals("healthcare_vaccinations_0_owner")));
+    }
+
+    @Test
+    public void testCreateBatchNotExistingEntitiesOk() {
+        when(principalMappingService.map(Set.of("ownerUser", "group:ownerGroup")))
+                .thenReturn(Map.of("ownerUser", right(new CDPUser("", "")), "ownerGroup", right(new CDPGroup(""))));
+        when(rangerConfig.hdfsServiceName()).thenReturn("cm_hdfs");
+        when(rangerConfig.ownerTechnicalUser()).thenReturn("admin");
+        when(rangerService.findSecurityZoneByName("healthcare_vaccinations_0")).thenReturn(right(Optional.empty()));
+        when(rangerService.createSecurityZone(any())).thenReturn(right(new RangerSecurityZone()));
+        when(rangerService.findRoleByName(anyString())).thenReturn(right(Optional.empty()));
+        when(rangerService.createRole(any())).thenReturn(right(new RangerRole()));
+        when(rangerService.findPoliciesInZone("cm_hdfs", "healthcare_vaccinations_0"))
+                .thenReturn(right(List.of()));
+        when(rangerService.createPolicy(any())).thenReturn(right(new RangerPolicy()));
+        when(hdfsService.createFolder(anyString())).thenAnswer(i -> right(i.getArgument(0)));
+        var otherStorageRequest = storageRequest("urn:dmb:cmp:healthcare:vaccinations:0:other-storage", "other");
+
+        var actualRes = storageAreaHandler.createBatch(List.of(provisionRequest, otherStorageRequest));
+
+        assertTrue(actualRes.isRight());
+        assertEquals(
+                Map.of(
+                        "urn:dmb:cmp:healthcare:vaccinations:0:storage",
+                        "myprefix/healthcare/data-products/vaccinations/0/storage",
+                        "urn:dmb:cmp:healthcare:vaccinations:0:other-storage",
+                        "myprefix/healthcare/data-products/vaccinations/0/other"),
+                actualRes.get());
+        verify(rangerService, times(1)).createSecurityZone(any());
+        verify(rangerService, times(3)).createRole(any());
+        verify(rangerService, times(2)).createPolicy(any());
+        verify(rangerService, never()).findPolicyByName(anyString(), anyString(), any());
+    }
+
+    @Test
+    public void testCreateBatchUpdatesOnlyChangedPolicies() {
+        when(principalMappingService.map(Set.of("ownerUser", "group:ownerGroup")))
+                .thenReturn(Map.of(
+                        "ownerUser", right(new CDPUser("owner", "")), "ownerGroup", right(new CDPGroup("group"))));
+        when(rangerConfig.hdfsServiceName()).thenReturn("cm_hdfs");
+        when(rangerConfig.ownerTechnicalUser()).thenReturn("admin");
+        String rootFolder = provisionRequest.component().getSpecific().getRootFolder();
+        var zone = RangerSecurityZoneUtils.securityZone("healthcare_vaccinations_0", "cm_hdfs", "admin", rootFolder);
+        when(rangerService.findSecurityZoneByName("healthcare_vaccinations_0")).thenReturn(right(Optional.of(zone)));
+        when(rangerService.findRoleByName("healthcare_vaccinations_0_owner"))
+                .thenReturn(right(Optional.of(RangerRoleUtils.rangerRole(
+                        "healthcare_vaccinations_0_owner", List.of("owner"), List.of("group"), "admin"))));
+        when(rangerService.findRoleByName("healthcare_vaccinations_0_storage_read"))
+                .thenReturn(right(Optional.of(RangerRoleUtils.rangerRole(
+                        "healthcare_vaccinations_0_storage_read", List.of(), List.of(), "admin"))));
+        when(rangerService.findRoleByName("healthcare_vaccinations_0_other_storage_read"))
+                .thenReturn(right(Optional.empty()));
+        when(rangerService.createRole(any())).thenReturn(right(new RangerRole()));
+        var unchangedPolicy = RangerPolicyUtils.rangerPolicy(
+                "healthcare_vaccinations_0_storage",
+                "healthcare_vaccinations_0",
+                provisionRequest.component().getSpecific().getPath().get() + "*",
+                "healthcare_vaccinations_0_owner",
+                "healthcare_vaccinations_0_storage_read",
+                "cm_hdfs");
+        var stalePolicy = RangerPolicyUtils.rangerPolicy(
+                "healthcare_vaccinations_0_other-storage",
+                "healthcare_vaccinations_0",
+                "/old/path*",
+                "healthcare_vaccinations_0_owner",
+                "healthcare_vaccinations_0_other_storage_read",
+                "cm_hdfs");
+        when(rangerService.findPoliciesInZone("cm_hdfs", "healthcare_vaccinations_0"))
+                .thenReturn(right(List.of(unchangedPolicy, stalePolicy)));
+        when(rangerService.updatePolicy(any())).thenReturn(right(new RangerPolicy()));
+        when(hdfsService.createFolder(anyString())).thenAnswer(i -> right(i.getArgument(0)));
+        var otherStorageRequest = storageRequest("urn:dmb:cmp:healthcare:vaccinations:0:other-storage", "other");
+
+        var actualRes = storageAreaHandler.createBatch(List.of(provisionRequest, otherStorageRequest));
+
+        assertTrue(actualRes.isRight());
+        verify(rangerService, never()).updateSecurityZone(any());
+        verify(rangerService, never()).updateRole(any());
+        verify(rangerService, times(1)).createRole(any());
+        verify(rangerService, times(1)).updatePolicy(argThat(p -> p.getName().equals(stalePolicy.getName())));
+        verify(rangerService, never()).createPolicy(any());
+    }
+
+    @Test
+    public void testCreateBatchDifferentDataProducts() {
+        when(principalMappingService.map(Set.of("ownerUser", "group:ownerGroup")))
+                .thenReturn(Map.of("ownerUser", right(new CDPUser("", "")), "ownerGroup", right(new CDPGroup(""))));
+        var otherDataProductRequest = storageRequest("urn:dmb:cmp:healthcare:cases:0:storage", "other");
+        String expectedDesc =
+                "The storage areas of a batch must belong to the same data product, found security zones [healthcare_vaccinations_0, healthcare_cases_0]";
+
+        var actualRes = storageAreaHandler.createBatch(List.of(provisionRequest, otherDataProductRequest));
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(1, actualRes.getLeft().problems().size());
+        assertEquals(expectedDesc, actualRes.getLeft().problems().get(0).description());
+        verifyNoInteractions(rangerService, hdfsService);
+    }
+
     @Test
     public void testDestroyNotExistingEntitiesOk() {
         when(rangerConfig.hdfsServiceName()).thenReturn("cm_hdfs");
@@ -200,4 +493,15 @@ public class StorageAreaHandlerTest {
                 List.of(new Problem("Updating Access Control Lists is not supported by the Storage Area Component")));
         assertEquals(expectedRes, actualRes);
     }
+
+    private ProvisionRequest<StorageSpecific> storageRequest(String componentId, String folder) {
+        StorageArea<StorageSpecific> storageArea = new StorageArea<>();
+        storageArea.setKind("storage");
+        storageArea.setId(componentId);
+        StorageSpecific storageSpecific = new StorageSpecific();
+        storageSpecific.setRootFolder("myprefix/healthcare/data-products/vaccinations/0");
+        storageSpecific.setFolder(folder);
+        storageArea.setSpecific(storageSpecific);
+        return new ProvisionRequest<>(provisionRequest.dataProduct(), storageArea, false);
+    }
 }
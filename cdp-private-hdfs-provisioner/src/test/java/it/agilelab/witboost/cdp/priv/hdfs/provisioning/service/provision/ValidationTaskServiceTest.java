@@ -0,0 +1,101 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.provision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.AsyncConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.DescriptorKind;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningRequest;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ValidationError;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ValidationResult;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ValidationStatus;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ValidationTaskServiceTest {
+
+    @Mock
+    private ProvisionService provisionService;
+
+    private final List<Runnable> pendingTasks = new ArrayList<>();
+    private final ProvisioningRequest provisioningRequest =
+            new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "descriptor", false);
+
+    private ValidationTaskService validationTaskService;
+
+    @BeforeEach
+    void setUp() {
+        validationTaskService = new ValidationTaskService(
+                provisionService, pendingTasks::add, new AsyncConfig(true, 1, 1, 60000, 100, 60000, 100));
+    }
+
+    @Test
+    public void testValidationIsRunningUntilCompleted() {
+        when(provisionService.validate(provisioningRequest)).thenReturn(new ValidationResult(true));
+
+        String token = validationTaskService.validate(provisioningRequest);
+
+        assertEquals(
+                ValidationStatus.StatusEnum.RUNNING,
+                validationTaskService.getStatus(token).get().getStatus());
+        pendingTasks.forEach(Runnable::run);
+        var actualRes = validationTaskService.getStatus(token).get();
+        assertEquals(ValidationStatus.StatusEnum.COMPLETED, actualRes.getStatus());
+        assertTrue(actualRes.getInfo().getPublicInfo().getValid());
+    }
+
+    @Test
+    public void testValidationResultIsCachedByDescriptor() {
+        var invalid = new ValidationResult(false).error(new ValidationError(Collections.singletonList("error")));
+        when(provisionService.validate(provisioningRequest)).thenReturn(invalid);
+
+        validationTaskService.validate(provisioningRequest);
+        pendingTasks.forEach(Runnable::run);
+        pendingTasks.clear();
+        String token = validationTaskService.validate(
+                new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "descriptor", false));
+
+        assertTrue(pendingTasks.isEmpty());
+        var actualRes = validationTaskService.getStatus(token).get();
+        assertEquals(ValidationStatus.StatusEnum.COMPLETED, actualRes.getStatus());
+        assertFalse(actualRes.getInfo().getPublicInfo().getValid());
+        verify(provisionService, times(1)).validate(provisioningRequest);
+    }
+
+    @Test
+    public void testDifferentDescriptorIsValidatedAgain() {
+        var otherRequest = new ProvisioningRequest(DescriptorKind.COMPONENT_DESCRIPTOR, "other", false);
+        when(provisionService.validate(provisioningRequest)).thenReturn(new ValidationResult(true));
+        when(provisionService.validate(otherRequest)).thenReturn(new ValidationResult(true));
+
+        validationTaskService.validate(provisioningRequest);
+        validationTaskService.validate(otherRequest);
+        pendingTasks.forEach(Runnable::run);
+
+        verify(provisionService, times(1)).validate(provisioningRequest);
+        verify(provisionService, times(1)).validate(otherRequest);
+    }
+
+    @Test
+    public void testUnexpectedErrorIsFailed() {
+        when(provisionService.validate(provisioningRequest)).thenThrow(new NullPointerException("npe"));
+
+        String token = validationTaskService.validate(provisioningRequest);
+        pendingTasks.forEach(Runnable::run);
+
+        var actualRes = validationTaskService.getStatus(token).get();
+        assertEquals(ValidationStatus.StatusEnum.FAILED, actualRes.getStatus());
+        assertFalse(actualRes.getInfo().getPublicInfo().getValid());
+    }
+}
@@ -0,0 +1,95 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.junit.jupiter.api.Test;
+
+public class RangerDiffUtilsTest {
+
+    @Test
+    public void testSameServicesWhenPathIsAlreadyInZone() {
+        var existingZone = RangerSecurityZoneUtils.securityZone("zone", "cm_hdfs", "admin", "/data/dp");
+        var existingServices = existingZone.getServices();
+
+        var desiredZone = RangerSecurityZoneUtils.securityZone(existingZone, "cm_hdfs", "/data/dp");
+
+        assertTrue(RangerDiffUtils.sameServices(existingServices, desiredZone));
+    }
+
+    @Test
+    public void testDifferentServicesWhenPathIsNew() {
+        var existingZone = RangerSecurityZoneUtils.securityZone("zone", "cm_hdfs", "admin", "/data/dp");
+        var existingServices = existingZone.getServices();
+
+        var desiredZone = RangerSecurityZoneUtils.securityZone(existingZone, "cm_hdfs", "/data/other");
+
+        assertFalse(RangerDiffUtils.sameServices(existingServices, desiredZone));
+    }
+
+    @Test
+    public void testSameMembersRegardlessOfOrder() {
+        var existingRole = RangerRoleUtils.rangerRole("role", List.of("u1", "u2"), List.of("g1"), "admin");
+        var existingUsers = new ArrayList<>(existingRole.getUsers());
+        Collections.reverse(existingUsers);
+        existingRole.setUsers(existingUsers);
+        var existingGroups = existingRole.getGroups();
+
+        var desiredRole = RangerRoleUtils.rangerRole(existingRole, List.of("u2", "u1"), List.of("g1"));
+
+        assertTrue(RangerDiffUtils.sameMembers(existingUsers, existingGroups, desiredRole));
+    }
+
+    @Test
+    public void testDifferentMembers() {
+        var existingRole = RangerRoleUtils.rangerRole("role", List.of("u1"), List.of("g1"), "admin");
+        var existingUsers = existingRole.getUsers();
+        var existingGroups = existingRole.getGroups();
+
+        var desiredRole = RangerRoleUtils.rangerRole(existingRole, List.of("u1"), List.of());
+
+        assertFalse(RangerDiffUtils.sameMembers(existingUsers, existingGroups, desiredRole));
+    }
+
+    @Test
+    public void testSamePolicy() {
+        var existingPolicy = policy("/data/dp/storage*");
+        existingPolicy.setId(42L);
+        existingPolicy.setVersion(3L);
+        existingPolicy.setDenyPolicyItems(null);
+
+        var desiredPolicy = RangerPolicyUtils.rangerPolicy(
+                existingPolicy, "prefix", "zone", "/data/dp/storage*", "owner", "user", "cm_hdfs");
+
+        assertTrue(RangerDiffUtils.samePolicy(existingPolicy, desiredPolicy));
+    }
+
+    @Test
+    public void testDifferentPolicyPath() {
+        var existingPolicy = policy("/data/dp/storage*");
+
+        var desiredPolicy = RangerPolicyUtils.rangerPolicy(
+                existingPolicy, "prefix", "zone", "/data/dp/other*", "owner", "user", "cm_hdfs");
+
+        assertFalse(RangerDiffUtils.samePolicy(existingPolicy, desiredPolicy));
+    }
+
+    @Test
+    public void testDifferentPolicyWhenExistingHasDenyItems() {
+        var existingPolicy = policy("/data/dp/storage*");
+        existingPolicy.setDenyPolicyItems(List.of(new RangerPolicy.RangerPolicyItem()));
+
+        var desiredPolicy = RangerPolicyUtils.rangerPolicy(
+                existingPolicy, "prefix", "zone", "/data/dp/storage*", "owner", "user", "cm_hdfs");
+
+        assertFalse(RangerDiffUtils.samePolicy(existingPolicy, desiredPolicy));
+    }
+
+    private static RangerPolicy policy(String folderPath) {
+        return RangerPolicyUtils.rangerPolicy("prefix", "zone", folderPath, "owner", "user", "cm_hdfs");
+    }
+}
@@ -0,0 +1,31 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class RangerNameSanitizerTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "healthcare_vaccinations_0_storage", "ABC_xyz_019"})
+    public void testSanitizeReturnsCleanNameItself(String name) {
+        assertSame(name, RangerNameSanitizer.sanitize(name));
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "healthcare_vaccinations-dp_0_storage",
+                "a.b:c d/e",
+                "-leading and trailing-",
+                "àccènted_nàme",
+                "emoji_😀_name",
+                "lone_\uD83D_surrogate",
+                "😀😀"
+            })
+    public void testSanitizeMatchesRegex(String name) {
+        assertEquals(name.replaceAll("[^A-Za-z0-9_]", "_"), RangerNameSanitizer.sanitize(name));
+    }
+}
@@ -0,0 +1,28 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.model.ComponentInfo;
+import org.junit.jupiter.api.Test;
+
+public class RangerNamingTest {
+
+    @Test
+    public void testOf() {
+        var componentInfo = new ComponentInfo("healthcare", "vaccinations-dp", "0", "storage");
+
+        var naming = RangerNaming.of(componentInfo);
+
+        assertEquals(componentInfo, naming.componentInfo());
+        assertEquals("healthcare_vaccinations_dp_0", naming.zoneName());
+        assertEquals("healthcare_vaccinations_dp_0_owner", naming.ownerRoleName());
+        assertEquals("healthcare_vaccinations_dp_0_storage_read", naming.userRoleName());
+        assertEquals("healthcare_vaccinations-dp_0_storage", naming.policyPrefix());
+        assertEquals("healthcare_vaccinations_dp_0_storage_access_policy", naming.policyName());
+    }
+
+    @Test
+    public void testPolicyFolderPath() {
+        assertEquals("/data/healthcare/vaccinations*", RangerNaming.policyFolderPath("/data/healthcare/vaccinations"));
+    }
+}
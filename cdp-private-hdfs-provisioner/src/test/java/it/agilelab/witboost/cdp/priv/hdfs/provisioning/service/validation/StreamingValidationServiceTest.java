@@ -0,0 +1,9 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.validation;
+
+import org.springframework.test.context.TestPropertySource;
+
+/***
+ * Runs all the validation tests with the descriptors parsed from their token stream
+ */
+@TestPropertySource(properties = "parser.streaming=true")
+public class StreamingValidationServiceTest extends ValidationServiceTest {}
@@ -3,13 +3,18 @@ package it.agilelab.witboost.cdp.priv.hdfs.provisioning.service.validation;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.common.Problem;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.ParserConfig;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.BatchProvisioningRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.DescriptorKind;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.openapi.model.ProvisioningRequest;
 import it.agilelab.witboost.cdp.priv.hdfs.provisioning.util.ResourceUtils;
 import java.io.IOException;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.context.SpringBootTest;
 
 @SpringBootTest(
@@ -17,10 +22,14 @@ import org.springframework.boot.test.context.SpringBootTest;
             ValidationServiceImpl.class,
             StorageAreaValidation.class,
             OutputPortValidation.class,
-            ValidationAutoConfiguration.class
+            ValidationAutoConfiguration.class,
+            ValidationServiceTest.ParserConfiguration.class
         })
 public class ValidationServiceTest {
 
+    @EnableConfigurationProperties(ParserConfig.class)
+    static class ParserConfiguration {}
+
     @Autowired
     ValidationServiceImpl validationService;
 
@@ -264,4 +273,58 @@ public class ValidationServiceTest {
             assertTrue(p.cause().isEmpty());
         });
     }
+
+    @Test
+    public void testValidateBatchOk() throws IOException {
+        String ymlDescriptor = ResourceUtils.getContentFromResource("/descriptor_outputport_many_components.yml");
+        var batchProvisioningRequest = new BatchProvisioningRequest(
+                ymlDescriptor,
+                List.of(
+                        "urn:dmb:cmp:healthcare:vaccinations:0:storage",
+                        "urn:dmb:cmp:healthcare:vaccinations:0:other-storage"));
+
+        var actualRes = validationService.validate(batchProvisioningRequest);
+
+        assertTrue(actualRes.isRight());
+        assertEquals(
+                List.of(
+                        "urn:dmb:cmp:healthcare:vaccinations:0:storage",
+                        "urn:dmb:cmp:healthcare:vaccinations:0:other-storage"),
+                actualRes.get().stream().map(r -> r.component().getId()).toList());
+    }
+
+    @Test
+    public void testValidateBatchReportsProblemsOfAllComponents() throws IOException {
+        String ymlDescriptor = ResourceUtils.getContentFromResource("/descriptor_outputport_many_components.yml");
+        var batchProvisioningRequest = new BatchProvisioningRequest(
+                ymlDescriptor,
+                List.of(
+                        "urn:dmb:cmp:healthcare:vaccinations:0:missing",
+                        "urn:dmb:cmp:healthcare:vaccinations:0:storage",
+                        "urn:dmb:cmp:healthcare:vaccinations:0:other-missing"));
+
+        var actualRes = validationService.validate(batchProvisioningRequest);
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(
+                List.of(
+                        "Component with ID urn:dmb:cmp:healthcare:vaccinations:0:missing not found in the Descriptor",
+                        "Component with ID urn:dmb:cmp:healthcare:vaccinations:0:other-missing not found in the Descriptor"),
+                actualRes.getLeft().problems().stream()
+                        .map(Problem::description)
+                        .toList());
+    }
+
+    @Test
+    public void testValidateBatchWithoutComponents() throws IOException {
+        String ymlDescriptor = ResourceUtils.getContentFromResource("/descriptor_outputport_many_components.yml");
+        var batchProvisioningRequest = new BatchProvisioningRequest(ymlDescriptor, List.of());
+        String expectedDesc = "The batch request doesn't contain any component to provision";
+
+        var actualRes = validationService.validate(batchProvisioningRequest);
+
+        assertTrue(actualRes.isLeft());
+        assertEquals(1, actualRes.getLeft().problems().size());
+        assertEquals(expectedDesc, actualRes.getLeft().problems().get(0).description());
+    }
 }
@@ -0,0 +1,133 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.loadtest;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.delete;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.put;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldif.LDIFException;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.loadtest.LoadTestConfig.FakeServiceConfig;
+import java.util.List;
+
+/***
+ * Local stand-ins of the external systems the provisioner talks to. Ranger and WebHDFS are answered by
+ * WireMock with the configured latency and error rate, LDAP by an in-memory UnboundID directory
+ */
+final class FakeServers {
+
+    static final String BASE_DN = "DC=agilelab,DC=it";
+    static final String BIND_DN = "CN=admin," + BASE_DN;
+    static final String BIND_PASSWORD = "password";
+
+    private static final String RANGER_API = "/service/public/v2/api";
+    private static final String JSON = "application/json";
+
+    private FakeServers() {}
+
+    /***
+     * Starts a stand-in of the Ranger Admin REST API. Security zones, policies and roles are never found,
+     * so that every provisioning request creates them, and created or updated entities are echoed back
+     * @param config latency and error rate of the responses
+     * @param threads number of threads serving the requests
+     * @return the started server
+     */
+    static WireMockServer ranger(FakeServiceConfig config, int threads) {
+        var server = wireMockServer(config, threads);
+        server.stubFor(get(urlPathMatching(RANGER_API + "/zones/name/.*"))
+                .willReturn(response(config).withStatus(404).withBody("{\"msgDesc\":\"Zone not found\"}")));
+        server.stubFor(post(urlPathEqualTo(RANGER_API + "/zones")).willReturn(echo(config)));
+        server.stubFor(put(urlPathMatching(RANGER_API + "/zones/-?\\d+")).willReturn(echo(config)));
+        server.stubFor(get(urlPathEqualTo(RANGER_API + "/policy")).willReturn(emptyList(config)));
+        server.stubFor(post(urlPathEqualTo(RANGER_API + "/policy")).willReturn(echo(config)));
+        server.stubFor(put(urlPathMatching(RANGER_API + "/policy/-?\\d+")).willReturn(echo(config)));
+        server.stubFor(delete(urlPathMatching(RANGER_API + "/policy/-?\\d+"))
+                .willReturn(response(config).withStatus(204)));
+        server.stubFor(get(urlPathEqualTo(RANGER_API + "/roles")).willReturn(emptyList(config)));
+        server.stubFor(post(urlPathEqualTo(RANGER_API + "/roles")).willReturn(echo(config)));
+        server.stubFor(put(urlPathMatching(RANGER_API + "/roles/-?\\d+")).willReturn(echo(config)));
+        server.stubFor(delete(urlPathMatching(RANGER_API + "/roles/-?\\d+"))
+                .willReturn(response(config).withStatus(204)));
+        return server;
+    }
+
+    /***
+     * Starts a stand-in of an active NameNode, answering the JMX status query and the MKDIRS and DELETE
+     * WebHDFS operations
+     * @param config latency and error rate of the responses
+     * @param threads number of threads serving the requests
+     * @return the started server
+     */
+    static WireMockServer webHdfs(FakeServiceConfig config, int threads) {
+        var server = wireMockServer(config, threads);
+        server.stubFor(get(urlPathEqualTo("/jmx"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", JSON)
+                        .withBody("{\"beans\":[{\"State\":\"active\"}]}")));
+        server.stubFor(any(urlPathMatching("/webhdfs/v1/.*"))
+                .willReturn(response(config).withStatus(200).withBody("{\"boolean\":true}")));
+        return server;
+    }
+
+    /***
+     * Starts an in-memory LDAP directory with the given users, identified by mail, and groups
+     * @param users the user ids, each one having mail {@code <userId>@email.com}
+     * @param groups the group names
+     * @return the started directory server
+     */
+    static InMemoryDirectoryServer ldap(List<String> users, List<String> groups) throws LDAPException, LDIFException {
+        var config = new InMemoryDirectoryServerConfig(BASE_DN);
+        config.addAdditionalBindCredentials(BIND_DN, BIND_PASSWORD);
+        config.setListenerConfigs(InMemoryListenerConfig.createLDAPConfig("default", 0));
+        config.setSchema(null);
+        var server = new InMemoryDirectoryServer(config);
+        server.add("dn: " + BASE_DN, "objectClass: domain", "dc: agilelab");
+        for (String user : users) {
+            server.add("dn: CN=" + user + "," + BASE_DN, "objectClass: person", "cn: " + user, "mail: " + mail(user));
+        }
+        for (String group : groups) {
+            server.add("dn: CN=" + group + "," + BASE_DN, "objectClass: groupOfNames", "cn: " + group);
+        }
+        server.startListening();
+        return server;
+    }
+
+    static String mail(String user) {
+        return user + "@email.com";
+    }
+
+    private static WireMockServer wireMockServer(FakeServiceConfig config, int threads) {
+        var server = new WireMockServer(options()
+                .dynamicPort()
+                .containerThreads(threads)
+                .disableRequestJournal()
+                .extensions(new FaultInjectionTransformer(config.errorRate())));
+        server.start();
+        return server;
+    }
+
+    private static ResponseDefinitionBuilder response(FakeServiceConfig config) {
+        var builder = aResponse().withHeader("Content-Type", JSON);
+        if (config.maxLatency() > 0) builder.withUniformRandomDelay(config.minLatency(), config.maxLatency());
+        return builder;
+    }
+
+    private static ResponseDefinitionBuilder echo(FakeServiceConfig config) {
+        return response(config).withStatus(200).withBody("{{{request.body}}}").withTransformers("response-template");
+    }
+
+    private static ResponseDefinitionBuilder emptyList(FakeServiceConfig config) {
+        return response(config).withStatus(200).withBody("[]");
+    }
+}
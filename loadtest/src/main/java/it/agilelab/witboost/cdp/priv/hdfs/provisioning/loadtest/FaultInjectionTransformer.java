@@ -0,0 +1,35 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.loadtest;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformerV2;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import java.util.concurrent.ThreadLocalRandom;
+
+/***
+ * Answers a random fraction of the requests with 503 Service Unavailable, keeping the latency of the stub
+ */
+class FaultInjectionTransformer implements ResponseDefinitionTransformerV2 {
+
+    private final double errorRate;
+
+    FaultInjectionTransformer(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public ResponseDefinition transform(ServeEvent serveEvent) {
+        var responseDefinition = serveEvent.getResponseDefinition();
+        if (errorRate <= 0 || ThreadLocalRandom.current().nextDouble() >= errorRate) return responseDefinition;
+        return ResponseDefinitionBuilder.like(responseDefinition)
+                .but()
+                .withStatus(503)
+                .withBody("Service Unavailable (injected fault)")
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return "fault-injection";
+    }
+}
@@ -0,0 +1,82 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/***
+ * Collects the latencies and the HTTP status codes of the requests of an operation
+ */
+class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int count = 0;
+    private final Map<Integer, Integer> statusCodes = new TreeMap<>();
+
+    /***
+     * Records a completed request
+     * @param latencyNanos latency of the request in nanoseconds
+     * @param statusCode HTTP status code of the response, or 0 if no response was received
+     */
+    synchronized void record(long latencyNanos, int statusCode) {
+        if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+        latencies[count++] = latencyNanos;
+        statusCodes.merge(statusCode, 1, Integer::sum);
+    }
+
+    /***
+     * @return the summary of the recorded requests
+     */
+    synchronized Summary summary() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int errors = statusCodes.entrySet().stream()
+                .filter(e -> e.getKey() < 200 || e.getKey() >= 300)
+                .mapToInt(Map.Entry::getValue)
+                .sum();
+        return new Summary(
+                count,
+                errors,
+                new TreeMap<>(statusCodes),
+                percentile(sorted, 50),
+                percentile(sorted, 90),
+                percentile(sorted, 95),
+                percentile(sorted, 99),
+                percentile(sorted, 99.9),
+                count > 0 ? sorted[count - 1] : 0);
+    }
+
+    /***
+     * Merges the requests recorded by another recorder into this one
+     * @param other the recorder to merge
+     */
+    synchronized void merge(LatencyRecorder other) {
+        synchronized (other) {
+            for (int i = 0; i < other.count; i++) {
+                if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                latencies[count++] = other.latencies[i];
+            }
+            other.statusCodes.forEach((code, n) -> statusCodes.merge(code, n, Integer::sum));
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /***
+     * Summary of the requests of an operation. Latencies are in nanoseconds
+     */
+    record Summary(
+            int count,
+            int errors,
+            Map<Integer, Integer> statusCodes,
+            long p50,
+            long p90,
+            long p95,
+            long p99,
+            long p999,
+            long max) {}
+}
@@ -0,0 +1,187 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/***
+ * Drives the provisioner with concurrent clients, each one sending a random mix of provision, unprovision and
+ * updateacl requests as fast as it gets the responses, and reports throughput and latency percentiles
+ */
+class LoadDriver {
+
+    enum Operation {
+        PROVISION("/v1/provision"),
+        UNPROVISION("/v1/unprovision"),
+        UPDATE_ACL("/v1/updateacl");
+
+        private final String path;
+
+        Operation(String path) {
+            this.path = path;
+        }
+    }
+
+    private final LoadTestConfig config;
+    private final URI baseUri;
+    private final HttpClient httpClient;
+    private final Map<Operation, List<String>> bodies = new EnumMap<>(Operation.class);
+    private final List<Operation> weightedOperations = new ArrayList<>();
+
+    LoadDriver(LoadTestConfig config, URI baseUri, String storageDescriptor, String outputPortDescriptor)
+            throws JsonProcessingException {
+        this.config = config;
+        this.baseUri = baseUri;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        var mapper = new ObjectMapper();
+        List<String> refs = Stream.concat(
+                        LoadTest.users(config.refs()).stream().map(u -> "user:" + u + "_email.com"),
+                        LoadTest.groups(config.refs()).stream().map(g -> "group:" + g))
+                .toList();
+        List<String> provisionBodies = new ArrayList<>();
+        List<String> unprovisionBodies = new ArrayList<>();
+        List<String> updateAclBodies = new ArrayList<>();
+        for (int i = 0; i < config.dataProducts(); i++) {
+            String storage = forDataProduct(storageDescriptor, i);
+            String outputPort = forDataProduct(outputPortDescriptor, i);
+            provisionBodies.add(mapper.writeValueAsString(provisioningRequest(storage, false)));
+            unprovisionBodies.add(mapper.writeValueAsString(provisioningRequest(storage, true)));
+            updateAclBodies.add(mapper.writeValueAsString(
+                    Map.of("refs", refs, "provisionInfo", Map.of("request", outputPort, "result", ""))));
+        }
+        bodies.put(Operation.PROVISION, provisionBodies);
+        bodies.put(Operation.UNPROVISION, unprovisionBodies);
+        bodies.put(Operation.UPDATE_ACL, updateAclBodies);
+        IntStream.range(0, config.provisionWeight()).forEach(i -> weightedOperations.add(Operation.PROVISION));
+        IntStream.range(0, config.unprovisionWeight()).forEach(i -> weightedOperations.add(Operation.UNPROVISION));
+        IntStream.range(0, config.updateAclWeight()).forEach(i -> weightedOperations.add(Operation.UPDATE_ACL));
+        if (weightedOperations.isEmpty()) throw new IllegalArgumentException("All the operation weights are zero");
+    }
+
+    /***
+     * Runs the warm-up, whose requests are discarded, and then the measured run
+     * @return the requests recorded during the measured run, by operation
+     */
+    Map<Operation, LatencyRecorder> run() throws InterruptedException {
+        if (config.warmup() > 0) runFor(config.warmup());
+        return runFor(config.duration());
+    }
+
+    private Map<Operation, LatencyRecorder> runFor(long durationMillis) throws InterruptedException {
+        Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        for (Operation op : Operation.values()) recorders.put(op, new LatencyRecorder());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        ExecutorService clients = Executors.newFixedThreadPool(config.concurrency());
+        for (int c = 0; c < config.concurrency(); c++) {
+            clients.submit(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    var random = ThreadLocalRandom.current();
+                    var op = weightedOperations.get(random.nextInt(weightedOperations.size()));
+                    var body = bodies.get(op).get(random.nextInt(config.dataProducts()));
+                    long start = System.nanoTime();
+                    int statusCode = send(op, body);
+                    recorders.get(op).record(System.nanoTime() - start, statusCode);
+                }
+            });
+        }
+        clients.shutdown();
+        if (!clients.awaitTermination(durationMillis + 60000, TimeUnit.MILLISECONDS)) clients.shutdownNow();
+        return recorders;
+    }
+
+    private int send(Operation op, String body) {
+        var request = HttpRequest.newBuilder(baseUri.resolve(op.path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            return httpClient
+                    .send(request, HttpResponse.BodyHandlers.discarding())
+                    .statusCode();
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    /***
+     * Prints throughput and latency percentiles of each operation and of all the operations together
+     * @param recorders the requests recorded during the measured run
+     * @param out where to print the report
+     */
+    void printReport(Map<Operation, LatencyRecorder> recorders, PrintStream out) {
+        double seconds = config.duration() / 1000.0;
+        var total = new LatencyRecorder();
+        recorders.values().forEach(total::merge);
+        out.printf(
+                "%nLoad test: %d clients, %d s, %d data products, %d refs per updateacl%n",
+                config.concurrency(), config.duration() / 1000, config.dataProducts(), config.refs());
+        out.printf(
+                "%-12s %9s %8s %10s %9s %9s %9s %9s %9s %9s  %s%n",
+                "operation",
+                "requests",
+                "errors",
+                "req/s",
+                "p50 ms",
+                "p90 ms",
+                "p95 ms",
+                "p99 ms",
+                "p99.9 ms",
+                "max ms",
+                "status codes");
+        recorders.forEach((op, recorder) -> printRow(out, op.name().toLowerCase(), recorder.summary(), seconds));
+        printRow(out, "total", total.summary(), seconds);
+    }
+
+    private static void printRow(PrintStream out, String name, LatencyRecorder.Summary s, double seconds) {
+        out.printf(
+                "%-12s %9d %8d %10.1f %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f  %s%n",
+                name,
+                s.count(),
+                s.errors(),
+                s.count() / seconds,
+                millis(s.p50()),
+                millis(s.p90()),
+                millis(s.p95()),
+                millis(s.p99()),
+                millis(s.p999()),
+                millis(s.max()),
+                s.statusCodes());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Map<String, Object> provisioningRequest(String descriptor, boolean removeData) {
+        return Map.of("descriptorKind", "COMPONENT_DESCRIPTOR", "descriptor", descriptor, "removeData", removeData);
+    }
+
+    /***
+     * Each data product gets its own security zone, roles and policies on Ranger
+     */
+    private static String forDataProduct(String descriptor, int index) {
+        return descriptor.replace("vaccinations", "vaccinations" + index);
+    }
+}
@@ -0,0 +1,119 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.loadtest;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.Main;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+/***
+ * Boots the provisioner against local stand-ins of Ranger, WebHDFS and LDAP and drives it with concurrent
+ * provision, unprovision and updateacl requests. The options of the load test are the {@code --loadtest.*}
+ * arguments (see {@link LoadTestConfig}), all the other arguments are passed to the provisioner,
+ * e.g. {@code --parser.streaming=true}
+ */
+public class LoadTest {
+
+    private static final String DATA_PRODUCT_OWNER = "name.surname";
+    private static final String DEV_GROUP = "dev";
+
+    public static void main(String[] args) throws Exception {
+        var environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        var config = Binder.get(environment).bindOrCreate("loadtest", LoadTestConfig.class);
+
+        int stubThreads = Math.max(20, config.concurrency() * 2);
+        var ldap = FakeServers.ldap(
+                Stream.concat(Stream.of(DATA_PRODUCT_OWNER), users(config.refs()).stream())
+                        .toList(),
+                Stream.concat(Stream.of(DEV_GROUP), groups(config.refs()).stream())
+                        .toList());
+        var ranger = FakeServers.ranger(config.ranger(), stubThreads);
+        var webHdfs = FakeServers.webHdfs(config.webHdfs(), stubThreads);
+
+        Map<String, String> overrides = new LinkedHashMap<>();
+        overrides.put("server.port", "0");
+        overrides.put("ranger.baseUrl", ranger.baseUrl());
+        overrides.put("hdfs.nameNodes", webHdfs.baseUrl());
+        overrides.put("mapping.ldap.url", "ldap://localhost:" + ldap.getListenPort());
+        overrides.put("mapping.ldap.useTls", "false");
+        overrides.put("mapping.ldap.bindUsername", FakeServers.BIND_DN);
+        overrides.put("mapping.ldap.bindPassword", FakeServers.BIND_PASSWORD);
+        overrides.put("mapping.ldap.searchBaseDN", FakeServers.BASE_DN);
+        overrides.put("mapping.ldap.userSearchFilter", "(mail={mail})");
+        overrides.put("mapping.ldap.groupSearchFilter", "(&(objectClass=groupOfNames)(cn={group}))");
+        overrides.put("mapping.ldap.userAttributeName", "cn");
+        overrides.put("mapping.ldap.groupAttributeName", "cn");
+        overrides.put("async.provisionEnabled", "false");
+        // logging every request would measure the console rather than the provisioner
+        overrides.put("logging.level.root", "WARN");
+        overrides.put("logging.level.org.apache.ranger.RangerClient", "WARN");
+        overrides.put("logging.level.sun.net.www.protocol.http.HttpURLConnection", "WARN");
+        overrides.put("logging.level.org.apache.hc.client5.http", "WARN");
+
+        var app = new SpringApplicationBuilder(Main.class, LoadTestConfiguration.class)
+                .run(applicationArgs(args, overrides));
+        try {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            var driver = new LoadDriver(
+                    config,
+                    URI.create("http://localhost:" + port),
+                    readResource("/descriptor_storage.yml"),
+                    readResource("/descriptor_outputport.yml"));
+            driver.printReport(driver.run(), System.out);
+        } finally {
+            app.close();
+            ranger.stop();
+            webHdfs.stop();
+            ldap.shutDown(true);
+        }
+    }
+
+    /***
+     * The arguments given on the command line win over the overrides of the load test, as a property repeated
+     * on the command line would be bound as a list
+     */
+    private static String[] applicationArgs(String[] args, Map<String, String> overrides) {
+        List<String> appArgs = new ArrayList<>(Arrays.asList(args));
+        overrides.forEach((key, value) -> {
+            boolean overridden = Arrays.stream(args).anyMatch(a -> a.startsWith("--" + key + "="));
+            if (!overridden) appArgs.add("--" + key + "=" + value);
+        });
+        return appArgs.toArray(String[]::new);
+    }
+
+    /***
+     * @param refs number of refs of the updateacl requests
+     * @return the users referenced by the updateacl requests, half of the refs
+     */
+    static List<String> users(int refs) {
+        return IntStream.range(0, refs - refs / 2).mapToObj(i -> "user" + i).toList();
+    }
+
+    /***
+     * @param refs number of refs of the updateacl requests
+     * @return the groups referenced by the updateacl requests, half of the refs
+     */
+    static List<String> groups(int refs) {
+        return IntStream.range(0, refs / 2).mapToObj(i -> "group" + i).toList();
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (InputStream is = LoadTest.class.getResourceAsStream(name)) {
+            if (is == null) throw new IOException("Resource not found: " + name);
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.loadtest;
+
+/***
+ * Load test configuration, bound from the command line arguments with prefix loadtest
+ * @param concurrency Number of clients sending requests concurrently. Defaults to 16
+ * @param duration Duration in milliseconds of the measured run. Defaults to 60000
+ * @param warmup Duration in milliseconds of the warm-up run, whose requests are not measured. Defaults to 10000
+ * @param dataProducts Number of distinct data products the requests are spread over. Defaults to 50
+ * @param refs Number of refs (half users and half groups) of each updateacl request. Defaults to 10
+ * @param provisionWeight Relative frequency of the provision requests. Defaults to 2
+ * @param unprovisionWeight Relative frequency of the unprovision requests. Defaults to 1
+ * @param updateAclWeight Relative frequency of the updateacl requests. Defaults to 1
+ * @param ranger Behaviour of the Ranger stand-in
+ * @param webHdfs Behaviour of the WebHDFS stand-in
+ */
+public record LoadTestConfig(
+        Integer concurrency,
+        Integer duration,
+        Integer warmup,
+        Integer dataProducts,
+        Integer refs,
+        Integer provisionWeight,
+        Integer unprovisionWeight,
+        Integer updateAclWeight,
+        FakeServiceConfig ranger,
+        FakeServiceConfig webHdfs) {
+
+    public LoadTestConfig {
+        concurrency = concurrency != null ? concurrency : 16;
+        duration = duration != null ? duration : 60000;
+        warmup = warmup != null ? warmup : 10000;
+        dataProducts = dataProducts != null ? dataProducts : 50;
+        refs = refs != null ? refs : 10;
+        provisionWeight = provisionWeight != null ? provisionWeight : 2;
+        unprovisionWeight = unprovisionWeight != null ? unprovisionWeight : 1;
+        updateAclWeight = updateAclWeight != null ? updateAclWeight : 1;
+        ranger = ranger != null ? ranger : new FakeServiceConfig(null, null, null);
+        webHdfs = webHdfs != null ? webHdfs : new FakeServiceConfig(null, null, null);
+    }
+
+    /***
+     * Behaviour of a stand-in of an external service
+     * @param minLatency Minimum latency in milliseconds of each response. Defaults to 0
+     * @param maxLatency Maximum latency in milliseconds of each response, the latency is uniformly distributed between the minimum and the maximum. Defaults to minLatency
+     * @param errorRate Fraction of the requests answered with 503 Service Unavailable, between 0 and 1. Defaults to 0
+     */
+    public record FakeServiceConfig(Integer minLatency, Integer maxLatency, Double errorRate) {
+
+        public FakeServiceConfig {
+            minLatency = minLatency != null ? minLatency : 0;
+            maxLatency = maxLatency != null ? Math.max(maxLatency, minLatency) : minLatency;
+            errorRate = errorRate != null ? errorRate : 0.0;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package it.agilelab.witboost.cdp.priv.hdfs.provisioning.loadtest;
+
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.bean.KerberosSubjectProvider;
+import it.agilelab.witboost.cdp.priv.hdfs.provisioning.config.KerberosConfig;
+import javax.security.auth.Subject;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/***
+ * Beans replaced when the provisioner runs against the local stand-ins
+ */
+@Configuration
+public class LoadTestConfiguration {
+
+    /***
+     * There is no KDC to log in to: WebHDFS requests are sent with an empty subject, which is never used
+     * as the WebHDFS stand-in doesn't ask for SPNEGO authentication
+     */
+    @Bean
+    @Primary
+    public KerberosSubjectProvider anonymousSubjectProvider(KerberosConfig kerberosConfig) {
+        return new KerberosSubjectProvider(kerberosConfig) {
+            @Override
+            public Subject getSubject() {
+                return new Subject();
+            }
+        };
+    }
+}